@@ -1,5 +1,7 @@
 package com.github.sergiocostaczr.arquiteturaspring;
 
+import com.github.sergiocostaczr.arquiteturaspring.notificacao.NotificacaoRepository;
+import com.github.sergiocostaczr.arquiteturaspring.notificacao.NotificacaoService;
 import com.github.sergiocostaczr.arquiteturaspring.todos.*;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityManager;
@@ -21,10 +23,11 @@ public class ExemploInjecaoDependencia {
         EntityManager entityManager = null;
 
         TodoRepository repository = null;//new SimpleJpaRepository<TodoEntiy, Integer>();
-        TodoValidator validator = new TodoValidator(repository);
-        MailSender mailSender = new MailSender();
+        TodoValidator validator = new TodoValidator();
+        NotificacaoRepository notificacaoRepository = null;
+        NotificacaoService notificacaoService = new NotificacaoService(notificacaoRepository);
 
-        TodoService todoService = new TodoService(repository,validator,mailSender);
+        TodoService todoService = new TodoService(repository,validator,notificacaoService);
 
         //Injecao via seter, se torna opcional
         //BeanGerenciado beanGerenciado = new BeanGerenciado(null);
@@ -0,0 +1,165 @@
+package com.github.sergiocostaczr.arquiteturaspring.notificacao;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drena a outbox (tb_notificacao) em lotes, fora da thread da requisição.
+ *
+ * Cada lote passa por tres etapas, sem transação (nem travas) durante o envio:
+ *  1. transação curta: as linhas prontas são travadas (skip locked) e reservadas (EM_ENVIO ate agora + prazoEnvio);
+ *  2. envio uma a uma, fora de transação;
+ *  3. transação curta: o resultado de cada uma é gravado, se a reserva ainda for deste despachante.
+ * Falha no envio agenda nova tentativa com espera exponencial
+ * (esperaInicial * 2^(tentativas-1), limitada a esperaMaxima); esgotado maximoTentativas a notificação vira MORTA.
+ * A entrega é "pelo menos uma vez": se a aplicação cair entre o envio e a gravação do resultado, a reserva vence
+ * e a mensagem é reenviada.
+ */
+@Component
+public class DespachanteNotificacoes {
+
+    private static final Logger log = LoggerFactory.getLogger(DespachanteNotificacoes.class);
+
+    private static final List<StatusNotificacao> NA_FILA = List.of(StatusNotificacao.PENDENTE, StatusNotificacao.EM_ENVIO);
+
+    // Resultado do envio de uma notificação reservada. erro null: enviada.
+    private record Resultado(Notificacao notificacao, Instant enviadoEm, RuntimeException erro) {
+    }
+
+    private NotificacaoRepository repository;
+    private EnvioNotificacao envio;
+    private NotificacaoProperties properties;
+    private TransactionTemplate transactionTemplate;
+
+    private final AtomicLong pendentes = new AtomicLong();
+    private final AtomicLong atrasoMs = new AtomicLong();
+    private final Counter enviadas;
+    private final Counter falhas;
+    private final Counter mortas;
+    private final Timer atrasoEntrega;
+
+    public DespachanteNotificacoes(NotificacaoRepository repository, EnvioNotificacao envio,
+                                   NotificacaoProperties properties, TransactionTemplate transactionTemplate,
+                                   MeterRegistry registry) {
+        this.repository = repository;
+        this.envio = envio;
+        this.properties = properties;
+        this.transactionTemplate = transactionTemplate;
+
+        // Profundidade da fila e idade da pendente mais antiga, atualizadas a cada ciclo do despachante.
+        Gauge.builder("notificacao.fila", pendentes, AtomicLong::get)
+                .description("Notificações pendentes na outbox").register(registry);
+        Gauge.builder("notificacao.atraso", atrasoMs, valor -> valor.get() / 1000.0)
+                .description("Idade da notificação pendente mais antiga").baseUnit("seconds").register(registry);
+        this.enviadas = Counter.builder("notificacao.enviadas").register(registry);
+        this.falhas = Counter.builder("notificacao.falhas").description("Tentativas de envio com erro").register(registry);
+        this.mortas = Counter.builder("notificacao.mortas").description("Notificações que esgotaram as tentativas").register(registry);
+        this.atrasoEntrega = Timer.builder("notificacao.entrega")
+                .description("Tempo entre a gravação na outbox e o envio").publishPercentileHistogram().register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.notificacao.intervalo:1s}")
+    public void despachar(){
+        int processadas;
+        do {
+            List<Notificacao> reservadas = transactionTemplate.execute(status -> reservarLote());
+            List<Resultado> resultados = enviar(reservadas);
+            transactionTemplate.executeWithoutResult(status -> resultados.forEach(this::registrar));
+            processadas = reservadas.size();
+        } while (processadas == properties.getTamanhoLote());
+        atualizarMetricas();
+    }
+
+    private List<Notificacao> reservarLote(){
+        Instant agora = Instant.now();
+        // Em milissegundos: o valor volta na condição do update e precisa ser igual ao gravado no banco.
+        Instant reserva = agora.plus(properties.getPrazoEnvio()).truncatedTo(ChronoUnit.MILLIS);
+        List<Notificacao> lote = repository.buscarProntas(NA_FILA, agora, Limit.of(properties.getTamanhoLote()));
+        for (Notificacao notificacao : lote){
+            if (notificacao.getStatus() == StatusNotificacao.EM_ENVIO){
+                log.warn("Reserva da notificação {} venceu sem resultado, reenviando", notificacao.getId());
+            }
+            notificacao.setStatus(StatusNotificacao.EM_ENVIO);
+            notificacao.setProximaTentativa(reserva);
+        }
+        return lote;
+    }
+
+    private List<Resultado> enviar(List<Notificacao> reservadas){
+        List<Resultado> resultados = new ArrayList<>(reservadas.size());
+        for (Notificacao notificacao : reservadas){
+            try {
+                envio.enviar(notificacao.getMensagem());
+                resultados.add(new Resultado(notificacao, Instant.now(), null));
+            } catch (RuntimeException e) {
+                resultados.add(new Resultado(notificacao, null, e));
+            }
+        }
+        return resultados;
+    }
+
+    private void registrar(Resultado resultado){
+        Notificacao notificacao = resultado.notificacao();
+        if (resultado.erro() != null){
+            registrarFalha(notificacao, resultado.erro());
+            return;
+        }
+        if (repository.marcarEnviada(notificacao.getId(), StatusNotificacao.EM_ENVIO, notificacao.getProximaTentativa(),
+                StatusNotificacao.ENVIADA, resultado.enviadoEm()) == 0){
+            log.warn("Notificação {} enviada depois do prazo da reserva", notificacao.getId());
+            return;
+        }
+        enviadas.increment();
+        atrasoEntrega.record(Duration.between(notificacao.getCriadoEm(), resultado.enviadoEm()));
+    }
+
+    private void registrarFalha(Notificacao notificacao, RuntimeException erro){
+        falhas.increment();
+        int tentativas = notificacao.getTentativas() + 1;
+        String mensagem = String.valueOf(erro.getMessage());
+        boolean morta = tentativas >= properties.getMaximoTentativas();
+
+        int registradas = repository.marcarFalha(notificacao.getId(), StatusNotificacao.EM_ENVIO, notificacao.getProximaTentativa(),
+                morta ? StatusNotificacao.MORTA : StatusNotificacao.PENDENTE, tentativas,
+                morta ? notificacao.getProximaTentativa() : Instant.now().plus(espera(tentativas)),
+                mensagem.substring(0, Math.min(mensagem.length(), 500)));
+        if (registradas == 0){
+            log.warn("Falha da notificação {} registrada depois do prazo da reserva: {}", notificacao.getId(), mensagem);
+            return;
+        }
+
+        if (morta){
+            mortas.increment();
+            log.error("Notificação {} descartada apos {} tentativas: {}", notificacao.getId(), tentativas, mensagem);
+            return;
+        }
+        log.warn("Falha ao enviar notificação {} (tentativa {}): {}", notificacao.getId(), tentativas, mensagem);
+    }
+
+    private Duration espera(int tentativas){
+        Duration espera = properties.getEsperaInicial().multipliedBy(1L << Math.min(tentativas - 1, 20));
+        return espera.compareTo(properties.getEsperaMaxima()) > 0 ? properties.getEsperaMaxima() : espera;
+    }
+
+    private void atualizarMetricas(){
+        pendentes.set(repository.countByStatusIn(NA_FILA));
+        atrasoMs.set(repository.buscarMaisAntiga(NA_FILA)
+                .map(criadoEm -> Duration.between(criadoEm, Instant.now()).toMillis())
+                .orElse(0L));
+    }
+}
@@ -0,0 +1,7 @@
+package com.github.sergiocostaczr.arquiteturaspring.notificacao;
+
+// Canal de entrega usado pelo DespachanteNotificacoes. Lança exceção quando a entrega falha (vai para retentativa).
+public interface EnvioNotificacao {
+
+    void enviar(String mensagem);
+}
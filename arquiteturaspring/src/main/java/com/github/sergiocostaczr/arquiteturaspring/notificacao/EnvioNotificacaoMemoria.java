@@ -0,0 +1,39 @@
+package com.github.sergiocostaczr.arquiteturaspring.notificacao;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Envio local (app.notificacao.envio=memoria): guarda as mensagens, para testes e desenvolvimento sem servidor de email.
+@Component
+@ConditionalOnProperty(name = "app.notificacao.envio", havingValue = "memoria")
+public class EnvioNotificacaoMemoria implements EnvioNotificacao {
+
+    private final List<String> enviadas = new CopyOnWriteArrayList<>();
+    private final AtomicInteger falhasRestantes = new AtomicInteger();
+
+    @Override
+    public void enviar(String mensagem) {
+        if (falhasRestantes.getAndUpdate(restantes -> Math.max(0, restantes - 1)) > 0){
+            throw new IllegalStateException("Falha simulada no envio");
+        }
+        enviadas.add(mensagem);
+    }
+
+    // As proximas "quantidade" chamadas falham, para simular indisponibilidade do canal.
+    public void falharProximas(int quantidade){
+        falhasRestantes.set(quantidade);
+    }
+
+    public List<String> getEnviadas() {
+        return List.copyOf(enviadas);
+    }
+
+    public void limpar(){
+        enviadas.clear();
+        falhasRestantes.set(0);
+    }
+}
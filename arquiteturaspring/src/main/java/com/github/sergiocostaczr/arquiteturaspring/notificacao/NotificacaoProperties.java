@@ -0,0 +1,75 @@
+package com.github.sergiocostaczr.arquiteturaspring.notificacao;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.notificacao")
+public class NotificacaoProperties {
+
+    private String envio = "email";
+    private Duration intervalo = Duration.ofSeconds(1);
+    private int tamanhoLote = 50;
+    private int maximoTentativas = 5;
+    private Duration esperaInicial = Duration.ofSeconds(2);
+    private Duration esperaMaxima = Duration.ofMinutes(5);
+    private Duration prazoEnvio = Duration.ofMinutes(1);
+
+    public String getEnvio() {
+        return envio;
+    }
+
+    public void setEnvio(String envio) {
+        this.envio = envio;
+    }
+
+    public Duration getIntervalo() {
+        return intervalo;
+    }
+
+    public void setIntervalo(Duration intervalo) {
+        this.intervalo = intervalo;
+    }
+
+    public int getTamanhoLote() {
+        return tamanhoLote;
+    }
+
+    public void setTamanhoLote(int tamanhoLote) {
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    public int getMaximoTentativas() {
+        return maximoTentativas;
+    }
+
+    public void setMaximoTentativas(int maximoTentativas) {
+        this.maximoTentativas = maximoTentativas;
+    }
+
+    public Duration getEsperaInicial() {
+        return esperaInicial;
+    }
+
+    public void setEsperaInicial(Duration esperaInicial) {
+        this.esperaInicial = esperaInicial;
+    }
+
+    public Duration getEsperaMaxima() {
+        return esperaMaxima;
+    }
+
+    public void setEsperaMaxima(Duration esperaMaxima) {
+        this.esperaMaxima = esperaMaxima;
+    }
+
+    public Duration getPrazoEnvio() {
+        return prazoEnvio;
+    }
+
+    public void setPrazoEnvio(Duration prazoEnvio) {
+        this.prazoEnvio = prazoEnvio;
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.sergiocostaczr.arquiteturaspring.notificacao;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface NotificacaoRepository extends JpaRepository<Notificacao, Long> {
+
+    // select ... for update skip locked: com mais de uma instancia, cada despachante pega linhas diferentes.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select n from Notificacao n where n.status in :status and n.proximaTentativa <= :agora order by n.id")
+    List<Notificacao> buscarProntas(@Param("status") Collection<StatusNotificacao> status, @Param("agora") Instant agora, Limit limite);
+
+    // Resultado do envio, só se a reserva (EM_ENVIO ate :reserva) ainda é de quem enviou: com a reserva
+    // vencida outro despachante pode ter pego a linha, e o resultado dele é que vale.
+    @Modifying
+    @Query("""
+            update Notificacao n
+            set n.status = :status, n.enviadoEm = :enviadoEm, n.ultimoErro = null
+            where n.id = :id and n.status = :reservada and n.proximaTentativa = :reserva
+            """)
+    int marcarEnviada(@Param("id") Long id, @Param("reservada") StatusNotificacao reservada, @Param("reserva") Instant reserva,
+                      @Param("status") StatusNotificacao status, @Param("enviadoEm") Instant enviadoEm);
+
+    @Modifying
+    @Query("""
+            update Notificacao n
+            set n.status = :status, n.tentativas = :tentativas, n.proximaTentativa = :proximaTentativa, n.ultimoErro = :erro
+            where n.id = :id and n.status = :reservada and n.proximaTentativa = :reserva
+            """)
+    int marcarFalha(@Param("id") Long id, @Param("reservada") StatusNotificacao reservada, @Param("reserva") Instant reserva,
+                    @Param("status") StatusNotificacao status, @Param("tentativas") int tentativas,
+                    @Param("proximaTentativa") Instant proximaTentativa, @Param("erro") String erro);
+
+    long countByStatusIn(Collection<StatusNotificacao> status);
+
+    @Query("select min(n.criadoEm) from Notificacao n where n.status in :status")
+    Optional<Instant> buscarMaisAntiga(@Param("status") Collection<StatusNotificacao> status);
+}
@@ -0,0 +1,29 @@
+package com.github.sergiocostaczr.arquiteturaspring.notificacao;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Service
+public class NotificacaoService {
+
+    private NotificacaoRepository repository;
+
+    public NotificacaoService(NotificacaoRepository repository) {
+        this.repository = repository;
+    }
+
+    // MANDATORY: a notificação só existe se a alteração que a gerou for confirmada (mesma transação).
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(String mensagem){
+        var agora = Instant.now();
+        var notificacao = new Notificacao();
+        notificacao.setMensagem(mensagem);
+        notificacao.setStatus(StatusNotificacao.PENDENTE);
+        notificacao.setCriadoEm(agora);
+        notificacao.setProximaTentativa(agora);
+        repository.save(notificacao);
+    }
+}
@@ -0,0 +1,8 @@
+package com.github.sergiocostaczr.arquiteturaspring.notificacao;
+
+public enum StatusNotificacao {
+    PENDENTE,
+    EM_ENVIO, // reservada por um despachante ate proxima_tentativa; depois disso volta a ser pega (despachante caiu)
+    ENVIADA,
+    MORTA // esgotou as tentativas (dead letter), fica na tabela para analise
+}
@@ -0,0 +1,14 @@
+package com.github.sergiocostaczr.arquiteturaspring.todos;
+
+import java.util.List;
+
+// Corpo do PATCH /todos/{id}/status: só o status, os demais campos do todo não são tocados.
+public record AtualizacaoStatus(Boolean concluido) {
+
+    // Corpo do PATCH /todos/status. Sem "concluido" os ids são marcados como concluidos.
+    public record Lote(List<Integer> ids, Boolean concluido) {
+    }
+
+    public record ResultadoLote(int solicitados, int atualizados) {
+    }
+}
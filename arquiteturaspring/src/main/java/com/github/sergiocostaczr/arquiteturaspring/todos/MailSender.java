@@ -1,12 +1,17 @@
 package com.github.sergiocostaczr.arquiteturaspring.todos;
 
+import com.github.sergiocostaczr.arquiteturaspring.notificacao.EnvioNotificacao;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import javax.sound.midi.Soundbank;
 
+// Envio padrão das notificações (app.notificacao.envio=email), chamado pelo DespachanteNotificacoes.
 @Component
-public class MailSender {
+@ConditionalOnProperty(name = "app.notificacao.envio", havingValue = "email", matchIfMissing = true)
+public class MailSender implements EnvioNotificacao {
 
+    @Override
     public void enviar(String msg){
         System.out.println("enviado email: " + msg);
     }
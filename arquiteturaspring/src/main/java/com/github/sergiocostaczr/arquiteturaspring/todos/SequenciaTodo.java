@@ -0,0 +1,15 @@
+package com.github.sergiocostaczr.arquiteturaspring.todos;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Id do TodoEntiy gerado pela sequence tb_todo_seq (SequenciaTodoGenerator).
+@IdGeneratorType(SequenciaTodoGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface SequenciaTodo {
+}
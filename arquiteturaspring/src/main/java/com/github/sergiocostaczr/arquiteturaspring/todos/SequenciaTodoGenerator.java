@@ -0,0 +1,36 @@
+package com.github.sergiocostaczr.arquiteturaspring.todos;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.generator.GeneratorCreationContext;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.util.Properties;
+
+/**
+ * Sequence com otimizador pooled-lo: uma chamada ao banco reserva "alocacao" ids
+ * (valor lido da sequence = primeiro id do bloco), o resto é gerado em memoria.
+ *
+ * Com IDENTITY o Hibernate precisa executar cada insert na hora para saber o id, o que desliga o
+ * batch de inserts do JDBC (hibernate.jdbc.batch_size). Com a sequence o id é conhecido antes do insert.
+ *
+ * O tamanho do bloco vem de spring.jpa.properties.todo.sequencia.alocacao (padrão 50) e precisa
+ * ser igual ao "increment by" da sequence no banco (ver migracao-todo-sequence.sql).
+ */
+public class SequenciaTodoGenerator extends SequenceStyleGenerator {
+
+    public static final String SEQUENCIA = "tb_todo_seq";
+    public static final String CONFIG_ALOCACAO = "todo.sequencia.alocacao";
+    public static final int ALOCACAO_PADRAO = 50;
+
+    @Override
+    public void configure(GeneratorCreationContext contexto, Properties parametros) throws MappingException {
+        Object alocacao = contexto.getServiceRegistry().requireService(ConfigurationService.class)
+                .getSettings().getOrDefault(CONFIG_ALOCACAO, ALOCACAO_PADRAO);
+
+        parametros.setProperty(SEQUENCE_PARAM, SEQUENCIA);
+        parametros.setProperty(INCREMENT_PARAM, String.valueOf(alocacao));
+        parametros.setProperty(OPT_PARAM, "pooled-lo");
+        super.configure(contexto, parametros);
+    }
+}
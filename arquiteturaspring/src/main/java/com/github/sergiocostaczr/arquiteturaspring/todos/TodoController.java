@@ -4,6 +4,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("todos")
 public class TodoController {
@@ -18,16 +20,57 @@ public class TodoController {
     public TodoEntiy salvar(@RequestBody TodoEntiy todo){
         try {
             return service.salvar(todo);
-        } catch (IllegalArgumentException e) {
+        } catch (TodoDuplicadoException e) {
             var mensagemErro = e.getMessage();
             throw new ResponseStatusException(HttpStatus.CONFLICT, mensagemErro);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    // Ex: POST /todos/lote [{"descricao": "a"}, {"descricao": "b"}] -> todos gravados ou nenhum (409 se duplicado)
+    @PostMapping("lote")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<TodoEntiy> salvarLote(@RequestBody List<TodoEntiy> todos){
+        try {
+            return service.salvarLote(todos);
+        } catch (TodoDuplicadoException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
     }
 
     @PutMapping("{id}")
     public void atualizarStatus(@PathVariable ("id") Integer id, @RequestBody TodoEntiy todo){
         todo.setId(id);
-        service.atualizarStatus(todo);
+        try {
+            service.atualizarStatus(todo);
+        } catch (TodoDuplicadoException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    // Ex: PATCH /todos/10/status {"concluido": true} -> 204, ou 404 se o todo não existe
+    @PatchMapping("{id}/status")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void atualizarConcluido(@PathVariable("id") Integer id, @RequestBody AtualizacaoStatus status){
+        if (status.concluido() == null){
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Informe o campo concluido!");
+        }
+        if (!service.atualizarConcluido(id, status.concluido())){
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "TODO não encontrado!");
+        }
+    }
+
+    // Ex: PATCH /todos/status {"ids": [1, 2, 3], "concluido": true} -> quantos foram encontrados e atualizados
+    @PatchMapping("status")
+    public AtualizacaoStatus.ResultadoLote atualizarConcluido(@RequestBody AtualizacaoStatus.Lote lote){
+        try {
+            return service.atualizarConcluido(lote);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     @GetMapping("{id}")
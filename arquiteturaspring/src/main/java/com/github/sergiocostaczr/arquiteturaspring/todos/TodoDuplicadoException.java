@@ -0,0 +1,8 @@
+package com.github.sergiocostaczr.arquiteturaspring.todos;
+
+public class TodoDuplicadoException extends RuntimeException {
+
+    public TodoDuplicadoException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
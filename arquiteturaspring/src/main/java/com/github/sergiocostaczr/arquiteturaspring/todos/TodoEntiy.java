@@ -2,16 +2,32 @@ package com.github.sergiocostaczr.arquiteturaspring.todos;
 
 import jakarta.persistence.*;
 
+import java.util.Locale;
+
 @Entity
-@Table(name = "tb_todo")
+// Unicidade garantida pelo banco (indice unico), não por consulta antes do insert: ver TodoService.salvar.
+@Table(name = "tb_todo", uniqueConstraints =
+        @UniqueConstraint(name = TodoEntiy.UK_DESCRICAO, columnNames = "descricao_normalizada"))
 public class TodoEntiy {
 
+    public static final String UK_DESCRICAO = "uk_todo_descricao";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY )
+    @SequenciaTodo // sequence pooled-lo no lugar de IDENTITY: permite insert em batch
     private Integer id;
     private String descricao;
     @Column(name = "fl_conlcuido")
     private Boolean concluido;
+    // "Estudar Spring" e " estudar  spring " são a mesma descrição. Sem getter: não aparece no JSON.
+    @Column(name = "descricao_normalizada")
+    private String descricaoNormalizada;
+
+    @PrePersist
+    @PreUpdate
+    void normalizarDescricao() {
+        descricaoNormalizada = descricao == null ? null
+                : descricao.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
 
     public Integer getId() {
         return id;
@@ -1,7 +1,20 @@
 package com.github.sergiocostaczr.arquiteturaspring.todos;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 
 public interface TodoRepository extends JpaRepository<TodoEntiy, Integer> {
-    boolean existsByDescricao(String descricao); //existsBy
+
+    // update tb_todo set fl_conlcuido = ? where id = ? -> sem select antes, devolve as linhas alteradas
+    @Modifying
+    @Query("update TodoEntiy t set t.concluido = :concluido where t.id = :id")
+    int atualizarConcluido(@Param("id") Integer id, @Param("concluido") Boolean concluido);
+
+    @Modifying
+    @Query("update TodoEntiy t set t.concluido = :concluido where t.id in :ids")
+    int atualizarConcluido(@Param("ids") Collection<Integer> ids, @Param("concluido") Boolean concluido);
 }
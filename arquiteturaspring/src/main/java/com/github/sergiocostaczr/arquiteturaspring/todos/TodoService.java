@@ -1,36 +1,120 @@
 package com.github.sergiocostaczr.arquiteturaspring.todos;
 
+import com.github.sergiocostaczr.arquiteturaspring.notificacao.NotificacaoService;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.criteria.CriteriaBuilder;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.PostMapping;
 
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
 @Component //@Service
+@Timed("todo.service")
 public class TodoService {
 
+    // Limite de itens do POST /todos/lote e de ids no "in (...)" do PATCH em lote.
+    public static final int TAMANHO_MAXIMO_LOTE = 1000;
+
     private TodoRepository repository;
     private TodoValidator validator;
-    private MailSender mailSender;
+    private NotificacaoService notificacaoService;
 
-    public TodoService(TodoRepository repository, TodoValidator validator, MailSender mailSender) {
+    public TodoService(TodoRepository repository, TodoValidator validator, NotificacaoService notificacaoService) {
         this.repository = repository;
         this.validator = validator;
-        this.mailSender = mailSender;
+        this.notificacaoService = notificacaoService;
     }
 
+    // Insert direto: se a descrição ja existe o indice unico recusa e vira TodoDuplicadoException (409).
     public TodoEntiy salvar (TodoEntiy novoTodoEntiy){
         validator.validar(novoTodoEntiy);
-        return repository.save(novoTodoEntiy);
+        try {
+            return repository.saveAndFlush(novoTodoEntiy);
+        } catch (DataIntegrityViolationException e) {
+            throw traduzirViolacao(e);
+        }
+    }
+
+    // Todos gravados numa transação: com a sequence pooled-lo os inserts vão em batch (hibernate.jdbc.batch_size).
+    // Uma descrição duplicada (no lote ou no banco) desfaz o lote inteiro.
+    @Transactional
+    public List<TodoEntiy> salvarLote(List<TodoEntiy> novos){
+        if (novos == null || novos.isEmpty()){
+            throw new IllegalArgumentException("Informe os TODOs!");
+        }
+        if (novos.size() > TAMANHO_MAXIMO_LOTE){
+            throw new IllegalArgumentException("Maximo de " + TAMANHO_MAXIMO_LOTE + " TODOs por requisição!");
+        }
+        novos.forEach(validator::validar);
+        try {
+            return repository.saveAllAndFlush(novos);
+        } catch (DataIntegrityViolationException e) {
+            throw traduzirViolacao(e);
+        }
     }
 
+    // O email não é enviado aqui: a notificação vai para a outbox na mesma transação e o
+    // DespachanteNotificacoes envia em segundo plano (a requisição não espera o envio).
+    @Transactional
     public void atualizarStatus(TodoEntiy todo){
-        repository.save(todo);
-        String status = todo.getConcluido() == Boolean.TRUE ? "concluido" : "nao concluido";
-        mailSender.enviar("Todo " + todo.getDescricao() +" foi atualizado para "+ status);
+        try {
+            repository.saveAndFlush(todo);
+        } catch (DataIntegrityViolationException e) {
+            throw traduzirViolacao(e);
+        }
+        notificacaoService.registrar("Todo " + todo.getDescricao() +" foi atualizado para "+ descricaoStatus(todo.getConcluido()));
+    }
+
+    // PATCH: um unico update, sem carregar a entidade. false quando o id não existe.
+    @Transactional
+    public boolean atualizarConcluido(Integer id, Boolean concluido){
+        if (repository.atualizarConcluido(id, concluido) == 0){
+            return false;
+        }
+        notificacaoService.registrar("Todo " + id + " foi atualizado para " + descricaoStatus(concluido));
+        return true;
+    }
+
+    // Varios ids num unico update (in :ids) e uma notificação para o lote todo.
+    @Transactional
+    public AtualizacaoStatus.ResultadoLote atualizarConcluido(AtualizacaoStatus.Lote lote){
+        List<Integer> ids = lote.ids() == null ? List.of() : lote.ids().stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty()){
+            throw new IllegalArgumentException("Informe os ids dos TODOs!");
+        }
+        if (ids.size() > TAMANHO_MAXIMO_LOTE){
+            throw new IllegalArgumentException("Maximo de " + TAMANHO_MAXIMO_LOTE + " TODOs por requisição!");
+        }
+        Boolean concluido = lote.concluido() == null ? Boolean.TRUE : lote.concluido();
+
+        int atualizados = repository.atualizarConcluido(ids, concluido);
+        if (atualizados > 0){
+            notificacaoService.registrar(atualizados + " todo(s) atualizado(s) para " + descricaoStatus(concluido));
+        }
+        return new AtualizacaoStatus.ResultadoLote(ids.size(), atualizados);
     }
 
     public TodoEntiy buscar(Integer id){
         return repository.findById(id).orElse(null);
     }
 
+    private static String descricaoStatus(Boolean concluido){
+        return concluido == Boolean.TRUE ? "concluido" : "nao concluido";
+    }
+
+    private RuntimeException traduzirViolacao(DataIntegrityViolationException e){
+        if (e.getCause() instanceof ConstraintViolationException violacao
+                && violacao.getConstraintName() != null
+                && violacao.getConstraintName().toLowerCase(Locale.ROOT).contains(TodoEntiy.UK_DESCRICAO)){
+            return new TodoDuplicadoException("Ja existe um TODO com esta descricao!", e);
+        }
+        return e;
+    }
+
 }
@@ -6,19 +6,12 @@ import org.springframework.stereotype.Component;
 @Component
 public class TodoValidator {
 
-    private TodoRepository repository;
-
-    public TodoValidator(TodoRepository repository) {
-        this.repository = repository;
-    }
-
+    // Descrição duplicada não é verificada aqui (existsByDescricao antes do insert): além da consulta extra,
+    // duas requisições simultaneas passavam pela verificação. Quem garante é o indice unico (TodoService.salvar).
     public void validar (TodoEntiy todo){
-        if (existeTodoDescricao(todo.getDescricao())){
-            throw new IllegalArgumentException("Ja existe um TODO com esta descricao!");
+        if (todo.getDescricao() == null || todo.getDescricao().isBlank()){
+            throw new IllegalArgumentException("Descricao do TODO é obrigatoria!");
         }
     }
-    private boolean existeTodoDescricao(String descricao){
-        return repository.existsByDescricao(descricao);
-    }
 
 }
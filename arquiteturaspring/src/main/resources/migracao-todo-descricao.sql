@@ -0,0 +1,27 @@
+-- Migração de tb_todo para o indice unico uk_todo_descricao (TodoEntiy.descricaoNormalizada).
+-- Rodar com a aplicação parada ou com a versão nova ja no ar (ela preenche descricao_normalizada nos inserts/updates).
+-- A normalização tem que bater com TodoEntiy.normalizarDescricao: strip, espaços repetidos viram um, minusculas.
+
+-- Duplicadas que serão renomeadas (conferir antes de rodar):
+-- select descricao_normalizada, count(*), min(id) from tb_todo group by descricao_normalizada having count(*) > 1;
+
+-- H2
+alter table tb_todo add column if not exists descricao_normalizada varchar(255);
+update tb_todo set descricao_normalizada = lower(trim(regexp_replace(descricao, '\s+', ' ')));
+-- Duplicadas: a de menor id fica com a descrição, as outras ganham " (id)" no fim. Nada é apagado.
+update tb_todo t
+set descricao = t.descricao || ' (' || t.id || ')',
+    descricao_normalizada = t.descricao_normalizada || ' (' || t.id || ')'
+where exists (select 1 from tb_todo o where o.descricao_normalizada = t.descricao_normalizada and o.id < t.id);
+alter table tb_todo add constraint if not exists uk_todo_descricao unique (descricao_normalizada);
+
+-- PostgreSQL (lower usa o locale do banco; para descrições em portugues da o mesmo resultado que Locale.ROOT)
+-- alter table tb_todo add column if not exists descricao_normalizada varchar(255);
+-- update tb_todo set descricao_normalizada = lower(btrim(regexp_replace(descricao, '\s+', ' ', 'g')));
+-- update tb_todo t
+-- set descricao = t.descricao || ' (' || t.id || ')',
+--     descricao_normalizada = t.descricao_normalizada || ' (' || t.id || ')'
+-- where exists (select 1 from tb_todo o where o.descricao_normalizada = t.descricao_normalizada and o.id < t.id);
+-- -- indice criado sem travar a tabela para escrita e depois promovido a constraint
+-- create unique index concurrently if not exists uk_todo_descricao on tb_todo (descricao_normalizada);
+-- alter table tb_todo add constraint uk_todo_descricao unique using index uk_todo_descricao;
@@ -0,0 +1,13 @@
+-- Migração de tb_todo: id IDENTITY -> sequence tb_todo_seq (SequenciaTodoGenerator, otimizador pooled-lo).
+-- O "increment by" precisa ser igual a spring.jpa.properties.todo.sequencia.alocacao.
+-- Com pooled-lo o valor lido da sequence é o primeiro id do bloco, por isso ela recomeça em max(id) + 1.
+
+-- H2
+create sequence if not exists tb_todo_seq start with 1 increment by 50;
+alter table tb_todo alter column id drop identity;
+alter sequence tb_todo_seq restart with (select coalesce(max(id), 0) + 1 from tb_todo);
+
+-- PostgreSQL
+-- create sequence if not exists tb_todo_seq start with 1 increment by 50;
+-- alter table tb_todo alter column id drop identity if exists; -- coluna serial: alter column id drop default
+-- select setval('tb_todo_seq', coalesce(max(id), 0) + 1, false) from tb_todo;
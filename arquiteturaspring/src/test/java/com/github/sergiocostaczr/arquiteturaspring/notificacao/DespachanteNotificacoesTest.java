@@ -0,0 +1,172 @@
+package com.github.sergiocostaczr.arquiteturaspring.notificacao;
+
+import com.github.sergiocostaczr.arquiteturaspring.todos.TodoEntiy;
+import com.github.sergiocostaczr.arquiteturaspring.todos.TodoRepository;
+import com.github.sergiocostaczr.arquiteturaspring.todos.TodoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Outbox de notificações com o envio em memoria (EnvioNotificacaoMemoria.falharProximas simula o canal fora do ar).
+ * O despachante agendado fica parado (intervalo longo): os testes chamam despachar() quando precisam.
+ */
+@SpringBootTest(properties = {
+        "app.notificacao.envio=memoria",
+        "app.notificacao.intervalo=1h",
+        "app.notificacao.maximo-tentativas=3",
+        "app.notificacao.espera-inicial=10s",
+        "app.notificacao.espera-maxima=15s"
+})
+class DespachanteNotificacoesTest {
+
+    @Autowired
+    DespachanteNotificacoes despachante;
+
+    @Autowired
+    EnvioNotificacaoMemoria envio;
+
+    @Autowired
+    NotificacaoRepository repository;
+
+    @Autowired
+    TodoService todoService;
+
+    @Autowired
+    TodoRepository todoRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    TodoEntiy todo;
+
+    @BeforeEach
+    void setUp(){
+        repository.deleteAll();
+        todoRepository.deleteAll();
+        envio.limpar();
+        todo = todoService.salvar(todo("Estudar outbox"));
+    }
+
+    @Test
+    void falhaAgendaNovaTentativaComEsperaExponencial(){
+        todoService.atualizarConcluido(todo.getId(), true);
+
+        envio.falharProximas(1);
+        Instant antes = Instant.now();
+        despachante.despachar();
+        Notificacao notificacao = unica();
+        assertEquals(StatusNotificacao.PENDENTE, notificacao.getStatus());
+        assertEquals(1, notificacao.getTentativas());
+        assertEquals("Falha simulada no envio", notificacao.getUltimoErro());
+        assertEsperaDe(Duration.ofSeconds(10), antes, notificacao.getProximaTentativa());
+
+        // Ainda dentro da espera: não é enviada.
+        despachante.despachar();
+        assertEquals(1, unica().getTentativas());
+        assertTrue(envio.getEnviadas().isEmpty());
+
+        tornarPronta();
+        envio.falharProximas(1);
+        antes = Instant.now();
+        despachante.despachar();
+        notificacao = unica();
+        assertEquals(2, notificacao.getTentativas());
+        // 10s * 2, limitado a espera-maxima
+        assertEsperaDe(Duration.ofSeconds(15), antes, notificacao.getProximaTentativa());
+
+        tornarPronta();
+        despachante.despachar();
+        notificacao = unica();
+        assertEquals(StatusNotificacao.ENVIADA, notificacao.getStatus());
+        assertNotNull(notificacao.getEnviadoEm());
+        assertNull(notificacao.getUltimoErro());
+        assertEquals(List.of("Todo " + todo.getId() + " foi atualizado para concluido"), envio.getEnviadas());
+    }
+
+    @Test
+    void esgotadoMaximoTentativasViraMorta(){
+        todoService.atualizarConcluido(todo.getId(), true);
+
+        envio.falharProximas(3);
+        for (int i = 0; i < 3; i++){
+            despachante.despachar();
+            tornarPronta();
+        }
+
+        Notificacao notificacao = unica();
+        assertEquals(StatusNotificacao.MORTA, notificacao.getStatus());
+        assertEquals(3, notificacao.getTentativas());
+
+        // MORTA não volta para a fila.
+        despachante.despachar();
+        assertTrue(envio.getEnviadas().isEmpty());
+        assertEquals(3, unica().getTentativas());
+    }
+
+    @Test
+    void rollbackDaAlteracaoDesfazANotificacao(){
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            todoService.atualizarConcluido(todo.getId(), true);
+            throw new IllegalStateException("falha depois do update");
+        }));
+
+        assertEquals(0, repository.count());
+        assertFalse(todoRepository.findById(todo.getId()).orElseThrow().getConcluido());
+        despachante.despachar();
+        assertTrue(envio.getEnviadas().isEmpty());
+    }
+
+    @Test
+    void reservaVencidaEReenviadaEReservaValidaNao(){
+        todoService.atualizarConcluido(todo.getId(), true);
+        Notificacao notificacao = unica();
+        notificacao.setStatus(StatusNotificacao.EM_ENVIO);
+        notificacao.setProximaTentativa(Instant.now().plusSeconds(60));
+        repository.save(notificacao);
+
+        // Outro despachante está enviando.
+        despachante.despachar();
+        assertTrue(envio.getEnviadas().isEmpty());
+
+        // Ele caiu: a reserva vence e a mensagem sai de novo.
+        tornarPronta();
+        despachante.despachar();
+        assertEquals(StatusNotificacao.ENVIADA, unica().getStatus());
+        assertEquals(1, envio.getEnviadas().size());
+    }
+
+    private Notificacao unica(){
+        List<Notificacao> notificacoes = repository.findAll();
+        assertEquals(1, notificacoes.size());
+        return notificacoes.getFirst();
+    }
+
+    private void tornarPronta(){
+        Notificacao notificacao = unica();
+        notificacao.setProximaTentativa(Instant.now().minusSeconds(1));
+        repository.save(notificacao);
+    }
+
+    private static void assertEsperaDe(Duration espera, Instant antes, Instant proximaTentativa){
+        Instant minimo = antes.plus(espera);
+        Instant maximo = Instant.now().plus(espera);
+        assertFalse(proximaTentativa.isBefore(minimo.minusMillis(1)), () -> proximaTentativa + " antes de " + minimo);
+        assertFalse(proximaTentativa.isAfter(maximo), () -> proximaTentativa + " depois de " + maximo);
+    }
+
+    private static TodoEntiy todo(String descricao){
+        TodoEntiy todo = new TodoEntiy();
+        todo.setDescricao(descricao);
+        todo.setConcluido(false);
+        return todo;
+    }
+}
@@ -0,0 +1,98 @@
+package com.github.sergiocostaczr.arquiteturaspring.todos;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.jpa.HibernatePersistenceConfiguration;
+import org.h2.tools.Server;
+import org.hibernate.tool.schema.Action;
+
+import java.sql.SQLException;
+
+/**
+ * Inserts/s de TodoEntiy num H2 em memoria: id IDENTITY (como era) x sequence pooled-lo (SequenciaTodoGenerator).
+ * As duas variantes usam hibernate.jdbc.batch_size; com IDENTITY o Hibernate não consegue usar o batch.
+ *
+ * Por padrão o H2 roda como servidor TCP local, para cada round trip custar como num banco de verdade;
+ * "mem" acessa o H2 na mesma JVM (sem rede, o batch quase não faz diferença).
+ *
+ * Executar (depois de mvn test-compile):
+ *   mvn exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.github.sergiocostaczr.arquiteturaspring.todos.InsercaoTodoBenchmark -Dexec.args="100000 1000 tcp"
+ * Argumentos: total de inserts por rodada, inserts por transação, tcp ou mem.
+ */
+public class InsercaoTodoBenchmark {
+
+    private static final int RODADAS_AQUECIMENTO = 3;
+    private static final int RODADAS = 5;
+    private static final int TAMANHO_BATCH = 50;
+
+    public static void main(String[] args) throws SQLException {
+        int total = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int porTransacao = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        boolean tcp = args.length < 3 || "tcp".equals(args[2]);
+
+        Server servidor = tcp ? Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start() : null;
+        String url = tcp ? "jdbc:h2:tcp://localhost:" + servidor.getPort() + "/mem:benchmark-" : "jdbc:h2:mem:benchmark-";
+        try {
+            double identity = medir("identity", url, total, porTransacao, "benchmark/todo-identity-orm.xml");
+            double sequence = medir("sequence", url, total, porTransacao, null);
+
+            System.out.printf("%nH2 %s - IDENTITY: %,.0f inserts/s | sequence pooled-lo: %,.0f inserts/s | %.1fx%n",
+                    tcp ? "tcp" : "mem", identity, sequence, sequence / identity);
+        } finally {
+            if (servidor != null){
+                servidor.stop();
+            }
+        }
+    }
+
+    private static double medir(String variante, String url, int total, int porTransacao, String mapeamento){
+        try (EntityManagerFactory fabrica = fabrica(variante, url, mapeamento)) {
+            int sequencial = 0;
+            for (int i = 0; i < RODADAS_AQUECIMENTO; i++){
+                sequencial = inserir(fabrica, sequencial, total, porTransacao);
+            }
+
+            double melhor = 0;
+            for (int i = 0; i < RODADAS; i++){
+                long inicio = System.nanoTime();
+                sequencial = inserir(fabrica, sequencial, total, porTransacao);
+                double porSegundo = total / ((System.nanoTime() - inicio) / 1e9);
+                System.out.printf("%s rodada %d: %,.0f inserts/s%n", variante, i + 1, porSegundo);
+                melhor = Math.max(melhor, porSegundo);
+            }
+            return melhor;
+        }
+    }
+
+    private static int inserir(EntityManagerFactory fabrica, int sequencial, int total, int porTransacao){
+        for (int gravados = 0; gravados < total; gravados += porTransacao){
+            try (EntityManager em = fabrica.createEntityManager()) {
+                em.getTransaction().begin();
+                for (int i = 0; i < porTransacao && gravados + i < total; i++){
+                    TodoEntiy todo = new TodoEntiy();
+                    todo.setDescricao("todo " + sequencial++);
+                    todo.setConcluido(false);
+                    em.persist(todo);
+                }
+                em.getTransaction().commit();
+            }
+        }
+        return sequencial;
+    }
+
+    private static EntityManagerFactory fabrica(String variante, String url, String mapeamento){
+        HibernatePersistenceConfiguration configuracao = new HibernatePersistenceConfiguration(variante)
+                .jdbcUrl(url + variante + ";DB_CLOSE_DELAY=-1")
+                .jdbcCredentials("sa", "")
+                .schemaToolingAction(Action.CREATE_DROP)
+                .property("hibernate.jdbc.batch_size", TAMANHO_BATCH)
+                .property("hibernate.order_inserts", true)
+                .property(SequenciaTodoGenerator.CONFIG_ALOCACAO, TAMANHO_BATCH);
+        if (mapeamento == null){
+            configuracao.managedClass(TodoEntiy.class);
+        } else {
+            configuracao.mappingFiles(mapeamento);
+        }
+        return configuracao.createEntityManagerFactory();
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.sergiocostaczr.arquiteturaspring.todos;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Varias threads tentam salvar a mesma descrição ao mesmo tempo: só o indice unico decide,
+ * exatamente uma grava e as demais recebem TodoDuplicadoException.
+ */
+@SpringBootTest(properties = "app.notificacao.envio=memoria")
+class TodoServiceConcorrenciaTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    TodoService service;
+
+    @Autowired
+    TodoRepository repository;
+
+    @BeforeEach
+    void setUp(){
+        repository.deleteAll();
+    }
+
+    @Test
+    void insertsDuplicadosSimultaneosGravamApenasUm() throws Exception {
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<String>> resultados = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int i = 0; i < THREADS; i++){
+                // variações de caixa/espaços também contam como duplicadas
+                String descricao = i % 2 == 0 ? "Estudar Spring" : "  estudar   SPRING ";
+                resultados.add(executor.submit(() -> {
+                    largada.await();
+                    try {
+                        service.salvar(todo(descricao));
+                        return "gravado";
+                    } catch (TodoDuplicadoException e) {
+                        return "duplicado";
+                    }
+                }));
+            }
+            largada.countDown();
+        }
+
+        List<String> situacoes = new ArrayList<>();
+        for (Future<String> resultado : resultados){
+            situacoes.add(resultado.get());
+        }
+
+        assertEquals(1, situacoes.stream().filter("gravado"::equals).count());
+        assertEquals(THREADS - 1, situacoes.stream().filter("duplicado"::equals).count());
+        assertEquals(1, repository.count());
+    }
+
+    @Test
+    void atualizarParaDescricaoExistenteEhDuplicado(){
+        service.salvar(todo("Primeiro"));
+        TodoEntiy segundo = service.salvar(todo("Segundo"));
+
+        segundo.setDescricao("PRIMEIRO");
+        assertThrows(TodoDuplicadoException.class, () -> service.atualizarStatus(segundo));
+    }
+
+    private static TodoEntiy todo(String descricao){
+        TodoEntiy todo = new TodoEntiy();
+        todo.setDescricao(descricao);
+        todo.setConcluido(false);
+        return todo;
+    }
+}
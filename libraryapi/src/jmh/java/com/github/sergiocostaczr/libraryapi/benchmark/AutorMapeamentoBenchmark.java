@@ -0,0 +1,91 @@
+package com.github.sergiocostaczr.libraryapi.benchmark;
+
+import com.github.sergiocostaczr.libraryapi.controller.dto.AutorDTO;
+import com.github.sergiocostaczr.libraryapi.model.Autor;
+import org.openjdk.jmh.annotations.*;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapeamento DTO <-> entidade e serialização de List<AutorDTO> (o corpo de GET /autores).
+ * Não sobe o contexto Spring.
+ *
+ * O estado de um autor e o das listas ficam separados: só os benchmarks de lista variam com quantidade,
+ * os de um objeto rodam uma vez.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AutorMapeamentoBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class UmAutor {
+
+        private Autor autor;
+        private AutorDTO dto;
+
+        @Setup
+        public void setup() {
+            autor = autor(0);
+            dto = AutorDTO.mapearParaDTO(autor);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ListaAutores {
+
+        @Param({"10", "100", "1000"})
+        private int quantidade;
+
+        private List<Autor> autores;
+        private List<AutorDTO> dtos;
+        private ObjectMapper objectMapper;
+
+        @Setup
+        public void setup() {
+            objectMapper = JsonMapper.builder().build();
+            autores = new ArrayList<>(quantidade);
+            for (int i = 0; i < quantidade; i++) {
+                autores.add(autor(i));
+            }
+            dtos = autores.stream().map(AutorDTO::mapearParaDTO).toList();
+        }
+    }
+
+    @Benchmark
+    public Autor mapearParaAutor(UmAutor estado) {
+        return estado.dto.mapearParaAutor();
+    }
+
+    @Benchmark
+    public AutorDTO mapearParaDTO(UmAutor estado) {
+        return AutorDTO.mapearParaDTO(estado.autor);
+    }
+
+    @Benchmark
+    public List<AutorDTO> mapearLista(ListaAutores estado) {
+        return estado.autores.stream().map(AutorDTO::mapearParaDTO).toList();
+    }
+
+    @Benchmark
+    public byte[] serializarLista(ListaAutores estado) {
+        return estado.objectMapper.writeValueAsBytes(estado.dtos);
+    }
+
+    private static Autor autor(int i) {
+        Autor a = new Autor();
+        a.setId(UUID.randomUUID());
+        a.setNome("Autor " + i);
+        a.setDataNascimento(LocalDate.of(1950, 1, 1).plusDays(i));
+        a.setNacionalidade(i % 2 == 0 ? "Brasileira" : "Portuguesa");
+        return a;
+    }
+}
@@ -0,0 +1,142 @@
+package com.github.sergiocostaczr.libraryapi.benchmark;
+
+import com.github.sergiocostaczr.libraryapi.LibraryapiApplication;
+import com.github.sergiocostaczr.libraryapi.exceptions.RegistroDuplicadoException;
+import com.github.sergiocostaczr.libraryapi.model.Autor;
+import com.github.sergiocostaczr.libraryapi.repository.AutorRepository;
+import com.github.sergiocostaczr.libraryapi.service.AutorService;
+import com.github.sergiocostaczr.libraryapi.validator.AutorValidator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas do AutorRepository/AutorService e AutorValidator.validar contra H2 em memoria com massa gerada no setup.
+ * cache=false desliga o Spring Cache e o cache de segundo nivel, medindo só banco + Hibernate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AutorRepositoryBenchmark {
+
+    private static final List<String> NACIONALIDADES = List.of("Brasileira", "Portuguesa", "Argentina", "Chilena", "Uruguaia");
+
+    @Param({"true", "false"})
+    private boolean cache;
+
+    @Param({"10000"})
+    private int autoresCadastrados;
+
+    private ConfigurableApplicationContext contexto;
+    private AutorRepository autorRepository;
+    private AutorService autorService;
+    private AutorValidator autorValidator;
+    private List<Autor> cadastrados;
+
+    @Setup
+    public void setup() {
+        SpringApplication aplicacao = new SpringApplication(LibraryapiApplication.class);
+        aplicacao.setWebApplicationType(WebApplicationType.NONE);
+        // argumentos de linha de comando sobrepõem o application.yml (PostgreSQL)
+        contexto = aplicacao.run(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--app.datasource.leitura.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "--app.datasource.roteamento.consulta-atraso=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--spring.cache.type=" + (cache ? "caffeine" : "none"),
+                "--spring.jpa.properties.hibernate.cache.use_second_level_cache=" + cache);
+        autorRepository = contexto.getBean(AutorRepository.class);
+        autorService = contexto.getBean(AutorService.class);
+        autorValidator = contexto.getBean(AutorValidator.class);
+
+        List<Autor> novos = new ArrayList<>(autoresCadastrados);
+        for (int i = 0; i < autoresCadastrados; i++) {
+            Autor autor = new Autor();
+            autor.setNome("Autor " + i);
+            autor.setDataNascimento(LocalDate.of(1900, 1, 1).plusDays(i));
+            autor.setNacionalidade(NACIONALIDADES.get(i % NACIONALIDADES.size()));
+            novos.add(autor);
+        }
+        cadastrados = autorRepository.saveAll(novos);
+    }
+
+    @TearDown
+    public void tearDown() {
+        contexto.close();
+    }
+
+    private Autor sortear() {
+        return cadastrados.get(ThreadLocalRandom.current().nextInt(cadastrados.size()));
+    }
+
+    @Benchmark
+    public Optional<Autor> buscarPorId() {
+        return autorRepository.findById(sortear().getId());
+    }
+
+    // ids do cache das consultas + entidades do cache de segundo nivel
+    @Benchmark
+    public List<Autor> buscarPorNome() {
+        return autorService.pesquisa(sortear().getNome(), null);
+    }
+
+    @Benchmark
+    public Optional<UUID> buscarPorDadosUnicos() {
+        Autor autor = sortear();
+        return autorRepository.buscarIdPorDadosUnicos(
+                autor.getNome(), autor.getDataNascimento(), autor.getNacionalidade());
+    }
+
+    @Benchmark
+    public Autor validarNovo() {
+        Autor novo = new Autor();
+        novo.setNome("Autor novo " + ThreadLocalRandom.current().nextInt(1000));
+        novo.setDataNascimento(LocalDate.of(1980, 1, 1));
+        novo.setNacionalidade("Brasileira");
+        autorValidator.validar(novo);
+        return novo;
+    }
+
+    @Benchmark
+    public boolean validarDuplicado() {
+        Autor existente = sortear();
+        Autor duplicado = new Autor();
+        duplicado.setNome(existente.getNome());
+        duplicado.setDataNascimento(existente.getDataNascimento());
+        duplicado.setNacionalidade(existente.getNacionalidade());
+        try {
+            autorValidator.validar(duplicado);
+            return false;
+        } catch (RegistroDuplicadoException e) {
+            return true;
+        }
+    }
+
+    @Benchmark
+    public Autor validarAtualizacao() {
+        Autor existente = sortear();
+        Autor atualizado = new Autor();
+        atualizado.setId(existente.getId());
+        atualizado.setNome(existente.getNome());
+        atualizado.setDataNascimento(existente.getDataNascimento());
+        atualizado.setNacionalidade(existente.getNacionalidade());
+        autorValidator.validar(atualizado);
+        return atualizado;
+    }
+}
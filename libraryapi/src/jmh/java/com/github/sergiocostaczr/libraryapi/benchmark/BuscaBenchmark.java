@@ -0,0 +1,182 @@
+package com.github.sergiocostaczr.libraryapi.benchmark;
+
+import com.github.sergiocostaczr.libraryapi.LibraryapiApplication;
+import com.github.sergiocostaczr.libraryapi.model.Autor;
+import com.github.sergiocostaczr.libraryapi.model.Livro;
+import com.github.sergiocostaczr.libraryapi.repository.AutorRepository;
+import com.github.sergiocostaczr.libraryapi.service.AutorService;
+import com.github.sergiocostaczr.libraryapi.service.LivroService;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca textual (/autores/busca, /livros/busca) x igualdade e LIKE, com 1M de autores e 1M de livros.
+ * Precisa de PostgreSQL com pg_trgm (a busca não roda no H2):
+ *
+ *   BENCHMARK_POSTGRES_URL=jdbc:postgresql://localhost:5432/library_benchmark mvn -Pbenchmark verify -Dbenchmark.filtro=Busca
+ *
+ * A massa é criada na primeira execução (generate_series) e reaproveitada nas seguintes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BuscaBenchmark {
+
+    // Palavras sinteticas de 3 silabas (16^3 = 4096 palavras): vocabulario variado como nomes reais,
+    // cada palavra aparece em poucas centenas de linhas.
+    private static final String[] SILABAS = {"ba", "be", "ca", "da", "de", "fa", "ga", "la",
+            "le", "ma", "mi", "na", "no", "ra", "ri", "ta"};
+    private static final int PALAVRAS = 4096;
+
+    @Param({"1000000"})
+    private int linhas;
+
+    private ConfigurableApplicationContext contexto;
+    private AutorRepository autorRepository;
+    private AutorService autorService;
+    private LivroService livroService;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private final Pageable pagina = PageRequest.of(0, 20);
+
+    @Setup
+    public void setup() {
+        String url = System.getenv().getOrDefault("BENCHMARK_POSTGRES_URL",
+                "jdbc:postgresql://localhost:5432/library_benchmark");
+
+        SpringApplication aplicacao = new SpringApplication(LibraryapiApplication.class);
+        aplicacao.setWebApplicationType(WebApplicationType.NONE);
+        contexto = aplicacao.run(
+                "--spring.datasource.url=" + url,
+                "--app.datasource.leitura.url=" + url,
+                "--app.datasource.roteamento.consulta-atraso=",
+                "--spring.jpa.hibernate.ddl-auto=update",
+                "--spring.cache.type=none",
+                "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false");
+        autorRepository = contexto.getBean(AutorRepository.class);
+        autorService = contexto.getBean(AutorService.class);
+        livroService = contexto.getBean(LivroService.class);
+        entityManager = contexto.getBean(EntityManager.class);
+        transactionTemplate = contexto.getBean(TransactionTemplate.class);
+
+        popular(contexto.getBean(JdbcTemplate.class));
+    }
+
+    // Mesmos indices de comandos-sql.txt. nome(i) e titulo(i) abaixo geram os mesmos textos do SQL.
+    private void popular(JdbcTemplate jdbc) {
+        jdbc.execute("create extension if not exists pg_trgm");
+        Long existentes = jdbc.queryForObject("select count(*) from autor", Long.class);
+        if (existentes == null || existentes < linhas) {
+            jdbc.execute("truncate livro, autor");
+            jdbc.execute("""
+                    create or replace function benchmark_palavra(n bigint) returns text immutable language sql as $$
+                        select initcap((array['ba','be','ca','da','de','fa','ga','la','le','ma','mi','na','no','ra','ri','ta'])[1 + n % 16]
+                            || (array['ba','be','ca','da','de','fa','ga','la','le','ma','mi','na','no','ra','ri','ta'])[1 + (n / 16) % 16]
+                            || (array['ba','be','ca','da','de','fa','ga','la','le','ma','mi','na','no','ra','ri','ta'])[1 + (n / 256) % 16])
+                    $$""");
+            jdbc.update("""
+                    insert into autor (id, nome, data_nascimento, nacionalidade, data_cadastro, versao)
+                    select gen_random_uuid(), benchmark_palavra(i % 4096) || ' ' || benchmark_palavra((i / 4096 + i) % 4096),
+                           date '1900-01-01' + (i % 30000)::int, 'Brasileira', now(), 0
+                    from generate_series(1, ?) i
+                    """, linhas);
+            jdbc.update("""
+                    insert into livro (id, isbn, titulo, data_publicacao, genero, preco, id_autor)
+                    select gen_random_uuid(), lpad(i::text, 13, '0'),
+                           'O ' || benchmark_palavra(i * 31 % 4096) || ' de ' || benchmark_palavra((i / 4096 * 17 + i * 7) % 4096),
+                           date '1950-01-01' + (i % 25000)::int, 'ROMANCE', 10 + i % 90, a.id
+                    from (select id, row_number() over () as i from autor) a
+                    """);
+        }
+        jdbc.execute("create index if not exists idx_autor_nome_fts on autor using gin (to_tsvector('simple', nome))");
+        jdbc.execute("create index if not exists idx_autor_nome_trgm on autor using gin (nome gin_trgm_ops)");
+        jdbc.execute("create index if not exists idx_livro_titulo_fts on livro using gin (to_tsvector('simple', titulo))");
+        jdbc.execute("create index if not exists idx_livro_titulo_trgm on livro using gin (titulo gin_trgm_ops)");
+        jdbc.execute("create index if not exists idx_livro_titulo_prefixo on livro (titulo varchar_pattern_ops)");
+        jdbc.execute("create index if not exists idx_autor_nome on autor (nome)");
+        jdbc.execute("analyze autor");
+        jdbc.execute("analyze livro");
+    }
+
+    private static String palavra(long n) {
+        String p = SILABAS[(int) (n % 16)] + SILABAS[(int) (n / 16 % 16)] + SILABAS[(int) (n / 256 % 16)];
+        return Character.toUpperCase(p.charAt(0)) + p.substring(1);
+    }
+
+    private static String[] nome(long i) {
+        return new String[]{palavra(i % PALAVRAS), palavra((i / PALAVRAS + i) % PALAVRAS)};
+    }
+
+    private static String[] titulo(long i) {
+        return new String[]{palavra(i * 31 % PALAVRAS), palavra((i / PALAVRAS * 17 + i * 7) % PALAVRAS)};
+    }
+
+    @TearDown
+    public void tearDown() {
+        contexto.close();
+    }
+
+    private long linha() {
+        return 1 + ThreadLocalRandom.current().nextInt(linhas);
+    }
+
+    // Forma atual: nome exato, o cliente precisa saber o nome completo.
+    @Benchmark
+    public List<Autor> autorIgualdade() {
+        String[] nome = nome(linha());
+        return autorRepository.findByNome(nome[0] + " " + nome[1]);
+    }
+
+    // O que os clientes fazem hoje do lado deles, aqui no banco: like '%texto%' sem indice.
+    @Benchmark
+    public List<Autor> autorLikeContem() {
+        String parte = nome(linha())[1].toLowerCase();
+        return transactionTemplate.execute(status -> entityManager
+                .createQuery("select a from Autor a where lower(a.nome) like :padrao", Autor.class)
+                .setParameter("padrao", "%" + parte + "%")
+                .setMaxResults(20)
+                .getResultList());
+    }
+
+    // Inicio de cada palavra: "Maba Rita" -> "mab rit".
+    @Benchmark
+    public Page<Autor> autorBuscaPrefixo() {
+        String[] nome = nome(linha());
+        return autorService.buscar(nome[0].substring(0, 3) + " " + nome[1].substring(0, 3), pagina);
+    }
+
+    // Erro de digitação: uma letra a menos no sobrenome ("Maba Rita" -> "maba rta").
+    @Benchmark
+    public Page<Autor> autorBuscaAproximada() {
+        String[] nome = nome(linha());
+        return autorService.buscar(nome[0] + " " + nome[1].charAt(0) + nome[1].substring(2), pagina);
+    }
+
+    // Forma atual dos livros: titulo like 'prefixo%' (LivroSpecs.tituloComecaCom).
+    @Benchmark
+    public Page<Livro> livroPrefixoLike() {
+        return livroService.pesquisa(null, "O " + titulo(linha())[0], null, null, null, null, null,
+                PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public Page<Livro> livroBusca() {
+        String[] titulo = titulo(linha());
+        return livroService.buscar(titulo[0] + " " + titulo[1].substring(0, 4), pagina);
+    }
+}
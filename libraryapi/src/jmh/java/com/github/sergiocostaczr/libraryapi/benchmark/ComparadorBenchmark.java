@@ -0,0 +1,88 @@
+package com.github.sergiocostaczr.libraryapi.benchmark;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compara o resultado JSON do JMH com um baseline e sai com codigo 1 se algum benchmark
+ * piorou mais que o limite (%). Sem baseline só imprime o resumo.
+ *
+ * Para gravar um baseline novo: copiar target/jmh-resultado.json para jmh-baseline.json.
+ *
+ *   ComparadorBenchmark <resultado.json> <baseline.json> <limite-%>
+ */
+public class ComparadorBenchmark {
+
+    public static void main(String[] args) {
+        File resultado = new File(args[0]);
+        File baseline = new File(args[1]);
+        double limite = Double.parseDouble(args[2]);
+
+        ObjectMapper objectMapper = JsonMapper.builder().build();
+        Map<String, Medicao> atuais = ler(objectMapper, resultado);
+
+        if (!baseline.isFile()) {
+            atuais.forEach((nome, medicao) -> System.out.printf("%-90s %12.3f %s%n", nome, medicao.score(), medicao.unidade()));
+            System.out.println("Sem baseline em " + baseline + ", nada a comparar.");
+            return;
+        }
+
+        Map<String, Medicao> anteriores = ler(objectMapper, baseline);
+        int regressoes = 0;
+        for (var entry : atuais.entrySet()) {
+            Medicao anterior = anteriores.get(entry.getKey());
+            if (anterior == null) {
+                System.out.printf("%-90s %12.3f %s (novo)%n", entry.getKey(), entry.getValue().score(), entry.getValue().unidade());
+                continue;
+            }
+            double variacao = entry.getValue().piora(anterior);
+            boolean regrediu = variacao > limite;
+            if (regrediu) regressoes++;
+            System.out.printf("%-90s %12.3f -> %12.3f %s %+7.1f%%%s%n", entry.getKey(), anterior.score(),
+                    entry.getValue().score(), entry.getValue().unidade(), variacao, regrediu ? "  REGRESSAO" : "");
+        }
+
+        if (regressoes > 0) {
+            System.out.printf("%d benchmark(s) pioraram mais que %.1f%%%n", regressoes, limite);
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Medicao> ler(ObjectMapper objectMapper, File arquivo) {
+        Map<String, Medicao> medicoes = new LinkedHashMap<>();
+        for (JsonNode execucao : objectMapper.readTree(arquivo)) {
+            JsonNode metrica = execucao.get("primaryMetric");
+            medicoes.put(chave(execucao), new Medicao(
+                    metrica.get("score").asDouble(),
+                    metrica.get("scoreUnit").asString(),
+                    execucao.get("mode").asString()));
+        }
+        return medicoes;
+    }
+
+    private static String chave(JsonNode execucao) {
+        String nome = execucao.get("benchmark").asString();
+        JsonNode params = execucao.get("params");
+        if (params == null) {
+            return nome;
+        }
+        Map<String, String> ordenados = new TreeMap<>();
+        params.properties().forEach(p -> ordenados.put(p.getKey(), p.getValue().asString()));
+        return nome + ordenados;
+    }
+
+    private record Medicao(double score, String unidade, String modo) {
+
+        /** Piora em %, positiva quando ficou pior (throughput menor ou tempo maior). */
+        double piora(Medicao anterior) {
+            double variacao = (score - anterior.score) / anterior.score * 100;
+            return "thrpt".equals(modo) ? -variacao : variacao;
+        }
+    }
+}
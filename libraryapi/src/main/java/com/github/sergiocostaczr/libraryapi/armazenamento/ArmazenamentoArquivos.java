@@ -0,0 +1,36 @@
+package com.github.sergiocostaczr.libraryapi.armazenamento;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Arquivos binarios da aplicação (capas de livro e miniaturas).
+ *
+ * As chaves são caminhos relativos com "/" (capas/3f/3f9a...c1.png), o mesmo formato das chaves de objeto
+ * de um bucket, assim uma implementação em nuvem entra com app.armazenamento.tipo sem mudar quem usa.
+ * Hoje só existe ArmazenamentoLocal (sistema de arquivos).
+ */
+public interface ArmazenamentoArquivos {
+
+    /**
+     * Grava o conteudo sob uma chave derivada do seu sha-256: prefixo/hh/sha256.extensao.
+     * O mesmo conteudo enviado de novo (outro livro com a mesma capa) não é gravado outra vez.
+     * O stream é lido até o fim e não é fechado.
+     */
+    ArquivoArmazenado salvarPorConteudo(String prefixo, String extensao, InputStream conteudo) throws IOException;
+
+    // Grava (ou substitui) o conteudo numa chave escolhida por quem chama. Quem lê nunca vê o arquivo pela metade.
+    ArquivoArmazenado salvar(String chave, InputStream conteudo) throws IOException;
+
+    Optional<ArquivoArmazenado> buscar(String chave) throws IOException;
+
+    // Trecho [inicio, inicio + tamanho) do arquivo, para respostas com Range.
+    InputStream abrir(String chave, long inicio, long tamanho) throws IOException;
+
+    // Caminho no disco quando o arquivo é local, para enviar com FileChannel.transferTo/sendfile sem passar pelo heap.
+    default Optional<Path> caminhoLocal(String chave) {
+        return Optional.empty();
+    }
+}
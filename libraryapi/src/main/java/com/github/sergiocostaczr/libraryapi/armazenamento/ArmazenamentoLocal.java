@@ -0,0 +1,219 @@
+package com.github.sergiocostaczr.libraryapi.armazenamento;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Arquivos num diretorio local, endereçados pelo conteudo.
+ *
+ * O upload vai direto do stream para um temporario em diretorio/tmp, calculando o sha-256 no caminho
+ * (memoria constante, independente do tamanho). No fim o temporario é fsync'ado e movido de forma atomica
+ * para prefixo/hh/sha256.extensao; se esse arquivo já existe o temporario é descartado (deduplicação).
+ * Os subdiretorios hh (dois primeiros caracteres do hash) evitam um diretorio com milhões de arquivos.
+ */
+@Component
+@ConditionalOnProperty(name = "app.armazenamento.tipo", havingValue = "local", matchIfMissing = true)
+public class ArmazenamentoLocal implements ArmazenamentoArquivos {
+
+    private static final Logger log = LoggerFactory.getLogger(ArmazenamentoLocal.class);
+
+    // Segmentos minusculos sem "." (exceto a extensão no ultimo): não há como sair da raiz com "..".
+    private static final Pattern CHAVE_VALIDA = Pattern.compile("[a-z0-9-]+(/[a-z0-9-]+)*(\\.[a-z0-9]+)?");
+    private static final Pattern EXTENSAO_VALIDA = Pattern.compile("[a-z0-9]+");
+    // Temporarios mais velhos que isso na inicialização são de uploads interrompidos (queda do processo).
+    private static final Duration IDADE_TEMPORARIO_ABANDONADO = Duration.ofHours(1);
+
+    private final Path raiz;
+    private final Path temporarios;
+
+    @Autowired
+    public ArmazenamentoLocal(ArmazenamentoProperties properties) throws IOException {
+        this(Path.of(properties.getDiretorio()));
+    }
+
+    public ArmazenamentoLocal(Path raiz) throws IOException {
+        this.raiz = raiz.toAbsolutePath().normalize();
+        this.temporarios = this.raiz.resolve("tmp");
+        Files.createDirectories(temporarios);
+        removerTemporariosAbandonados();
+    }
+
+    @Override
+    public ArquivoArmazenado salvarPorConteudo(String prefixo, String extensao, InputStream conteudo) throws IOException {
+        if (!EXTENSAO_VALIDA.matcher(extensao).matches()){
+            throw new IllegalArgumentException("Extensão invalida: " + extensao);
+        }
+
+        MessageDigest sha256 = sha256();
+        Path temporario = gravarTemporario(new DigestInputStream(conteudo, sha256));
+        try {
+            String hash = HexFormat.of().formatHex(sha256.digest());
+            String chave = prefixo + "/" + hash.substring(0, 2) + "/" + hash + "." + extensao;
+            Path destino = caminho(chave);
+            long tamanho = Files.size(temporario);
+
+            if (Files.exists(destino)){
+                log.debug("Arquivo {} já armazenado, upload descartado", chave);
+                return new ArquivoArmazenado(chave, tamanho);
+            }
+
+            Files.createDirectories(destino.getParent());
+            try {
+                Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Outro upload do mesmo conteudo terminou antes. Substituir também seria inofensivo: o nome é o hash,
+                // então o arquivo existente tem exatamente os mesmos bytes.
+                log.debug("Arquivo {} gravado por outro upload", chave);
+            }
+            return new ArquivoArmazenado(chave, tamanho);
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    @Override
+    public ArquivoArmazenado salvar(String chave, InputStream conteudo) throws IOException {
+        Path destino = caminho(chave);
+        Path temporario = gravarTemporario(conteudo);
+        try {
+            long tamanho = Files.size(temporario);
+            Files.createDirectories(destino.getParent());
+            Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return new ArquivoArmazenado(chave, tamanho);
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    @Override
+    public Optional<ArquivoArmazenado> buscar(String chave) throws IOException {
+        try {
+            return Optional.of(new ArquivoArmazenado(chave, Files.size(caminho(chave))));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public InputStream abrir(String chave, long inicio, long tamanho) throws IOException {
+        FileChannel canal = FileChannel.open(caminho(chave), StandardOpenOption.READ);
+        try {
+            canal.position(inicio);
+        } catch (IOException e) {
+            canal.close();
+            throw e;
+        }
+        return new TrechoInputStream(Channels.newInputStream(canal), tamanho);
+    }
+
+    @Override
+    public Optional<Path> caminhoLocal(String chave) {
+        return Optional.of(caminho(chave));
+    }
+
+    private Path caminho(String chave){
+        if (chave == null || !CHAVE_VALIDA.matcher(chave).matches() || chave.startsWith("tmp/")){
+            throw new IllegalArgumentException("Chave de arquivo invalida: " + chave);
+        }
+        return raiz.resolve(chave);
+    }
+
+    private Path gravarTemporario(InputStream conteudo) throws IOException {
+        Path temporario = Files.createTempFile(temporarios, "upload-", ".tmp");
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.WRITE)) {
+            conteudo.transferTo(Channels.newOutputStream(canal));
+            // O livro só passa a apontar para o arquivo depois disso: uma queda não deixa referencia para arquivo vazio.
+            canal.force(true);
+            return temporario;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporario);
+            throw e;
+        }
+    }
+
+    private void removerTemporariosAbandonados() throws IOException {
+        Instant limite = Instant.now().minus(IDADE_TEMPORARIO_ABANDONADO);
+        try (Stream<Path> arquivos = Files.list(temporarios)) {
+            for (Path arquivo : (Iterable<Path>) arquivos::iterator) {
+                if (Files.getLastModifiedTime(arquivo).toInstant().isBefore(limite)){
+                    Files.deleteIfExists(arquivo);
+                    log.info("Upload interrompido removido: {}", arquivo.getFileName());
+                }
+            }
+        }
+    }
+
+    private static MessageDigest sha256(){
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Lê no maximo "restante" bytes e fecha o canal junto.
+    private static class TrechoInputStream extends FilterInputStream {
+
+        private long restante;
+
+        TrechoInputStream(InputStream entrada, long tamanho) {
+            super(entrada);
+            this.restante = tamanho;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (restante <= 0){
+                return -1;
+            }
+            int lido = super.read();
+            if (lido >= 0){
+                restante--;
+            }
+            return lido;
+        }
+
+        @Override
+        public int read(byte[] destino, int posicao, int quantidade) throws IOException {
+            if (restante <= 0){
+                return -1;
+            }
+            int lidos = super.read(destino, posicao, (int) Math.min(quantidade, restante));
+            if (lidos > 0){
+                restante -= lidos;
+            }
+            return lidos;
+        }
+
+        @Override
+        public long skip(long quantidade) throws IOException {
+            long pulados = super.skip(Math.min(quantidade, restante));
+            restante -= pulados;
+            return pulados;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), restante);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.sergiocostaczr.libraryapi.armazenamento;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Onde ficam os arquivos (ArmazenamentoArquivos).
+ *
+ * tipo      -> local (ArmazenamentoLocal). Um bucket em nuvem seria outro valor, com a sua implementação.
+ * diretorio -> raiz dos arquivos no modo local. Os temporarios dos uploads ficam em diretorio/tmp,
+ *              no mesmo sistema de arquivos, para o move final ser atomico.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.armazenamento")
+@Getter
+@Setter
+public class ArmazenamentoProperties {
+
+    private String tipo = "local";
+    private String diretorio = "arquivos";
+}
@@ -0,0 +1,5 @@
+package com.github.sergiocostaczr.libraryapi.armazenamento;
+
+// chave: caminho do arquivo dentro do armazenamento (ex: capas/3f/3f9a...c1.png), a mesma gravada no banco.
+public record ArquivoArmazenado(String chave, long tamanho) {
+}
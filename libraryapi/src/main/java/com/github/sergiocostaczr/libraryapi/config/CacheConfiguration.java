@@ -0,0 +1,44 @@
+package com.github.sergiocostaczr.libraryapi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cache das consultas de autor (Spring Cache + Caffeine).
+ * Tamanho maximo, TTL e estatisticas (hit/miss/eviction) ficam em spring.cache.caffeine.spec no application.yml.
+ *
+ * As consultas guardam só ids (imutaveis); as entidades são montadas a partir do cache de segundo nivel
+ * do Hibernate (@Cache na entidade Autor), que guarda o estado e monta uma instancia nova a cada sessão
+ * (nenhuma thread recebe o objeto de outra). Autor por id fica apenas no cache de segundo nivel.
+ *
+ * O CacheManager é transacional: o @CacheEvict dentro de uma transação só limpa o cache depois do commit,
+ * senão uma leitura concorrente voltaria a preencher o cache com as linhas de antes do commit.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+
+    public static final String AUTORES_POR_NOME = "autoresPorNome";
+    public static final String AUTORES_POR_NACIONALIDADE = "autoresPorNacionalidade";
+    public static final String AUTORES_POR_NOME_E_NACIONALIDADE = "autoresPorNomeENacionalidade";
+    public static final String AUTOR_POR_DADOS_UNICOS = "autorPorDadosUnicos";
+
+    // spring.cache.type=none (benchmark sem cache) cai no NoOpCacheManager da auto-configuração do Boot.
+    @Bean
+    @ConditionalOnProperty(name = "spring.cache.type", havingValue = "caffeine", matchIfMissing = true)
+    public CacheManager cacheManager(@Value("${spring.cache.caffeine.spec:}") String especificacao){
+        CaffeineCacheManager caffeine = new CaffeineCacheManager(
+                AUTORES_POR_NOME, AUTORES_POR_NACIONALIDADE, AUTORES_POR_NOME_E_NACIONALIDADE, AUTOR_POR_DADOS_UNICOS);
+        if (!especificacao.isBlank()){
+            caffeine.setCacheSpecification(especificacao);
+        }
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+
+}
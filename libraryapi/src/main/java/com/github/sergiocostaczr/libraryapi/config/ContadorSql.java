@@ -0,0 +1,44 @@
+package com.github.sergiocostaczr.libraryapi.config;
+
+import lombok.Getter;
+
+/**
+ * Statements, linhas afetadas, entidades carregadas e tempo de SQL da requisição atual (thread da requisição).
+ * Aberto e fechado pelo MetricasRequisicaoFilter, incrementado pelo MetricasSqlListener e pelo
+ * EntidadesCarregadasListener.
+ * Fora de uma requisição (jobs, scheduler) não há contador e nada é acumulado.
+ */
+@Getter
+public class ContadorSql {
+
+    private static final ThreadLocal<ContadorSql> ATUAL = new ThreadLocal<>();
+
+    private long statements;
+    private long linhasAfetadas;
+    private long entidadesCarregadas;
+    private long tempoMs;
+
+    static ContadorSql iniciar(){
+        ContadorSql contador = new ContadorSql();
+        ATUAL.set(contador);
+        return contador;
+    }
+
+    static void encerrar(){
+        ATUAL.remove();
+    }
+
+    static ContadorSql atual(){
+        return ATUAL.get();
+    }
+
+    void registrarStatement(long linhasAfetadas, long tempoMs){
+        this.statements++;
+        this.linhasAfetadas += linhasAfetadas;
+        this.tempoMs += tempoMs;
+    }
+
+    void registrarEntidadeCarregada(){
+        this.entidadesCarregadas++;
+    }
+}
@@ -2,14 +2,26 @@ package com.github.sergiocostaczr.libraryapi.config;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 @Configuration
+@EnableScheduling
 public class DataBaseConfiguration {
 
     @Value("${spring.datasource.url}")
@@ -32,22 +44,76 @@ public class DataBaseConfiguration {
     }
 
     @Bean
-    public DataSource hikariDataSource(){
+    public HikariDataSource poolEscrita(PoolConexaoProperties properties){
+        return hikariDataSource("library-db-pool", properties.getEscrita(), false);
+    }
+
+    /**
+     * Um pool por replica (app.datasource.roteamento.replicas), todos com a configuração de app.datasource.leitura.
+     * Sem replicas configuradas, um unico pool somente leitura em leitura.url (ou no proprio primario).
+     */
+    @Bean
+    public RoteamentoDataSource roteamentoDataSource(PoolConexaoProperties properties,
+                                                     @Qualifier("poolEscrita") DataSource poolEscrita,
+                                                     ObjectProvider<MeterRegistry> meterRegistry){
+        List<String> urls = properties.getRoteamento().getReplicas().isEmpty()
+                ? Collections.singletonList(properties.getLeitura().getUrl())
+                : properties.getRoteamento().getReplicas();
+
+        List<RoteamentoDataSource.Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++){
+            String nome = "library-db-pool-leitura" + (urls.size() > 1 ? "-" + (i + 1) : "");
+            HikariDataSource pool = hikariDataSource(nome, properties.getLeitura(), true);
+            if (urls.get(i) != null && !urls.get(i).isBlank()){
+                pool.setJdbcUrl(urls.get(i));
+            }
+            // Os pools das replicas não são beans, então as metricas são registradas aqui.
+            meterRegistry.ifAvailable(registry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.add(new RoteamentoDataSource.Replica(nome, pool));
+        }
+
+        return new RoteamentoDataSource(poolEscrita, replicas, properties.getRoteamento());
+    }
+
+    /**
+     * DataSource usado pelo JPA. A conexão fisica só é obtida no primeiro statement (uma transação atendida
+     * pelo cache não ocupa conexão), quando o flag readOnly da transação ja esta definido para o roteamento.
+     * Por fora, o proxy de metricas (MetricasSqlListener) substitui o spring.jpa.show-sql.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(RoteamentoDataSource roteamentoDataSource, MetricasSqlListener metricasSqlListener){
+        return ProxyDataSourceBuilder.create(new LazyConnectionDataSourceProxy(roteamentoDataSource))
+                .name("library-db")
+                .listener(metricasSqlListener)
+                .build();
+    }
+
+    private HikariDataSource hikariDataSource(String nome, PoolConexaoProperties.Pool pool, boolean somenteLeitura){
         //https://github.com/brettwooldridge/HikariCP
         HikariConfig config = new HikariConfig();
-        config.setUsername(username);
-        config.setPassword(password);
+        config.setUsername(pool.getUsername() != null ? pool.getUsername() : username);
+        config.setPassword(pool.getPassword() != null ? pool.getPassword() : password);
         config.setDriverClassName(driver);
-        config.setJdbcUrl(url);
+        config.setJdbcUrl(pool.getUrl() != null && !pool.getUrl().isBlank() ? pool.getUrl() : url);
+        config.setPoolName(nome);
+        config.setReadOnly(somenteLeitura);
 
-        config.setMaximumPoolSize(10); // maximo de conexões liberadas.
-        config.setMinimumIdle(1); // tamanho inicial do poll.
-        config.setPoolName("library-db-pool");
-        config.setMaxLifetime(600000);// ms
-        config.setConnectionTimeout(100000);
-        config.setConnectionTestQuery("select 1"); // query de teste.
+        config.setMaximumPoolSize(pool.getMaximumPoolSize()); // maximo de conexões liberadas.
+        config.setMinimumIdle(pool.getMinimumIdle()); // conexões ociosas mantidas no pool.
+        config.setConnectionTimeout(pool.getConnectionTimeout().toMillis());
+        config.setIdleTimeout(pool.getIdleTimeout().toMillis());
+        config.setMaxLifetime(pool.getMaxLifetime().toMillis());
+        config.setKeepaliveTime(pool.getKeepaliveTime().toMillis());
+        config.setValidationTimeout(pool.getValidationTimeout().toMillis());
+        config.setLeakDetectionThreshold(pool.getLeakDetectionThreshold().toMillis());
+        // Sem connectionTestQuery: o driver do PostgreSQL é JDBC4 e o Hikari valida com Connection.isValid().
 
-        return new HikariDataSource(config);
+        // Pool criado sem iniciar (construtor sem argumentos): as metricas do Micrometer
+        // são registradas pelo Spring Boot antes da primeira conexão.
+        HikariDataSource dataSource = new HikariDataSource();
+        config.copyStateTo(dataSource);
+        return dataSource;
     }
 
 }
@@ -0,0 +1,38 @@
+package com.github.sergiocostaczr.libraryapi.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Conta as entidades montadas pelo Hibernate no ContadorSql da requisição: o equivalente às linhas lidas
+ * das consultas de entidade (inclusive as de coleções e as de um N+1), sem proxy no ResultSet.
+ * Custo de um ThreadLocal por entidade.
+ *
+ * Entidades vindas do cache de segundo nivel também contam; projeções (records, agregados) não.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntidadesCarregadasListener implements PostLoadEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void registrar(){
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class).getEventListenerRegistry()
+                .appendListeners(EventType.POST_LOAD, this);
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        ContadorSql contador = ContadorSql.atual();
+        if (contador != null){
+            contador.registrarEntidadeCarregada();
+        }
+    }
+}
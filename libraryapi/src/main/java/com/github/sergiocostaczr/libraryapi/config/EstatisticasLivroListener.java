@@ -0,0 +1,110 @@
+package com.github.sergiocostaczr.libraryapi.config;
+
+import com.github.sergiocostaczr.libraryapi.model.Autor;
+import com.github.sergiocostaczr.libraryapi.model.GeneroLivro;
+import com.github.sergiocostaczr.libraryapi.model.Livro;
+import com.github.sergiocostaczr.libraryapi.service.EstatisticasCatalogoService;
+import com.github.sergiocostaczr.libraryapi.service.EstatisticasCatalogoService.DadosLivro;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Repassa inclusões, alterações e remoções de Livro para as estatisticas do catalogo.
+ *
+ * Usa os listeners "post commit" do Hibernate: só são chamados depois do commit (rollback não altera as
+ * estatisticas) e o update recebe o estado anterior, sem precisar guardar nada na entidade.
+ * Update/delete via JPQL (@Modifying) não passam por aqui.
+ */
+@Component
+@RequiredArgsConstructor
+public class EstatisticasLivroListener implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final EstatisticasCatalogoService estatisticasCatalogoService;
+
+    @PostConstruct
+    public void registrar(){
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getEventListenerRegistry();
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.getMappedClass() == Livro.class;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Livro){
+            estatisticasCatalogoService.registrarInclusao(dados(event.getPersister(), event.getState()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Livro)){
+            return;
+        }
+        if (event.getOldState() == null){
+            // merge sem select do estado anterior: não há como desfazer os valores antigos
+            estatisticasCatalogoService.marcarRecalculo();
+            return;
+        }
+        estatisticasCatalogoService.registrarAlteracao(
+                dados(event.getPersister(), event.getOldState()),
+                dados(event.getPersister(), event.getState()));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Livro){
+            estatisticasCatalogoService.registrarRemocao(dados(event.getPersister(), event.getDeletedState()));
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    private static DadosLivro dados(EntityPersister persister, Object[] estado){
+        List<String> propriedades = Arrays.asList(persister.getPropertyNames());
+        Autor autor = (Autor) estado[propriedades.indexOf("autor")];
+        // Autor como proxy não inicializado: só o id, a nacionalidade vem do mapa de EstatisticasCatalogoService.
+        String nacionalidade = autor != null && Hibernate.isInitialized(autor) ? autor.getNacionalidade() : null;
+        return new DadosLivro(
+                (GeneroLivro) estado[propriedades.indexOf("genero")],
+                (BigDecimal) estado[propriedades.indexOf("preco")],
+                (LocalDate) estado[propriedades.indexOf("dataPublicacao")],
+                autor == null ? null : autor.getId(),
+                nacionalidade);
+    }
+}
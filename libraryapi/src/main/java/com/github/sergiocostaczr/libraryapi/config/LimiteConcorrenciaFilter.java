@@ -0,0 +1,129 @@
+package com.github.sergiocostaczr.libraryapi.config;
+
+import com.github.sergiocostaczr.libraryapi.controller.dto.ErroReposta;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limite de requisições simultaneas no modo de virtual threads (spring.threads.virtual.enabled=true).
+ *
+ * Com platform threads o proprio pool do Tomcat (200 threads) limita a concorrencia. Com virtual threads
+ * não há esse limite e milhares de requisições ficariam esperando conexão no Hikari ate o connectionTimeout.
+ * Aqui elas esperam no maximo espera-maxima por uma vaga e, sem vaga, recebem 503 na hora.
+ *
+ * limite <= 0 -> total de conexões dos pools (escrita + leitura).
+ *
+ * Requisições assincronas (StreamingResponseBody do GET /autores em NDJSON) seguram a vaga ate o fim do
+ * processamento assincrono, não só ate o fim da thread da requisição: é la que a conexão do banco fica presa.
+ * O dispatch assincrono final não passa pelo filtro (padrão do OncePerRequestFilter), então não pega outra vaga.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class LimiteConcorrenciaFilter extends OncePerRequestFilter {
+
+    private final Semaphore vagas;
+    private final long esperaMaximaMs;
+    private final ObjectMapper objectMapper;
+
+    public LimiteConcorrenciaFilter(PoolConexaoProperties poolConexaoProperties,
+                                    ObjectMapper objectMapper,
+                                    @Value("${app.concorrencia.limite:0}") int limite,
+                                    @Value("${app.concorrencia.espera-maxima:2s}") Duration esperaMaxima) {
+        int vagas = limite > 0
+                ? limite
+                : poolConexaoProperties.getEscrita().getMaximumPoolSize() + poolConexaoProperties.getLeitura().getMaximumPoolSize();
+        this.vagas = new Semaphore(vagas, true);
+        this.esperaMaximaMs = esperaMaxima.toMillis();
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // health/metrics precisam responder mesmo com a aplicação saturada.
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean obteve;
+        try {
+            obteve = vagas.tryAcquire(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            obteve = false;
+        }
+
+        if (!obteve){
+            var erroReposta = ErroReposta.indisponivel("Servidor ocupado, tente novamente");
+            response.setStatus(erroReposta.status());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), erroReposta);
+            return;
+        }
+
+        Runnable liberar = liberarUmaVez();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()){
+                request.getAsyncContext().addListener(new LiberarAoTerminar(liberar));
+            } else {
+                liberar.run();
+            }
+        }
+    }
+
+    // onError/onTimeout costumam ser seguidos de onComplete: a vaga é devolvida uma vez só.
+    private Runnable liberarUmaVez(){
+        AtomicBoolean liberada = new AtomicBoolean();
+        return () -> {
+            if (liberada.compareAndSet(false, true)){
+                vagas.release();
+            }
+        };
+    }
+
+    private record LiberarAoTerminar(Runnable liberar) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            liberar.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            liberar.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            liberar.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Novo ciclo assincrono na mesma requisição: continua esperando o fim dele.
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
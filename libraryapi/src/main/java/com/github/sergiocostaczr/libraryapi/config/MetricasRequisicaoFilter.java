@@ -0,0 +1,81 @@
+package com.github.sergiocostaczr.libraryapi.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Statements, linhas afetadas e entidades carregadas por requisição (sql.requisicao.statements /
+ * sql.requisicao.linhas.afetadas / sql.requisicao.entidades.carregadas), com as mesmas tags method/uri do http.server.requests para cruzar os dois no Prometheus.
+ * Respostas em streaming (NDJSON) continuam em outra thread e não entram na contagem.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MetricasRequisicaoFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContadorSql contador = ContadorSql.iniciar();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ContadorSql.encerrar();
+            registrar(request, contador);
+        }
+    }
+
+    private void registrar(HttpServletRequest request, ContadorSql contador){
+        Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = padrao != null ? padrao.toString() : "UNKNOWN";
+
+        DistributionSummary.builder("sql.requisicao.statements")
+                .description("Statements SQL executados por requisição")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(contador.getStatements());
+        DistributionSummary.builder("sql.requisicao.linhas.afetadas")
+                .description("Linhas afetadas por insert/update/delete por requisição")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(contador.getLinhasAfetadas());
+        DistributionSummary.builder("sql.requisicao.entidades.carregadas")
+                .description("Entidades montadas pelo Hibernate por requisição (N+1, consultas sem limite)")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(contador.getEntidadesCarregadas());
+
+        log.atDebug()
+                .addKeyValue("method", request.getMethod())
+                .addKeyValue("uri", uri)
+                .addKeyValue("statements", contador.getStatements())
+                .addKeyValue("linhasAfetadas", contador.getLinhasAfetadas())
+                .addKeyValue("entidadesCarregadas", contador.getEntidadesCarregadas())
+                .addKeyValue("sqlMs", contador.getTempoMs())
+                .log("SQL da requisição");
+    }
+}
@@ -0,0 +1,114 @@
+package com.github.sergiocostaczr.libraryapi.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Listener do datasource-proxy (DataBaseConfiguration) para todo SQL executado pelo JPA:
+ * - timer sql.execucao por tipo de comando (select, insert, update, delete);
+ * - log estruturado das consultas acima de app.sql.lenta;
+ * - log por amostragem (app.sql.log.amostragem) no lugar do spring.jpa.show-sql;
+ * - statements e linhas afetadas no ContadorSql da requisição.
+ *
+ * Linhas lidas não são contadas aqui (exigiria um proxy em todo ResultSet, uma chamada do listener por
+ * next()/getXxx()): o EntidadesCarregadasListener conta as entidades montadas pelo Hibernate.
+ */
+@Slf4j
+@Component
+public class MetricasSqlListener implements QueryExecutionListener {
+
+    private final MeterRegistry meterRegistry;
+    private final Counter consultasLentas;
+    private final long lentaMs;
+    private final double amostragem;
+
+    public MetricasSqlListener(MeterRegistry meterRegistry,
+                               @Value("${app.sql.lenta:500ms}") Duration lenta,
+                               @Value("${app.sql.log.amostragem:0}") double amostragem) {
+        this.meterRegistry = meterRegistry;
+        this.consultasLentas = Counter.builder("sql.lentas")
+                .description("Statements acima de app.sql.lenta")
+                .register(meterRegistry);
+        this.lentaMs = lenta.toMillis();
+        this.amostragem = amostragem;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        String sql = queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+        String tipo = tipo(sql);
+        long tempoMs = execInfo.getElapsedTime();
+        long linhasAfetadas = linhasAfetadas(execInfo.getResult());
+
+        Timer.builder("sql.execucao")
+                .tag("tipo", tipo)
+                .tag("lote", String.valueOf(execInfo.isBatch()))
+                .register(meterRegistry)
+                .record(tempoMs, TimeUnit.MILLISECONDS);
+
+        ContadorSql contador = ContadorSql.atual();
+        if (contador != null){
+            contador.registrarStatement(linhasAfetadas, tempoMs);
+        }
+
+        if (tempoMs >= lentaMs){
+            consultasLentas.increment();
+            log.atWarn()
+                    .addKeyValue("duracaoMs", tempoMs)
+                    .addKeyValue("tipo", tipo)
+                    .addKeyValue("lote", execInfo.isBatch())
+                    .addKeyValue("tamanhoLote", execInfo.getBatchSize())
+                    .addKeyValue("linhasAfetadas", linhasAfetadas)
+                    .addKeyValue("dataSource", execInfo.getDataSourceName())
+                    .addKeyValue("sql", sql)
+                    .log("Consulta lenta ({} ms)", tempoMs);
+        } else if (amostragem > 0 && ThreadLocalRandom.current().nextDouble() < amostragem){
+            log.atInfo()
+                    .addKeyValue("duracaoMs", tempoMs)
+                    .addKeyValue("sql", sql)
+                    .log("SQL");
+        }
+    }
+
+    private static String tipo(String sql){
+        String comando = sql.stripLeading();
+        int fim = 0;
+        while (fim < comando.length() && Character.isLetter(comando.charAt(fim))){
+            fim++;
+        }
+        return fim == 0 ? "outro" : comando.substring(0, fim).toLowerCase(Locale.ROOT);
+    }
+
+    /** executeUpdate devolve Integer, executeBatch int[]; consultas devolvem o ResultSet (0). */
+    private static long linhasAfetadas(Object resultado){
+        if (resultado instanceof Integer linhas){
+            return Math.max(linhas, 0);
+        }
+        if (resultado instanceof int[] linhas){
+            long total = 0;
+            for (int l : linhas){
+                total += Math.max(l, 0);
+            }
+            return total;
+        }
+        return 0;
+    }
+}
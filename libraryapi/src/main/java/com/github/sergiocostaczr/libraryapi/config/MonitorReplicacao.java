@@ -0,0 +1,18 @@
+package com.github.sergiocostaczr.libraryapi.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Verifica o atraso de replicação das replicas de leitura a cada app.datasource.roteamento.intervalo-verificacao.
+@Component
+@RequiredArgsConstructor
+public class MonitorReplicacao {
+
+    private final RoteamentoDataSource roteamentoDataSource;
+
+    @Scheduled(fixedDelayString = "${app.datasource.roteamento.intervalo-verificacao:5s}")
+    public void verificar(){
+        roteamentoDataSource.verificarReplicas();
+    }
+}
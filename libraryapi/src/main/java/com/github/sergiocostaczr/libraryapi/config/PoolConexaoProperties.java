@@ -0,0 +1,80 @@
+package com.github.sergiocostaczr.libraryapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parametros dos pools do HikariCP (https://github.com/brettwooldridge/HikariCP#gear-configuration-knobs-baby).
+ *
+ * escrita    -> pool de leitura/escrita (primario), usado por padrão.
+ * leitura    -> configuração dos pools usados pelas transações @Transactional(readOnly = true).
+ * roteamento -> replicas para onde vão as transações readOnly (ver RoteamentoDataSource).
+ *
+ * Ex: app.datasource.escrita.maximum-pool-size=20
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.datasource")
+@Getter
+@Setter
+public class PoolConexaoProperties {
+
+    private Pool escrita = new Pool();
+    private Pool leitura = new Pool();
+    private Roteamento roteamento = new Roteamento();
+
+    public enum EstrategiaReplica {
+        ROUND_ROBIN, // uma replica de cada vez, em ordem.
+        MENOR_USO    // replica com menos conexões ativas no pool.
+    }
+
+    @Getter
+    @Setter
+    public static class Roteamento {
+
+        // urls das replicas, cada uma com um pool configurado por app.datasource.leitura.
+        // Vazio -> um unico pool de leitura com leitura.url (ou o banco primario).
+        private List<String> replicas = new ArrayList<>();
+        private EstrategiaReplica estrategia = EstrategiaReplica.ROUND_ROBIN;
+        // acima desse atraso a replica sai do rodizio e as leituras vão para o primario.
+        private Duration atrasoMaximo = Duration.ofSeconds(10);
+        private Duration intervaloVerificacao = Duration.ofSeconds(5);
+        // retorna o atraso de replicação em segundos. Vazio -> não verifica (ex: H2 local).
+        private String consultaAtraso = """
+                select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0) end
+                """;
+    }
+
+    @Getter
+    @Setter
+    public static class Pool {
+
+        // Conexão. Vazio -> usa o mesmo banco de spring.datasource.
+        private String url;
+        private String username;
+        private String password;
+
+        // maximo de conexões abertas (em uso + ociosas).
+        private int maximumPoolSize = 10;
+        // conexões ociosas mantidas abertas. Igual ao maximo -> pool de tamanho fixo (recomendação do Hikari).
+        private int minimumIdle = 10;
+        // tempo maximo esperando uma conexão livre antes de lançar SQLTransientConnectionException.
+        private Duration connectionTimeout = Duration.ofSeconds(5);
+        // tempo que uma conexão fica ociosa antes de ser fechada (só vale se minimumIdle < maximumPoolSize).
+        private Duration idleTimeout = Duration.ofMinutes(10);
+        // tempo de vida maximo de uma conexão, deve ser menor que qualquer timeout do banco/rede.
+        private Duration maxLifetime = Duration.ofMinutes(30);
+        // ping periodico nas conexões ociosas para não serem derrubadas por firewall.
+        private Duration keepaliveTime = Duration.ofMinutes(2);
+        // timeout do Connection.isValid() (validação JDBC4, sem connectionTestQuery).
+        private Duration validationTimeout = Duration.ofSeconds(2);
+        // loga um alerta com a stack de quem pegou a conexão e não devolveu nesse tempo. 0 = desligado.
+        private Duration leakDetectionThreshold = Duration.ofSeconds(30);
+    }
+}
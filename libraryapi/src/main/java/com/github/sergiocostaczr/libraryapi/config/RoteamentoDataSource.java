@@ -0,0 +1,156 @@
+package com.github.sergiocostaczr.libraryapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envia as transações @Transactional(readOnly = true) para as replicas e o restante para o primario.
+ *
+ * O flag readOnly só existe depois que a transação começou, por isso este DataSource precisa ficar
+ * atras de um LazyConnectionDataSourceProxy (a conexão é escolhida no primeiro statement).
+ * Replicas com atraso de replicação acima do limite (ou fora do ar) saem do rodizio ate a proxima
+ * verificação; sem nenhuma replica disponivel a leitura vai para o primario.
+ */
+public class RoteamentoDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RoteamentoDataSource.class);
+
+    public static final String PRIMARIO = "primario";
+
+    public static class Replica {
+
+        private final String nome;
+        private final DataSource dataSource;
+        private volatile boolean disponivel = true;
+
+        public Replica(String nome, DataSource dataSource) {
+            this.nome = nome;
+            this.dataSource = dataSource;
+        }
+
+        public String getNome() {
+            return nome;
+        }
+
+        public boolean isDisponivel() {
+            return disponivel;
+        }
+
+        private int conexoesAtivas(){
+            if (dataSource instanceof HikariDataSource hikari && hikari.getHikariPoolMXBean() != null){
+                return hikari.getHikariPoolMXBean().getActiveConnections();
+            }
+            return 0;
+        }
+    }
+
+    private final List<Replica> replicas;
+    private final PoolConexaoProperties.EstrategiaReplica estrategia;
+    private final Duration atrasoMaximo;
+    private final String consultaAtraso;
+    private final AtomicInteger proxima = new AtomicInteger();
+
+    public RoteamentoDataSource(DataSource primario,
+                                List<Replica> replicas,
+                                PoolConexaoProperties.Roteamento roteamento) {
+        this.replicas = List.copyOf(replicas);
+        this.estrategia = roteamento.getEstrategia();
+        this.atrasoMaximo = roteamento.getAtrasoMaximo();
+        this.consultaAtraso = roteamento.getConsultaAtraso();
+
+        Map<Object, Object> destinos = new HashMap<>();
+        destinos.put(PRIMARIO, primario);
+        replicas.forEach(replica -> destinos.put(replica.getNome(), replica.dataSource));
+
+        setTargetDataSources(destinos);
+        setDefaultTargetDataSource(primario);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()){
+            return PRIMARIO;
+        }
+
+        List<Replica> disponiveis = replicas.stream().filter(Replica::isDisponivel).toList();
+        if (disponiveis.isEmpty()){
+            return PRIMARIO;
+        }
+
+        Replica escolhida = switch (estrategia){
+            case ROUND_ROBIN -> disponiveis.get(Math.floorMod(proxima.getAndIncrement(), disponiveis.size()));
+            case MENOR_USO -> {
+                Replica menor = disponiveis.getFirst();
+                for (Replica replica : disponiveis){
+                    if (replica.conexoesAtivas() < menor.conexoesAtivas()){
+                        menor = replica;
+                    }
+                }
+                yield menor;
+            }
+        };
+        return escolhida.getNome();
+    }
+
+    // Chamado periodicamente pelo MonitorReplicacao.
+    public void verificarReplicas(){
+        if (consultaAtraso == null || consultaAtraso.isBlank()){
+            return;
+        }
+
+        for (Replica replica : replicas){
+            boolean disponivel = atrasoDentroDoLimite(replica);
+            if (disponivel != replica.disponivel){
+                log.warn("Replica {} {}", replica.getNome(), disponivel ? "voltou ao rodizio" : "removida do rodizio, leituras vão para o primario");
+            }
+            replica.disponivel = disponivel;
+        }
+    }
+
+    private boolean atrasoDentroDoLimite(Replica replica){
+        try (Connection connection = replica.dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(consultaAtraso)) {
+
+            double atrasoSegundos = resultSet.next() ? resultSet.getDouble(1) : 0;
+            return atrasoSegundos * 1000 <= atrasoMaximo.toMillis();
+        } catch (Exception e) {
+            log.warn("Falha ao verificar a replica {}: {}", replica.getNome(), e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        // O primario é um bean proprio, aqui só fecham os pools das replicas.
+        for (Replica replica : replicas){
+            if (replica.dataSource instanceof AutoCloseable pool){
+                try {
+                    pool.close();
+                } catch (Exception e) {
+                    log.warn("Falha ao fechar o pool da replica {}", replica.getNome(), e);
+                }
+            }
+        }
+    }
+}
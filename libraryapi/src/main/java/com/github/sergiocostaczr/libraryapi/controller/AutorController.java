@@ -2,19 +2,39 @@ package com.github.sergiocostaczr.libraryapi.controller;
 
 import com.github.sergiocostaczr.libraryapi.controller.dto.AutorDTO;
 import com.github.sergiocostaczr.libraryapi.controller.dto.ErroReposta;
+import com.github.sergiocostaczr.libraryapi.controller.dto.PaginaAutorDTO;
+import com.github.sergiocostaczr.libraryapi.controller.dto.ResultadoImportacaoDTO;
+import com.github.sergiocostaczr.libraryapi.controller.dto.VersaoAutor;
 import com.github.sergiocostaczr.libraryapi.exceptions.OperacaoNaoPermitidaException;
 import com.github.sergiocostaczr.libraryapi.exceptions.RegistroDuplicadoException;
+import com.github.sergiocostaczr.libraryapi.exceptions.VersaoDesatualizadaException;
 import com.github.sergiocostaczr.libraryapi.model.Autor;
 import com.github.sergiocostaczr.libraryapi.service.AutorService;
+import com.github.sergiocostaczr.libraryapi.service.CursorAutor;
+import com.github.sergiocostaczr.libraryapi.service.ImportacaoAutorService;
+import com.github.sergiocostaczr.libraryapi.service.LeitorLoteAutor;
 import lombok.RequiredArgsConstructor;
 import org.aspectj.weaver.reflect.IReflectionWorld;
 import org.hibernate.cache.spi.support.RegionNameQualifier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import tools.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.List;
 import java.util.Optional;
@@ -28,6 +48,8 @@ import java.util.stream.Collectors;
 public class AutorController {
 
     private final AutorService autorService;
+    private final ImportacaoAutorService importacaoAutorService;
+    private final ObjectMapper objectMapper;
 
 
     @PostMapping
@@ -56,31 +78,60 @@ public class AutorController {
         }
     }
 
-    @GetMapping("{id}")
-    public ResponseEntity<AutorDTO> obertDetalhes(@PathVariable("id") String id){
-        UUID idAutor = UUID.fromString(id);
-        Optional<Autor> autorOptional = autorService.obterPorId(idAutor);
-
-        if (autorOptional.isPresent()){
-            Autor autor = autorOptional.get();
-            AutorDTO autorDTO = new AutorDTO(autor.getId(),autor.getNome(),autor.getDataNascimento(),autor.getNacionalidade());
-            return ResponseEntity.ok(autorDTO);
+    // Corpo lido como stream: [{"nome": ...}, ...] ou CSV com cabeçalho nome,dataNascimento,nacionalidade
+    @PostMapping(value = "lote", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> importarJson(InputStream corpo){
+        try {
+            ResultadoImportacaoDTO resultado = importacaoAutorService.importar(LeitorLoteAutor.json(corpo, objectMapper));
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException e) {
+            var erroReposta = ErroReposta.reppostaPadrao(e.getMessage());
+            return ResponseEntity.status(erroReposta.status()).body(erroReposta);
         }
+    }
+
+    @PostMapping(value = "lote", consumes = "text/csv")
+    public ResponseEntity<?> importarCsv(InputStream corpo){
+        try {
+            ResultadoImportacaoDTO resultado = importacaoAutorService.importar(LeitorLoteAutor.csv(corpo));
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException e) {
+            var erroReposta = ErroReposta.reppostaPadrao(e.getMessage());
+            return ResponseEntity.status(erroReposta.status()).body(erroReposta);
+        }
+    }
 
-        return ResponseEntity.notFound().build();
+    // GET condicional: If-None-Match (versao) / If-Modified-Since (data_atualizacao) respondidos com 304 sem corpo.
+    // O autor vem do cache de segundo nivel, então o 304 normalmente não chega a consultar o banco.
+    @GetMapping("{id}")
+    public ResponseEntity<AutorDTO> obertDetalhes(@PathVariable("id") String id, WebRequest request){
+        Optional<Autor> autorOptional = autorService.obterPorId(UUID.fromString(id));
+
+        if (autorOptional.isEmpty()){
+            return ResponseEntity.notFound().build();
+        }
+        VersaoAutor versao = VersaoAutor.de(autorOptional.get());
+        if (request.checkNotModified(versao.etag(), versao.ultimaAlteracao())){
+            return null; // 304, ETag e Last-Modified ja preenchidos pelo checkNotModified
+        }
 
+        var resposta = ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache()) // cliente guarda e revalida com If-None-Match
+                .eTag(versao.etag());
+        if (versao.ultimaAlteracao() >= 0){
+            resposta.lastModified(versao.ultimaAlteracao());
+        }
+        return resposta.body(AutorDTO.mapearParaDTO(autorOptional.get()));
     }
     @DeleteMapping("{id}")
     public ResponseEntity<?> deletarById(@PathVariable("id") String id){
         try {
             UUID idAutor = UUID.fromString(id);
-            Optional<Autor> autorOptional = autorService.obterPorId(idAutor);
 
-            if (autorOptional.isEmpty()){
+            if (!autorService.deletar(idAutor)){
                 return ResponseEntity.notFound().build();
             }
 
-            autorService.deletar(autorOptional.get());
             return ResponseEntity.noContent().build();
         } catch (OperacaoNaoPermitidaException e) {
             var erroReposta = ErroReposta.reppostaPadrao(e.getMessage());
@@ -96,39 +147,115 @@ public class AutorController {
         List<Autor> resultado  = autorService.pesquisa(nome,nacionalidade);
         List<AutorDTO> list = resultado
                 .stream()
-                .map(autor -> new AutorDTO(autor.getId(),autor.getNome(),autor.getDataNascimento(),autor.getNacionalidade()))
+                .map(AutorDTO::mapearParaDTO)
                 .toList();
         return ResponseEntity.ok(list);
     }
 
-    @PutMapping("{id}")
-    public ResponseEntity<?> atualizar(@PathVariable String id,@RequestBody AutorDTO autorDTO){
+    // Ex: http://localhost:8080/autores/pagina?tamanho=50&cursor=MzczZmRm...
+    @GetMapping("pagina")
+    public ResponseEntity<?> pesquisarPaginado(@RequestParam(value = "nome", required = false) String nome,
+                                               @RequestParam(value = "nacionalidade", required = false) String nacionalidade,
+                                               @RequestParam(value = "cursor", required = false) String cursor,
+                                               @RequestParam(value = "tamanho", required = false) Integer tamanho){
         try {
-            UUID idAutor = UUID.fromString(id);
-            Optional<Autor> autorOptional = autorService.obterPorId(idAutor);
+            Window<Autor> pagina = autorService.pesquisaPaginada(nome, nacionalidade, cursor, tamanho);
+            List<AutorDTO> conteudo = pagina.stream().map(AutorDTO::mapearParaDTO).toList();
 
-            if (autorOptional.isEmpty()){
+            String proximoCursor = pagina.hasNext() && !pagina.isEmpty()
+                    ? CursorAutor.codificar(pagina.getContent().getLast())
+                    : null;
 
-                return ResponseEntity.notFound().build();
+            return ResponseEntity.ok(new PaginaAutorDTO(conteudo, conteudo.size(), proximoCursor));
+        } catch (IllegalArgumentException e) {
+            var erroReposta = ErroReposta.reppostaPadrao(e.getMessage());
+            return ResponseEntity.status(erroReposta.status()).body(erroReposta);
+        }
+    }
+
+    // Ex: /autores/busca?q=machado assis&page=0&size=20 -> busca por prefixo e aproximada, ordenada pela relevancia.
+    @GetMapping("busca")
+    public ResponseEntity<?> buscar(@RequestParam("q") String texto,
+                                    @PageableDefault(size = 20) Pageable pageable){
+        try {
+            Page<AutorDTO> pagina = autorService.buscar(texto, pageable).map(AutorDTO::mapearParaDTO);
+            return ResponseEntity.ok(new PagedModel<>(pagina));
+        } catch (IllegalArgumentException e) {
+            var erroReposta = ErroReposta.reppostaPadrao(e.getMessage());
+            return ResponseEntity.status(erroReposta.status()).body(erroReposta);
+        }
+    }
+
+    // Accept: application/x-ndjson -> um autor por linha, escrito conforme é lido do banco.
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> transmitir(@RequestParam(value = "nome", required = false) String nome,
+                                                            @RequestParam(value = "nacionalidade", required = false) String nacionalidade){
+        StreamingResponseBody corpo = outputStream -> autorService.transmitir(nome, nacionalidade, autor -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(AutorDTO.mapearParaDTO(autor)));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
+        });
 
-            Autor autor = autorOptional.get();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(corpo);
+    }
 
-            autor.setNome(autorDTO.nome());
-            autor.setNacionalidade(autorDTO.nacionalidade());
-            autor.setDataNascimento(autorDTO.dataNascimento());
+    // If-Match: "versao" (ETag do GET) -> update só se o autor não foi alterado, senão 412.
+    @PutMapping("{id}")
+    public ResponseEntity<?> atualizar(@PathVariable String id,@RequestBody AutorDTO autorDTO,
+                                       @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        try {
+            // Update direto (sem buscar o autor antes): 404 se nenhuma linha foi alterada.
+            Autor autor = autorDTO.mapearParaAutor();
+            autor.setId(UUID.fromString(id));
+
+            boolean condicional = ifMatch != null && !ifMatch.isBlank() && !"*".equals(ifMatch.trim());
+            if (condicional){
+                Integer versao = versaoDoEtag(ifMatch);
+                if (versao == null){
+                    var erroDto = ErroReposta.precondicaoFalhou("If-Match invalido: " + ifMatch);
+                    return ResponseEntity.status(erroDto.status()).body(erroDto);
+                }
+                autor.setVersao(versao);
+            }
 
-            autorService.atualizar(autor);
+            if (!autorService.atualizar(autor)){
+                return ResponseEntity.notFound().build();
+            }
 
-            return ResponseEntity.noContent().build();
+            var resposta = ResponseEntity.noContent();
+            if (condicional){
+                resposta.eTag(new VersaoAutor(autor.getVersao() + 1, null, null).etag());
+            }
+            return resposta.build();
         } catch (RegistroDuplicadoException e) {
             var erroDto = ErroReposta.conflito(e.getMessage());
             return ResponseEntity.status(erroDto.status()).body(erroDto);
+        } catch (VersaoDesatualizadaException e) {
+            var erroDto = ErroReposta.precondicaoFalhou(e.getMessage());
+            return ResponseEntity.status(erroDto.status()).body(erroDto);
         }
 
 
     }
 
+    // "3" -> 3. ETag fraco (W/"3") não serve para If-Match (comparação forte).
+    private static Integer versaoDoEtag(String etag){
+        String valor = etag.trim();
+        if (valor.length() < 3 || valor.charAt(0) != '"' || valor.charAt(valor.length() - 1) != '"'){
+            return null;
+        }
+        try {
+            return Integer.valueOf(valor.substring(1, valor.length() - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
 
 
 
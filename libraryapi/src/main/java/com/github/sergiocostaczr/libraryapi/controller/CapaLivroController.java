@@ -0,0 +1,76 @@
+package com.github.sergiocostaczr.libraryapi.controller;
+
+import com.github.sergiocostaczr.libraryapi.controller.dto.CapaLivroDTO;
+import com.github.sergiocostaczr.libraryapi.controller.dto.ErroReposta;
+import com.github.sergiocostaczr.libraryapi.service.CapaLivro;
+import com.github.sergiocostaczr.libraryapi.service.CapaLivroService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Optional;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/livros/{id}/capa")
+@RequiredArgsConstructor
+//http://localhost:8080/livros/{id}/capa
+public class CapaLivroController {
+
+    private final CapaLivroService capaLivroService;
+    private final EnvioArquivo envioArquivo;
+
+    // Ex: curl -X PUT -F arquivo=@capa.png http://localhost:8080/livros/{id}/capa
+    // O multipart é gravado pelo Tomcat em disco (spring.servlet.multipart.file-size-threshold=0) e lido como stream.
+    @PutMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> salvar(@PathVariable("id") String id,
+                                    @RequestParam("arquivo") MultipartFile arquivo) throws IOException {
+        try (InputStream conteudo = arquivo.getInputStream()) {
+            Optional<CapaLivro> capa = capaLivroService.salvar(UUID.fromString(id), conteudo);
+
+            if (capa.isEmpty()){
+                return ResponseEntity.notFound().build();
+            }
+
+            URI location = ServletUriComponentsBuilder
+                    .fromCurrentRequest()
+                    .build()
+                    .toUri();
+            return ResponseEntity.created(location).body(CapaLivroDTO.mapearParaDTO(capa.get()));
+        } catch (IllegalArgumentException e) {
+            var erroReposta = ErroReposta.reppostaPadrao(e.getMessage());
+            return ResponseEntity.status(erroReposta.status()).body(erroReposta);
+        }
+    }
+
+    // Aceita Range (206), If-None-Match (304) e HEAD.
+    @GetMapping
+    public void obter(@PathVariable("id") String id,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        enviar(capaLivroService.obter(UUID.fromString(id)), request, response);
+    }
+
+    // 404 enquanto a miniatura é gerada em segundo plano.
+    @GetMapping("miniatura")
+    public void obterMiniatura(@PathVariable("id") String id,
+                               HttpServletRequest request, HttpServletResponse response) throws IOException {
+        enviar(capaLivroService.obterMiniatura(UUID.fromString(id)), request, response);
+    }
+
+    private void enviar(Optional<CapaLivro> capa, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (capa.isEmpty()){
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        envioArquivo.enviar(capa.get(), request, response);
+    }
+}
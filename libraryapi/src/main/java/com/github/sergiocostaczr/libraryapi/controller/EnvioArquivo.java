@@ -0,0 +1,196 @@
+package com.github.sergiocostaczr.libraryapi.controller;
+
+import com.github.sergiocostaczr.libraryapi.armazenamento.ArmazenamentoArquivos;
+import com.github.sergiocostaczr.libraryapi.service.CapaLivro;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Envio de arquivos do ArmazenamentoArquivos com ETag (304), Range de um intervalo (206/416) e Cache-Control.
+ *
+ * Arquivo local: com o conector NIO do Tomcat o envio é feito pelo proprio Tomcat com sendfile (o kernel copia
+ * do cache de paginas para o socket). Sem sendfile (TLS, HTTP/2, arquivos pequenos) FileChannel.transferTo escreve
+ * na saida da resposta usando um buffer fixo. Nos dois casos o arquivo nunca é carregado inteiro no heap.
+ */
+@Component
+class EnvioArquivo {
+
+    // Atributos de sendfile do Tomcat (org.apache.catalina.Globals), sem depender do Tomcat em tempo de compilação.
+    private static final String SENDFILE_SUPORTADO = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_ARQUIVO = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FIM = "org.apache.tomcat.sendfile.end";
+    // Abaixo disso um write comum é mais rapido que sendfile (mesmo limite do DefaultServlet do Tomcat).
+    private static final long TAMANHO_MINIMO_SENDFILE = 48 * 1024;
+
+    static final Intervalo INSATISFAZIVEL = new Intervalo(-1, -1);
+
+    private final ArmazenamentoArquivos armazenamento;
+    private final String cacheControl;
+
+    EnvioArquivo(ArmazenamentoArquivos armazenamento,
+                 @Value("${app.capas.cache-max-age:1h}") Duration cacheMaxAge) {
+        this.armazenamento = armazenamento;
+        // A capa de um livro pode mudar: depois do max-age o cliente revalida com If-None-Match (304 sem corpo).
+        this.cacheControl = CacheControl.maxAge(cacheMaxAge).cachePublic().mustRevalidate().getHeaderValue();
+    }
+
+    // [inicio, fim], inclusivo como no cabeçalho Content-Range.
+    record Intervalo(long inicio, long fim) {
+        long tamanho(){
+            return fim - inicio + 1;
+        }
+    }
+
+    void enviar(CapaLivro capa, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String etag = capa.etag();
+        long tamanhoArquivo = capa.arquivo().tamanho();
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (correspondeEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)){
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        // If-Range com outro ETag: o cliente tem uma versão antiga, recebe o arquivo inteiro.
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        Intervalo intervalo = ifRange == null || ifRange.equals(etag)
+                ? interpretarRange(request.getHeader(HttpHeaders.RANGE), tamanhoArquivo)
+                : null;
+
+        if (intervalo == INSATISFAZIVEL){
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + tamanhoArquivo);
+            return;
+        }
+        if (intervalo == null){
+            intervalo = new Intervalo(0, tamanhoArquivo - 1);
+        } else {
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE,
+                    "bytes " + intervalo.inicio() + "-" + intervalo.fim() + "/" + tamanhoArquivo);
+        }
+
+        response.setContentType(capa.tipo().getTipoConteudo());
+        response.setContentLengthLong(intervalo.tamanho());
+        if ("HEAD".equals(request.getMethod()) || intervalo.tamanho() == 0){
+            return;
+        }
+
+        String chave = capa.arquivo().chave();
+        Optional<Path> caminho = armazenamento.caminhoLocal(chave);
+        if (caminho.isEmpty()){
+            try (InputStream entrada = armazenamento.abrir(chave, intervalo.inicio(), intervalo.tamanho())) {
+                entrada.transferTo(response.getOutputStream());
+            }
+            return;
+        }
+
+        if (intervalo.tamanho() >= TAMANHO_MINIMO_SENDFILE && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPORTADO))){
+            request.setAttribute(SENDFILE_ARQUIVO, caminho.get().toString());
+            request.setAttribute(SENDFILE_INICIO, intervalo.inicio());
+            request.setAttribute(SENDFILE_FIM, intervalo.fim() + 1); // exclusivo
+            return;
+        }
+
+        try (FileChannel arquivo = FileChannel.open(caminho.get(), StandardOpenOption.READ)) {
+            WritableByteChannel saida = Channels.newChannel(response.getOutputStream());
+            long posicao = intervalo.inicio();
+            long restante = intervalo.tamanho();
+            while (restante > 0){
+                long enviados = arquivo.transferTo(posicao, restante, saida);
+                if (enviados <= 0){
+                    throw new IOException("Arquivo " + chave + " menor que o tamanho informado");
+                }
+                posicao += enviados;
+                restante -= enviados;
+            }
+        }
+    }
+
+    /**
+     * Só um intervalo por requisição: "bytes=0-99", "bytes=100-" e "bytes=-100" (ultimos 100 bytes).
+     * null: sem Range, mal formado ou com varios intervalos (a RFC 9110 permite ignorar e responder 200).
+     * INSATISFAZIVEL: começa depois do fim do arquivo (416).
+     */
+    static Intervalo interpretarRange(String range, long tamanhoArquivo){
+        if (range == null || !range.regionMatches(true, 0, "bytes=", 0, 6)){
+            return null;
+        }
+        String especificacao = range.substring(6).trim();
+        int traco = especificacao.indexOf('-');
+        if (traco < 0 || especificacao.indexOf(',') >= 0){
+            return null;
+        }
+
+        long inicio = numero(especificacao.substring(0, traco).trim());
+        long fim = numero(especificacao.substring(traco + 1).trim());
+
+        if (traco == 0){
+            // Sufixo: ultimos "fim" bytes.
+            if (fim < 0){
+                return null;
+            }
+            if (fim == 0 || tamanhoArquivo == 0){
+                return INSATISFAZIVEL;
+            }
+            return new Intervalo(Math.max(0, tamanhoArquivo - fim), tamanhoArquivo - 1);
+        }
+
+        if (inicio < 0 || (fim < 0 && traco < especificacao.length() - 1) || (fim >= 0 && fim < inicio)){
+            return null;
+        }
+        if (inicio >= tamanhoArquivo){
+            return INSATISFAZIVEL;
+        }
+        return new Intervalo(inicio, fim < 0 ? tamanhoArquivo - 1 : Math.min(fim, tamanhoArquivo - 1));
+    }
+
+    static boolean correspondeEtag(String ifNoneMatch, String etag){
+        if (ifNoneMatch == null){
+            return false;
+        }
+        for (String candidato : ifNoneMatch.split(",")){
+            String valor = candidato.trim();
+            if (valor.equals("*") || valor.equals(etag) || valor.equals("W/" + etag)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // -1 quando vazio ou não é um numero sem sinal.
+    private static long numero(String texto){
+        if (texto.isEmpty()){
+            return -1;
+        }
+        for (int i = 0; i < texto.length(); i++){
+            if (texto.charAt(i) < '0' || texto.charAt(i) > '9'){
+                return -1;
+            }
+        }
+        try {
+            return Long.parseLong(texto);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.sergiocostaczr.libraryapi.controller;
+
+import com.github.sergiocostaczr.libraryapi.model.GeneroLivro;
+import com.github.sergiocostaczr.libraryapi.service.EstatisticaLivros;
+import com.github.sergiocostaczr.libraryapi.service.EstatisticasCatalogoService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.UUID;
+
+// Estatisticas do catalogo servidas da memoria (EstatisticasCatalogoService), sem consulta ao banco.
+@RestController
+@RequestMapping("/estatisticas")
+@RequiredArgsConstructor
+//http://localhost:8080/estatisticas
+public class EstatisticasController {
+
+    private final EstatisticasCatalogoService estatisticasCatalogoService;
+
+    @GetMapping("generos")
+    public ResponseEntity<Map<GeneroLivro, EstatisticaLivros>> porGenero(){
+        return ResponseEntity.ok(estatisticasCatalogoService.porGenero());
+    }
+
+    @GetMapping("generos/{genero}")
+    public ResponseEntity<EstatisticaLivros> doGenero(@PathVariable("genero") GeneroLivro genero){
+        return ResponseEntity.of(estatisticasCatalogoService.doGenero(genero));
+    }
+
+    @GetMapping("nacionalidades")
+    public ResponseEntity<Map<String, EstatisticaLivros>> porNacionalidade(){
+        return ResponseEntity.ok(estatisticasCatalogoService.porNacionalidade());
+    }
+
+    @GetMapping("nacionalidades/{nacionalidade}")
+    public ResponseEntity<EstatisticaLivros> daNacionalidade(@PathVariable("nacionalidade") String nacionalidade){
+        return ResponseEntity.of(estatisticasCatalogoService.daNacionalidade(nacionalidade));
+    }
+
+    @GetMapping("autores/{id}")
+    public ResponseEntity<EstatisticaLivros> doAutor(@PathVariable("id") String id){
+        return ResponseEntity.of(estatisticasCatalogoService.doAutor(UUID.fromString(id)));
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.sergiocostaczr.libraryapi.controller;
+
+import com.github.sergiocostaczr.libraryapi.controller.dto.ErroReposta;
+import com.github.sergiocostaczr.libraryapi.model.GeneroLivro;
+import com.github.sergiocostaczr.libraryapi.model.Livro;
+import com.github.sergiocostaczr.libraryapi.repository.projection.LivroResumo;
+import com.github.sergiocostaczr.libraryapi.service.LivroService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PagedModel;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/livros")
+@RequiredArgsConstructor
+//http://localhost:8080/livros
+public class LivroController {
+
+    private final LivroService livroService;
+
+    // Ex: /livros?genero=FICCAO&titulo=Dom&precoMaximo=50&page=0&size=20&sort=titulo,asc
+    @GetMapping
+    public ResponseEntity<?> pesquisar(@RequestParam(value = "genero", required = false) GeneroLivro genero,
+                                       @RequestParam(value = "titulo", required = false) String titulo,
+                                       @RequestParam(value = "isbn", required = false) String isbn,
+                                       @RequestParam(value = "precoMinimo", required = false) BigDecimal precoMinimo,
+                                       @RequestParam(value = "precoMaximo", required = false) BigDecimal precoMaximo,
+                                       @RequestParam(value = "publicadoAPartirDe", required = false)
+                                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate publicadoAPartirDe,
+                                       @RequestParam(value = "publicadoAte", required = false)
+                                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate publicadoAte,
+                                       @PageableDefault(size = 20, sort = "titulo") Pageable pageable){
+        try {
+            Page<Livro> pagina = livroService.pesquisa(genero, titulo, isbn, precoMinimo, precoMaximo,
+                    publicadoAPartirDe, publicadoAte, pageable);
+
+            return ResponseEntity.ok(new PagedModel<>(pagina.map(LivroController::mapearParaResumo)));
+        } catch (IllegalArgumentException e) {
+            var erroReposta = ErroReposta.reppostaPadrao(e.getMessage());
+            return ResponseEntity.status(erroReposta.status()).body(erroReposta);
+        }
+    }
+
+    // Ex: /livros/busca?q=dom casmurro&page=0&size=20 -> titulos com palavras começando por "dom" e "casmurro"
+    // ou parecidos ("dom casmuro"), do mais relevante para o menos.
+    @GetMapping("busca")
+    public ResponseEntity<?> buscar(@RequestParam("q") String texto,
+                                    @PageableDefault(size = 20) Pageable pageable){
+        try {
+            Page<Livro> pagina = livroService.buscar(texto, pageable);
+            return ResponseEntity.ok(new PagedModel<>(pagina.map(LivroController::mapearParaResumo)));
+        } catch (IllegalArgumentException e) {
+            var erroReposta = ErroReposta.reppostaPadrao(e.getMessage());
+            return ResponseEntity.status(erroReposta.status()).body(erroReposta);
+        }
+    }
+
+    private static LivroResumo mapearParaResumo(Livro livro){
+        return new LivroResumo(
+                livro.getId(),
+                livro.getIsbn(),
+                livro.getTitulo(),
+                livro.getDataPublicacao(),
+                livro.getGenero(),
+                livro.getPreco(),
+                livro.getAutor().getId(),
+                livro.getAutor().getNome());
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.sergiocostaczr.libraryapi.controller;
+
+import com.github.sergiocostaczr.libraryapi.controller.dto.ErroReposta;
+import com.github.sergiocostaczr.libraryapi.controller.dto.OperacaoLoteDTO;
+import com.github.sergiocostaczr.libraryapi.exceptions.OperacaoNaoPermitidaException;
+import com.github.sergiocostaczr.libraryapi.model.GeneroLivro;
+import com.github.sergiocostaczr.libraryapi.model.OperacaoLote;
+import com.github.sergiocostaczr.libraryapi.service.OperacaoLoteLivroService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/livros/operacoes")
+@RequiredArgsConstructor
+//http://localhost:8080/livros/operacoes
+public class OperacaoLoteController {
+
+    private final OperacaoLoteLivroService operacaoLoteLivroService;
+
+    // As operações rodam em segundo plano: retorna 202 com o Location para acompanhar o progresso.
+    @PostMapping("atualizar-data-publicacao")
+    public ResponseEntity<OperacaoLoteDTO> atualizarDataPublicacao(
+            @RequestParam("novaData") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate novaData){
+        return aceita(operacaoLoteLivroService.atualizarDataPublicacao(novaData));
+    }
+
+    @PostMapping("deletar-por-genero")
+    public ResponseEntity<OperacaoLoteDTO> deletarPorGenero(@RequestParam("genero") GeneroLivro genero){
+        return aceita(operacaoLoteLivroService.deletarPorGenero(genero));
+    }
+
+    @GetMapping("{id}")
+    public ResponseEntity<OperacaoLoteDTO> obterStatus(@PathVariable("id") String id){
+        return operacaoLoteLivroService.obterPorId(UUID.fromString(id))
+                .map(OperacaoLoteDTO::mapearParaDTO)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("{id}/retomar")
+    public ResponseEntity<?> retomar(@PathVariable("id") String id){
+        try {
+            Optional<OperacaoLote> operacaoOptional = operacaoLoteLivroService.retomar(UUID.fromString(id));
+
+            if (operacaoOptional.isEmpty()){
+                return ResponseEntity.notFound().build();
+            }
+
+            return ResponseEntity.accepted().body(OperacaoLoteDTO.mapearParaDTO(operacaoOptional.get()));
+        } catch (OperacaoNaoPermitidaException e) {
+            var erroReposta = ErroReposta.reppostaPadrao(e.getMessage());
+            return ResponseEntity.status(erroReposta.status()).body(erroReposta);
+        }
+    }
+
+    private ResponseEntity<OperacaoLoteDTO> aceita(OperacaoLote operacao){
+        URI location = ServletUriComponentsBuilder
+                .fromCurrentContextPath()
+                .path("/livros/operacoes/{id}")
+                .buildAndExpand(operacao.getId())
+                .toUri();
+
+        return ResponseEntity.accepted().location(location).body(OperacaoLoteDTO.mapearParaDTO(operacao));
+    }
+}
@@ -18,4 +18,8 @@ public record AutorDTO(
         autor.setNacionalidade(this.nacionalidade);
         return autor;
     }
+
+    public static AutorDTO mapearParaDTO(Autor autor){
+        return new AutorDTO(autor.getId(), autor.getNome(), autor.getDataNascimento(), autor.getNacionalidade());
+    }
 }
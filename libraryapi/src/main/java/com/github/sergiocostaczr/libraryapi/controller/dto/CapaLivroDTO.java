@@ -0,0 +1,10 @@
+package com.github.sergiocostaczr.libraryapi.controller.dto;
+
+import com.github.sergiocostaczr.libraryapi.service.CapaLivro;
+
+public record CapaLivroDTO(String nomeArquivo, long tamanho, String tipo) {
+
+    public static CapaLivroDTO mapearParaDTO(CapaLivro capa){
+        return new CapaLivroDTO(capa.arquivo().chave(), capa.arquivo().tamanho(), capa.tipo().getTipoConteudo());
+    }
+}
@@ -12,4 +12,10 @@ public record ErroReposta(int status, String mensagem, List<ErroCampo> erros){
     public static ErroReposta conflito(String mensagem){
         return new ErroReposta(HttpStatus.CONFLICT.value(), mensagem, List.of());
     }
+    public static ErroReposta precondicaoFalhou(String mensagem){
+        return new ErroReposta(HttpStatus.PRECONDITION_FAILED.value(), mensagem, List.of());
+    }
+    public static ErroReposta indisponivel(String mensagem){
+        return new ErroReposta(HttpStatus.SERVICE_UNAVAILABLE.value(), mensagem, List.of());
+    }
 }
@@ -0,0 +1,31 @@
+package com.github.sergiocostaczr.libraryapi.controller.dto;
+
+import com.github.sergiocostaczr.libraryapi.model.OperacaoLote;
+import com.github.sergiocostaczr.libraryapi.model.StatusOperacaoLote;
+import com.github.sergiocostaczr.libraryapi.model.TipoOperacaoLote;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record OperacaoLoteDTO(
+        UUID id,
+        TipoOperacaoLote tipo,
+        StatusOperacaoLote status,
+        long processados,
+        UUID ultimoId,
+        String mensagemErro,
+        LocalDateTime dataCadastro,
+        LocalDateTime dataAtualizacao) {
+
+    public static OperacaoLoteDTO mapearParaDTO(OperacaoLote operacao){
+        return new OperacaoLoteDTO(
+                operacao.getId(),
+                operacao.getTipo(),
+                operacao.getStatus(),
+                operacao.getProcessados(),
+                operacao.getUltimoId(),
+                operacao.getMensagemErro(),
+                operacao.getDataCadastro(),
+                operacao.getDataAtualizacao());
+    }
+}
@@ -0,0 +1,7 @@
+package com.github.sergiocostaczr.libraryapi.controller.dto;
+
+import java.util.List;
+
+// proximoCursor == null -> ultima pagina.
+public record PaginaAutorDTO(List<AutorDTO> conteudo, int tamanho, String proximoCursor) {
+}
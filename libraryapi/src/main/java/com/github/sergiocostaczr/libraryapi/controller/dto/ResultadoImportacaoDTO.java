@@ -0,0 +1,13 @@
+package com.github.sergiocostaczr.libraryapi.controller.dto;
+
+import java.util.List;
+
+public record ResultadoImportacaoDTO(int total, int importados, int rejeitados, List<ResultadoLinhaDTO> linhas) {
+
+    public static ResultadoImportacaoDTO de(List<ResultadoLinhaDTO> linhas){
+        int importados = (int) linhas.stream()
+                .filter(linha -> linha.status() == ResultadoLinhaDTO.StatusLinha.IMPORTADO)
+                .count();
+        return new ResultadoImportacaoDTO(linhas.size(), importados, linhas.size() - importados, linhas);
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.sergiocostaczr.libraryapi.controller.dto;
+
+import java.util.UUID;
+
+public record ResultadoLinhaDTO(int linha, StatusLinha status, UUID id, String mensagem) {
+
+    public enum StatusLinha {
+        IMPORTADO,
+        DUPLICADO,
+        INVALIDO,
+        ERRO
+    }
+
+    public static ResultadoLinhaDTO importado(int linha, UUID id){
+        return new ResultadoLinhaDTO(linha, StatusLinha.IMPORTADO, id, null);
+    }
+
+    public static ResultadoLinhaDTO rejeitado(int linha, StatusLinha status, String mensagem){
+        return new ResultadoLinhaDTO(linha, status, null, mensagem);
+    }
+}
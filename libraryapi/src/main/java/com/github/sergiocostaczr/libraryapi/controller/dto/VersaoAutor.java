@@ -0,0 +1,24 @@
+package com.github.sergiocostaczr.libraryapi.controller.dto;
+
+import com.github.sergiocostaczr.libraryapi.model.Autor;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// Só os campos que mudam a cada alteração do autor: base do ETag e do Last-Modified (GET condicional).
+public record VersaoAutor(Integer versao, LocalDateTime dataAtualizacao, LocalDateTime dataCadastro) {
+
+    public static VersaoAutor de(Autor autor){
+        return new VersaoAutor(autor.getVersao(), autor.getDataAtualizacao(), autor.getDataCadastro());
+    }
+
+    public String etag(){
+        return "\"" + versao + "\"";
+    }
+
+    // Epoch em milissegundos, -1 quando o autor não tem data (registros anteriores à auditoria).
+    public long ultimaAlteracao(){
+        LocalDateTime data = dataAtualizacao != null ? dataAtualizacao : dataCadastro;
+        return data == null ? -1 : data.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
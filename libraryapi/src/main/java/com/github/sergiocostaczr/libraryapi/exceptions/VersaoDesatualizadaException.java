@@ -0,0 +1,7 @@
+package com.github.sergiocostaczr.libraryapi.exceptions;
+
+public class VersaoDesatualizadaException extends RuntimeException {
+    public VersaoDesatualizadaException(String message) {
+        super(message);
+    }
+}
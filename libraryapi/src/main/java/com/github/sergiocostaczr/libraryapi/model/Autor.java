@@ -4,6 +4,9 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.EmbeddedColumnNaming;
 import org.springframework.cglib.core.Local;
 import org.springframework.context.annotation.DependsOn;
@@ -17,11 +20,18 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "autor", schema = "public")
+@Table(name = "autor", schema = "public", uniqueConstraints = {
+        // Mesmo indice de comandos-sql.txt: garante a unicidade sem consulta antes do insert/update.
+        @UniqueConstraint(name = "uk_autor_nome_nascimento_nacionalidade",
+                columnNames = {"nome", "data_nascimento", "nacionalidade"})
+})
 @Getter
 @Setter
 @ToString(exclude = "livros")
 @EntityListeners(AuditingEntityListener.class)
+@Cacheable // cache de segundo nivel: findById/getReference não vão ao banco se o autor estiver na região.
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "autor")
+@BatchSize(size = 50) // proxies de autor (Livro.autor lazy) são inicializados de 50 em 50: where id in (...)
 public class Autor {
 
     @Id //PK
@@ -39,6 +49,7 @@ public class Autor {
     private String nacionalidade;
 
     @OneToMany(mappedBy = "autor",fetch = FetchType.LAZY) //Entidade não possui a coluna, apenas o mapaeamento OneToMany.
+    @BatchSize(size = 50) // carrega os livros de varios autores numa consulta so.
     private List<Livro> livros;
 
     // Toda vez q for persistir coloca a data atual.
@@ -53,6 +64,11 @@ public class Autor {
 
     private UUID idUsuario;
 
+    // Lock otimista: incrementada a cada update, um update com versão antiga não altera nada.
+    @Version
+    @Column(name = "versao", nullable = false)
+    private Integer versao;
+
     public Autor() {
     }
 }
@@ -10,11 +10,22 @@ import java.time.LocalDate;
 import java.util.UUID;
 
 @Entity
-@Table(name = "livro")
+@Table(name = "livro", indexes = {
+        // Mesmos indices de comandos-sql.txt, para que o ddl gerado (testes) tenha o mesmo plano.
+        @Index(name = "idx_livro_genero_titulo", columnList = "genero, titulo"),
+        @Index(name = "idx_livro_id_autor", columnList = "id_autor"),
+        @Index(name = "idx_livro_data_publicacao", columnList = "data_publicacao"),
+        @Index(name = "idx_livro_isbn", columnList = "isbn"),
+        @Index(name = "idx_livro_preco", columnList = "preco")
+})
+// Fetch plan para listagens que exibem o autor: carrega livro e autor no mesmo select (join).
+@NamedEntityGraph(name = Livro.GRAFO_COM_AUTOR, attributeNodes = @NamedAttributeNode("autor"))
 @Data //@Getter @Setter @ToString @EqualAndHashCode @RequiredArgsConstructor
 @ToString(exclude = "autor")
 public class Livro {
 
+    public static final String GRAFO_COM_AUTOR = "Livro.comAutor";
+
     @Id
     @Column(name = "id")
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -43,5 +54,9 @@ public class Livro {
     @JoinColumn(name = "id_autor")
     private Autor autor;
 
+    // Chave da capa no armazenamento (capas/hh/sha256.ext, ver CapaLivroService). null = sem capa.
+    @Column(name = "nome_arquivo_capa", length = 120)
+    private String nomeArquivoCapa;
+
 
 }
@@ -0,0 +1,75 @@
+package com.github.sergiocostaczr.libraryapi.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Operação em massa sobre livros executada em lotes ordenados por id.
+ * ultimoId é o checkpoint: gravado na mesma transação de cada lote, a retomada continua de onde parou.
+ */
+@Entity
+@Table(name = "operacao_lote")
+@Getter
+@Setter
+@ToString
+@EntityListeners(AuditingEntityListener.class)
+public class OperacaoLote {
+
+    @Id
+    @Column(name = "id")
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", length = 30, nullable = false)
+    private TipoOperacaoLote tipo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20, nullable = false)
+    private StatusOperacaoLote status;
+
+    // Parametros da operação (depende do tipo).
+    @Enumerated(EnumType.STRING)
+    @Column(name = "genero", length = 30)
+    private GeneroLivro genero;
+
+    @Column(name = "nova_data_publicacao")
+    private LocalDate novaDataPublicacao;
+
+    @Column(name = "tamanho_lote", nullable = false)
+    private int tamanhoLote;
+
+    @Column(name = "ultimo_id")
+    private UUID ultimoId;
+
+    @Column(name = "processados", nullable = false)
+    private long processados;
+
+    @Column(name = "mensagem_erro", length = 500)
+    private String mensagemErro;
+
+    // Instancia da aplicação que está executando (ou vai executar) a operação, e o ultimo sinal de vida dela.
+    // Sem sinal por app.operacao-lote.tempo-sem-sinal a operação é considerada interrompida.
+    @Column(name = "instancia", length = 100)
+    private String instancia;
+
+    @Column(name = "ultimo_sinal")
+    private LocalDateTime ultimoSinal;
+
+    @CreatedDate
+    @Column(name = "data_cadastro")
+    private LocalDateTime dataCadastro;
+
+    @LastModifiedDate
+    @Column(name = "data_atualizacao")
+    private LocalDateTime dataAtualizacao;
+}
@@ -0,0 +1,9 @@
+package com.github.sergiocostaczr.libraryapi.model;
+
+public enum StatusOperacaoLote {
+    PENDENTE,
+    EXECUTANDO,
+    CONCLUIDA,
+    FALHOU,
+    INTERROMPIDA // aplicação parou no meio da execução, pode ser retomada do ultimo checkpoint.
+}
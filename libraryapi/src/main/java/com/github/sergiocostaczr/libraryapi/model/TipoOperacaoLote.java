@@ -0,0 +1,6 @@
+package com.github.sergiocostaczr.libraryapi.model;
+
+public enum TipoOperacaoLote {
+    ATUALIZAR_DATA_PUBLICACAO,
+    DELETAR_POR_GENERO
+}
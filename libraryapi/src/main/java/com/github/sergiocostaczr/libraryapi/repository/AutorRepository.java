@@ -1,13 +1,28 @@
 package com.github.sergiocostaczr.libraryapi.repository;
 
+import com.github.sergiocostaczr.libraryapi.config.CacheConfiguration;
 import com.github.sergiocostaczr.libraryapi.model.Autor;
+import com.github.sergiocostaczr.libraryapi.repository.projection.ChaveAutor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface AutorRepository extends JpaRepository<Autor, UUID> {
@@ -20,4 +35,103 @@ public interface AutorRepository extends JpaRepository<Autor, UUID> {
 
     Optional<Autor> findByNomeAndDataNascimentoAndNacionalidade(String nome, LocalDate dataNascimento, String nacionalidade);
 
+    // Consultas em cache: só os ids, as entidades são montadas pelo AutorService a partir do cache de segundo nivel.
+    // Invalidados pelo AutorService a cada salvar/atualizar/deletar.
+    @Cacheable(CacheConfiguration.AUTORES_POR_NOME)
+    @Query("select a.id from Autor a where a.nome = :nome")
+    List<UUID> buscarIdsPorNome(@Param("nome") String nome);
+
+    @Cacheable(CacheConfiguration.AUTORES_POR_NACIONALIDADE)
+    @Query("select a.id from Autor a where a.nacionalidade = :nacionalidade")
+    List<UUID> buscarIdsPorNacionalidade(@Param("nacionalidade") String nacionalidade);
+
+    @Cacheable(CacheConfiguration.AUTORES_POR_NOME_E_NACIONALIDADE)
+    @Query("select a.id from Autor a where a.nome = :nome and a.nacionalidade = :nacionalidade")
+    List<UUID> buscarIdsPorNomeENacionalidade(@Param("nome") String nome, @Param("nacionalidade") String nacionalidade);
+
+    @Cacheable(CacheConfiguration.AUTOR_POR_DADOS_UNICOS)
+    @Query("""
+            select a.id from Autor a
+            where a.nome = :nome and a.dataNascimento = :dataNascimento and a.nacionalidade = :nacionalidade
+            """)
+    Optional<UUID> buscarIdPorDadosUnicos(@Param("nome") String nome,
+                                          @Param("dataNascimento") LocalDate dataNascimento,
+                                          @Param("nacionalidade") String nacionalidade);
+
+    // Autores com os livros no mesmo select (left join fetch), para listagens autor -> livros.
+    @EntityGraph(attributePaths = "livros")
+    @Query("select distinct a from Autor a order by a.nome")
+    List<Autor> listarComLivros();
+
+    /**
+     * Busca por nome (TermoBusca). buscarPorPrefixo: cada palavra como prefixo (tsvector), ordenada por ts_rank.
+     * buscarAproximado: similaridade de trigramas (pg_trgm, "machdo assis" -> "Machado de Assis"), mais cara,
+     * usada pelo AutorService só quando a busca por prefixo não encontra nada. Indices GIN em comandos-sql.txt.
+     */
+    @Query(value = """
+            select a.* from autor a
+            where to_tsvector('simple', a.nome) @@ to_tsquery('simple', :prefixos)
+            order by ts_rank(to_tsvector('simple', a.nome), to_tsquery('simple', :prefixos)) desc, a.id
+            """,
+            countQuery = """
+            select count(*) from autor a
+            where to_tsvector('simple', a.nome) @@ to_tsquery('simple', :prefixos)
+            """,
+            nativeQuery = true)
+    Page<Autor> buscarPorPrefixo(@Param("prefixos") String prefixos, Pageable pageable);
+
+    @Query(value = """
+            select a.* from autor a
+            where :termo <% a.nome
+            order by word_similarity(:termo, a.nome) desc, a.id
+            """,
+            countQuery = """
+            select count(*) from autor a
+            where :termo <% a.nome
+            """,
+            nativeQuery = true)
+    Page<Autor> buscarAproximado(@Param("termo") String termo, Pageable pageable);
+
+    // versao == null -> atualiza sem conferir a versão. Retorna a quantidade de linhas alteradas (0 ou 1).
+    @Modifying
+    @Query("""
+            update Autor a
+            set a.nome = :nome, a.dataNascimento = :dataNascimento, a.nacionalidade = :nacionalidade,
+                a.dataAtualizacao = :dataAtualizacao, a.versao = a.versao + 1
+            where a.id = :id
+            and (:versao is null or a.versao = :versao)
+            """)
+    int atualizar(@Param("id") UUID id,
+                  @Param("nome") String nome,
+                  @Param("dataNascimento") LocalDate dataNascimento,
+                  @Param("nacionalidade") String nacionalidade,
+                  @Param("dataAtualizacao") LocalDateTime dataAtualizacao,
+                  @Param("versao") Integer versao);
+
+    @Modifying
+    @Query("""
+            delete from Autor a
+            where a.id = :id
+            and not exists (select 1 from Livro l where l.autor = a)
+            """)
+    int deletarSemLivros(@Param("id") UUID id);
+
+    // Verificação de duplicados da importação em lote: só as colunas da chave, sem carregar a entidade.
+    List<ChaveAutor> findByNomeIn(Collection<String> nomes);
+
+    /**
+     * Cursor no banco: o driver busca as linhas em lotes de fetchSize em vez de carregar o resultado inteiro.
+     * Precisa ser consumido dentro de uma transação e o Stream precisa ser fechado.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select a from Autor a
+            where (:nome is null or a.nome = :nome)
+            and (:nacionalidade is null or a.nacionalidade = :nacionalidade)
+            """)
+    Stream<Autor> transmitirPorFiltro(@Param("nome") String nome, @Param("nacionalidade") String nacionalidade);
+
 }
@@ -3,8 +3,18 @@ package com.github.sergiocostaczr.libraryapi.repository;
 import com.github.sergiocostaczr.libraryapi.model.Autor;
 import com.github.sergiocostaczr.libraryapi.model.GeneroLivro;
 import com.github.sergiocostaczr.libraryapi.model.Livro;
+import com.github.sergiocostaczr.libraryapi.repository.projection.AgregadoLivros;
+import com.github.sergiocostaczr.libraryapi.repository.projection.LivroResumo;
+import com.github.sergiocostaczr.libraryapi.repository.projection.NacionalidadeAutor;
 import org.hibernate.annotations.ListIndexBase;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -12,14 +22,16 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
  * @see LivroRepositoryTest
  *
  */
-public interface LivroRepository extends JpaRepository<Livro, UUID> {
+public interface LivroRepository extends JpaRepository<Livro, UUID>, JpaSpecificationExecutor<Livro> {
 
     //https://docs.spring.io/spring-data/jpa/reference/jpa/query-methods.html
 
@@ -30,6 +42,31 @@ public interface LivroRepository extends JpaRepository<Livro, UUID> {
     //getAutor
 
     List<Livro> findByTitulo(String titulo);
+
+    // Mesmas buscas do AutorRepository, no titulo.
+    @Query(value = """
+            select l.* from livro l
+            where to_tsvector('simple', l.titulo) @@ to_tsquery('simple', :prefixos)
+            order by ts_rank(to_tsvector('simple', l.titulo), to_tsquery('simple', :prefixos)) desc, l.id
+            """,
+            countQuery = """
+            select count(*) from livro l
+            where to_tsvector('simple', l.titulo) @@ to_tsquery('simple', :prefixos)
+            """,
+            nativeQuery = true)
+    Page<Livro> buscarPorPrefixo(@Param("prefixos") String prefixos, Pageable pageable);
+
+    @Query(value = """
+            select l.* from livro l
+            where :termo <% l.titulo
+            order by word_similarity(:termo, l.titulo) desc, l.id
+            """,
+            countQuery = """
+            select count(*) from livro l
+            where :termo <% l.titulo
+            """,
+            nativeQuery = true)
+    Page<Livro> buscarAproximado(@Param("termo") String termo, Pageable pageable);
     //get'T'itulo
 
     // select * from livro where isbn = ?
@@ -48,6 +85,30 @@ public interface LivroRepository extends JpaRepository<Livro, UUID> {
     @Query(" select l from Livro as l order by l.titulo, l.preco") //l.'titulo' propiedade que declaramos na entidade
     List<Livro> listaTodosOrdenadoPorTiuloEPreco();
 
+    // Mesma listagem, mas com o autor no mesmo select (evita um select por livro ao acessar getAutor()).
+    @EntityGraph(Livro.GRAFO_COM_AUTOR)
+    @Query(" select l from Livro as l order by l.titulo, l.preco")
+    List<Livro> listaTodosComAutorOrdenadoPorTituloEPreco();
+
+    // select * from livro where id_autor in (...) -> livros de varios autores, ja com o autor carregado
+    @EntityGraph(Livro.GRAFO_COM_AUTOR)
+    List<Livro> findByAutorIn(Collection<Autor> autores);
+
+    /**
+     *  select l.id, l.isbn, l.titulo, ..., a.id, a.nome
+     *  from livro l
+     *  join autor a on a.id = l.id_autor
+     *  order by l.titulo, l.preco
+     */
+    @Query("""
+            select new com.github.sergiocostaczr.libraryapi.repository.projection.LivroResumo(
+                l.id, l.isbn, l.titulo, l.dataPublicacao, l.genero, l.preco, a.id, a.nome)
+            from Livro l
+            join l.autor a
+            order by l.titulo, l.preco
+            """)
+    List<LivroResumo> listarResumosOrdenadoPorTituloEPreco();
+
     /**
      *  select a.*
      *  from livro l
@@ -73,15 +134,19 @@ public interface LivroRepository extends JpaRepository<Livro, UUID> {
 
 
     // named parameters -> parametros nomeados
-    @Query("select l from Livro l where l.genero = :genero order by :paramOrdenacao")
-    List<Livro> findByGenero(@Param("genero") GeneroLivro generoLivro,
-                             @Param("paramOrdenacao") String nomeDaPropiedade);
+    // Ordenação não pode ser parametro da query ("order by :param" ordena por uma constante),
+    // o Sort é que monta o order by: Sort.by("dataPublicacao")
+    @Query("select l from Livro l where l.genero = :genero")
+    List<Livro> findByGenero(@Param("genero") GeneroLivro generoLivro, Sort ordenacao);
 
     // positional parameters
-    @Query("select l from Livro l where l.genero = ?1 order by ?2")
-    List<Livro> findByGeneroPositionalParameters(GeneroLivro generoLivro,
+    @Query("select l from Livro l where l.genero = ?1")
+    List<Livro> findByGeneroPositionalParameters(GeneroLivro generoLivro, Sort ordenacao);
 
-                                                 String nomeDaPropiedade);
+    // Pesquisa dinamica (LivroSpecs) ja trazendo o autor, para a listagem não fazer um select por livro.
+    @Override
+    @EntityGraph(Livro.GRAFO_COM_AUTOR)
+    Page<Livro> findAll(Specification<Livro> specification, Pageable pageable);
     @Transactional
     @Modifying
     @Query( "delete from Livro where genero = ?1")
@@ -95,6 +160,75 @@ public interface LivroRepository extends JpaRepository<Livro, UUID> {
 
     boolean existsByAutor(Autor autor);
 
+    // Capa do livro (CapaLivroService): só a chave do arquivo, sem carregar a entidade.
+    @Query("select l.nomeArquivoCapa from Livro l where l.id = :id")
+    Optional<String> buscarNomeArquivoCapa(@Param("id") UUID id);
+
+    @Transactional
+    @Modifying
+    @Query("update Livro set nomeArquivoCapa = :nomeArquivo where id = :id")
+    int atualizarNomeArquivoCapa(@Param("id") UUID id, @Param("nomeArquivo") String nomeArquivo);
+
+    // Operações em lote (OperacaoLoteLivroService): percorre a tabela em ordem de id, um lote por transação.
+    // select id from livro where id > ? order by id limit ?
+    @Query("select l.id from Livro l where l.id > :ultimoId order by l.id")
+    List<UUID> buscarIdsApos(@Param("ultimoId") UUID ultimoId, Limit limite);
+
+    @Query("select l.id from Livro l where l.genero = :genero and l.id > :ultimoId order by l.id")
+    List<UUID> buscarIdsPorGeneroApos(@Param("genero") GeneroLivro genero, @Param("ultimoId") UUID ultimoId, Limit limite);
+
+    @Modifying
+    @Query("update Livro set dataPublicacao = :novaData where id in :ids")
+    int updateDataPublicacaoPorIds(@Param("novaData") LocalDate novaData, @Param("ids") List<UUID> ids);
+
+    @Modifying
+    @Query("delete from Livro where id in :ids")
+    int deleteByIdIn(@Param("ids") List<UUID> ids);
+
+    // Estatisticas do catalogo (EstatisticasCatalogoService): recalculo completo e de um unico grupo.
+    String AGREGADOS_GENERO = """
+            select new com.github.sergiocostaczr.libraryapi.repository.projection.AgregadoLivros(
+                l.genero, count(l), count(l.preco), sum(l.preco), min(l.preco), max(l.preco),
+                min(l.dataPublicacao), max(l.dataPublicacao))
+            from Livro l
+            """;
+    String AGREGADOS_NACIONALIDADE = """
+            select new com.github.sergiocostaczr.libraryapi.repository.projection.AgregadoLivros(
+                a.nacionalidade, count(l), count(l.preco), sum(l.preco), min(l.preco), max(l.preco),
+                min(l.dataPublicacao), max(l.dataPublicacao))
+            from Livro l join l.autor a
+            """;
+    String AGREGADOS_AUTOR = """
+            select new com.github.sergiocostaczr.libraryapi.repository.projection.AgregadoLivros(
+                l.autor.id, count(l), count(l.preco), sum(l.preco), min(l.preco), max(l.preco),
+                min(l.dataPublicacao), max(l.dataPublicacao))
+            from Livro l
+            """;
+
+    @Query(AGREGADOS_GENERO + " group by l.genero")
+    List<AgregadoLivros> agregarPorGenero();
+
+    @Query(AGREGADOS_GENERO + " where l.genero = :genero group by l.genero")
+    Optional<AgregadoLivros> agregarDoGenero(@Param("genero") GeneroLivro genero);
+
+    @Query(AGREGADOS_NACIONALIDADE + " group by a.nacionalidade")
+    List<AgregadoLivros> agregarPorNacionalidade();
+
+    @Query(AGREGADOS_NACIONALIDADE + " where a.nacionalidade = :nacionalidade group by a.nacionalidade")
+    Optional<AgregadoLivros> agregarDaNacionalidade(@Param("nacionalidade") String nacionalidade);
+
+    @Query(AGREGADOS_AUTOR + " group by l.autor.id")
+    List<AgregadoLivros> agregarPorAutor();
+
+    @Query(AGREGADOS_AUTOR + " where l.autor.id = :idAutor group by l.autor.id")
+    Optional<AgregadoLivros> agregarDoAutor(@Param("idAutor") UUID idAutor);
+
+    @Query("""
+            select distinct new com.github.sergiocostaczr.libraryapi.repository.projection.NacionalidadeAutor(a.id, a.nacionalidade)
+            from Livro l join l.autor a
+            """)
+    List<NacionalidadeAutor> listarNacionalidadesDosAutores();
+
 
 
 
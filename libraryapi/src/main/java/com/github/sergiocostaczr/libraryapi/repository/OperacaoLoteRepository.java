@@ -0,0 +1,88 @@
+package com.github.sergiocostaczr.libraryapi.repository;
+
+import com.github.sergiocostaczr.libraryapi.model.OperacaoLote;
+import com.github.sergiocostaczr.libraryapi.model.StatusOperacaoLote;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * As mudanças de status são updates condicionais (where status/instancia): entre duas instancias,
+ * ou duas requisições, só uma consegue mudar a linha, a outra recebe 0.
+ */
+public interface OperacaoLoteRepository extends JpaRepository<OperacaoLote, UUID> {
+
+    // Retomada: FALHOU/INTERROMPIDA -> PENDENTE, passando a pertencer a esta instancia.
+    @Transactional
+    @Modifying
+    @Query("""
+            update OperacaoLote set status = com.github.sergiocostaczr.libraryapi.model.StatusOperacaoLote.PENDENTE,
+                instancia = :instancia, ultimoSinal = :agora, mensagemErro = null, dataAtualizacao = :agora
+            where id = :id and status in :statusRetomaveis
+            """)
+    int retomar(@Param("id") UUID id, @Param("statusRetomaveis") Collection<StatusOperacaoLote> statusRetomaveis,
+                @Param("instancia") String instancia, @Param("agora") LocalDateTime agora);
+
+    // PENDENTE -> EXECUTANDO, só se ainda pertence a esta instancia.
+    @Transactional
+    @Modifying
+    @Query("""
+            update OperacaoLote set status = com.github.sergiocostaczr.libraryapi.model.StatusOperacaoLote.EXECUTANDO,
+                ultimoSinal = :agora, dataAtualizacao = :agora
+            where id = :id and instancia = :instancia
+                and status = com.github.sergiocostaczr.libraryapi.model.StatusOperacaoLote.PENDENTE
+            """)
+    int iniciarExecucao(@Param("id") UUID id, @Param("instancia") String instancia, @Param("agora") LocalDateTime agora);
+
+    // Checkpoint do lote, na transação do lote. 0 = a operação deixou de ser desta instancia (marcada como interrompida).
+    @Modifying
+    @Query("""
+            update OperacaoLote set ultimoId = :ultimoId, processados = :processados, status = :status,
+                ultimoSinal = :agora, dataAtualizacao = :agora
+            where id = :id and instancia = :instancia
+                and status = com.github.sergiocostaczr.libraryapi.model.StatusOperacaoLote.EXECUTANDO
+            """)
+    int registrarLote(@Param("id") UUID id, @Param("instancia") String instancia, @Param("ultimoId") UUID ultimoId,
+                      @Param("processados") long processados, @Param("status") StatusOperacaoLote status,
+                      @Param("agora") LocalDateTime agora);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update OperacaoLote set status = :status, mensagemErro = :mensagem, dataAtualizacao = :agora
+            where id = :id and instancia = :instancia
+                and status = com.github.sergiocostaczr.libraryapi.model.StatusOperacaoLote.EXECUTANDO
+            """)
+    int finalizar(@Param("id") UUID id, @Param("instancia") String instancia, @Param("status") StatusOperacaoLote status,
+                  @Param("mensagem") String mensagem, @Param("agora") LocalDateTime agora);
+
+    // Sinal de vida das operações desta instancia (na fila ou executando).
+    @Transactional
+    @Modifying
+    @Query("""
+            update OperacaoLote set ultimoSinal = :agora
+            where instancia = :instancia and status in (
+                com.github.sergiocostaczr.libraryapi.model.StatusOperacaoLote.PENDENTE,
+                com.github.sergiocostaczr.libraryapi.model.StatusOperacaoLote.EXECUTANDO)
+            """)
+    int renovarSinal(@Param("instancia") String instancia, @Param("agora") LocalDateTime agora);
+
+    // Operações cuja instancia parou de dar sinal (caiu ou foi desligada no meio).
+    @Transactional
+    @Modifying
+    @Query("""
+            update OperacaoLote set status = com.github.sergiocostaczr.libraryapi.model.StatusOperacaoLote.INTERROMPIDA,
+                mensagemErro = 'Instancia parou durante a execução', dataAtualizacao = :agora
+            where status in (
+                com.github.sergiocostaczr.libraryapi.model.StatusOperacaoLote.PENDENTE,
+                com.github.sergiocostaczr.libraryapi.model.StatusOperacaoLote.EXECUTANDO)
+                and (ultimoSinal is null or ultimoSinal < :limite)
+            """)
+    int marcarSemSinal(@Param("limite") LocalDateTime limite, @Param("agora") LocalDateTime agora);
+}
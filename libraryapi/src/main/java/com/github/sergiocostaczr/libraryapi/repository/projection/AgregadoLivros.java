@@ -0,0 +1,16 @@
+package com.github.sergiocostaczr.libraryapi.repository.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Resultado dos "group by" de estatisticas: chave do grupo (genero, nacionalidade ou id do autor) + agregados.
+public record AgregadoLivros(
+        Object chave,
+        Long quantidade,
+        Long quantidadeComPreco,
+        BigDecimal somaPreco,
+        BigDecimal precoMinimo,
+        BigDecimal precoMaximo,
+        LocalDate primeiraPublicacao,
+        LocalDate ultimaPublicacao) {
+}
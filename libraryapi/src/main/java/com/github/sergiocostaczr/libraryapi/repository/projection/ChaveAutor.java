@@ -0,0 +1,7 @@
+package com.github.sergiocostaczr.libraryapi.repository.projection;
+
+import java.time.LocalDate;
+
+// Projeção com as colunas que identificam um autor (nome, data_nascimento, nacionalidade).
+public record ChaveAutor(String nome, LocalDate dataNascimento, String nacionalidade) {
+}
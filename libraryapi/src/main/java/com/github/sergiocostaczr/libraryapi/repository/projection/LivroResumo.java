@@ -0,0 +1,19 @@
+package com.github.sergiocostaczr.libraryapi.repository.projection;
+
+import com.github.sergiocostaczr.libraryapi.model.GeneroLivro;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+// Projeção de listagem: livro + nome do autor numa unica consulta (join), sem carregar as entidades.
+public record LivroResumo(
+        UUID id,
+        String isbn,
+        String titulo,
+        LocalDate dataPublicacao,
+        GeneroLivro genero,
+        BigDecimal preco,
+        UUID idAutor,
+        String nomeAutor) {
+}
@@ -0,0 +1,6 @@
+package com.github.sergiocostaczr.libraryapi.repository.projection;
+
+import java.util.UUID;
+
+public record NacionalidadeAutor(UUID idAutor, String nacionalidade) {
+}
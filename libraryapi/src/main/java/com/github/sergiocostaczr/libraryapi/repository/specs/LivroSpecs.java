@@ -0,0 +1,62 @@
+package com.github.sergiocostaczr.libraryapi.repository.specs;
+
+import com.github.sergiocostaczr.libraryapi.model.GeneroLivro;
+import com.github.sergiocostaczr.libraryapi.model.Livro;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Filtros da pesquisa de livros. Cada metodo retorna um pedaço do where,
+ * combinados com and() no LivroService conforme os parametros informados.
+ */
+public class LivroSpecs {
+
+    private static final char ESCAPE = '\\';
+
+    private LivroSpecs() {
+    }
+
+    // where genero = ?
+    public static Specification<Livro> generoEqual(GeneroLivro genero){
+        return (root, query, cb) -> cb.equal(root.get("genero"), genero);
+    }
+
+    // where titulo like 'prefixo%' -> usa o indice de titulo (não funciona com '%prefixo').
+    public static Specification<Livro> tituloComecaCom(String prefixo){
+        return (root, query, cb) -> cb.like(root.get("titulo"), escaparLike(prefixo) + "%", ESCAPE);
+    }
+
+    // where isbn = ?
+    public static Specification<Livro> isbnEqual(String isbn){
+        return (root, query, cb) -> cb.equal(root.get("isbn"), isbn);
+    }
+
+    // where preco >= ?
+    public static Specification<Livro> precoMaiorOuIgual(BigDecimal preco){
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("preco"), preco);
+    }
+
+    // where preco <= ?
+    public static Specification<Livro> precoMenorOuIgual(BigDecimal preco){
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("preco"), preco);
+    }
+
+    // where data_publicacao >= ?
+    public static Specification<Livro> publicadoAPartirDe(LocalDate data){
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("dataPublicacao"), data);
+    }
+
+    // where data_publicacao <= ?
+    public static Specification<Livro> publicadoAte(LocalDate data){
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("dataPublicacao"), data);
+    }
+
+    private static String escaparLike(String valor){
+        return valor
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
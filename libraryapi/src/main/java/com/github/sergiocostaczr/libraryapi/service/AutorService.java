@@ -1,72 +1,206 @@
 package com.github.sergiocostaczr.libraryapi.service;
 
+import com.github.sergiocostaczr.libraryapi.config.CacheConfiguration;
 import com.github.sergiocostaczr.libraryapi.exceptions.OperacaoNaoPermitidaException;
+import com.github.sergiocostaczr.libraryapi.exceptions.RegistroDuplicadoException;
+import com.github.sergiocostaczr.libraryapi.exceptions.VersaoDesatualizadaException;
 import com.github.sergiocostaczr.libraryapi.model.Autor;
 import com.github.sergiocostaczr.libraryapi.repository.AutorRepository;
 import com.github.sergiocostaczr.libraryapi.repository.LivroRepository;
 import com.github.sergiocostaczr.libraryapi.validator.AutorValidator;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor // Gera construtor com as variaveis final.
+@Timed("autor.service") // um timer por metodo (tags class/method)
 public class AutorService {
 
+    public static final int TAMANHO_PAGINA_PADRAO = 20;
+    public static final int TAMANHO_PAGINA_MAXIMO = 100;
+
     private final AutorRepository autorRepository;
     private final LivroRepository livroRepository;
     private final AutorValidator validator;
-
-
+    private final EntityManager entityManager;
+
+    // Qualquer escrita invalida as consultas em cache, pois um autor pode entrar ou sair de qualquer lista.
+    @CacheEvict(cacheNames = {
+            CacheConfiguration.AUTORES_POR_NOME,
+            CacheConfiguration.AUTORES_POR_NACIONALIDADE,
+            CacheConfiguration.AUTORES_POR_NOME_E_NACIONALIDADE,
+            CacheConfiguration.AUTOR_POR_DADOS_UNICOS}, allEntries = true)
     public Autor salvar (Autor autor){
         validator.validar(autor);
-        return autorRepository.save(autor);
+        try {
+            return autorRepository.saveAndFlush(autor);
+        } catch (DataIntegrityViolationException e) {
+            // Outro cadastro igual entrou entre a validação e o insert: barrado pelo indice unico.
+            throw traduzirViolacao(e);
+        }
     }
 
-    public void atualizar (Autor autor){
+    /**
+     * Atualização em um unico statement: update ... where id = ? [and versao = ?].
+     * Duplicidade é barrada pelo indice unico (nome, data_nascimento, nacionalidade), sem select antes.
+     *
+     * @return false se o autor não existe.
+     */
+    @CacheEvict(cacheNames = {
+            CacheConfiguration.AUTORES_POR_NOME,
+            CacheConfiguration.AUTORES_POR_NACIONALIDADE,
+            CacheConfiguration.AUTORES_POR_NOME_E_NACIONALIDADE,
+            CacheConfiguration.AUTOR_POR_DADOS_UNICOS}, allEntries = true)
+    @Transactional
+    public boolean atualizar (Autor autor){
         if (autor.getId() == null){
             throw new IllegalArgumentException("Para atualizar é necessario que autor ja esteja salvo na base");
         }
-        validator.validar(autor);
-        autorRepository.save(autor);
-    }
 
+        int atualizados;
+        try {
+            atualizados = autorRepository.atualizar(autor.getId(), autor.getNome(), autor.getDataNascimento(),
+                    autor.getNacionalidade(), LocalDateTime.now(), autor.getVersao());
+        } catch (DataIntegrityViolationException e) {
+            throw traduzirViolacao(e);
+        }
 
+        if (atualizados == 0 && autor.getVersao() != null && autorRepository.existsById(autor.getId())){
+            throw new VersaoDesatualizadaException("Autor foi alterado por outra requisição, consulte novamente");
+        }
+        return atualizados > 0;
+    }
 
+    // Atendido pelo cache de segundo nivel do Hibernate (@Cache em Autor): cada chamada recebe uma instancia propria,
+    // montada do estado guardado, e sem conexão do pool quando o autor está na região.
     public Optional<Autor> obterPorId(UUID uuid){
         return autorRepository.findById(uuid);
     }
 
-
-    public void deletar(Autor autor) {
-        if(possuiLivro(autor)){
+    /**
+     * delete from autor where id = ? and not exists (livros do autor) -> um statement no caminho normal.
+     * Só quando nada foi apagado é feita uma consulta para diferenciar "não existe" de "possui livros".
+     *
+     * @return false se o autor não existe.
+     */
+    @CacheEvict(cacheNames = {
+            CacheConfiguration.AUTORES_POR_NOME,
+            CacheConfiguration.AUTORES_POR_NACIONALIDADE,
+            CacheConfiguration.AUTORES_POR_NOME_E_NACIONALIDADE,
+            CacheConfiguration.AUTOR_POR_DADOS_UNICOS}, allEntries = true)
+    @Transactional
+    public boolean deletar(UUID id) {
+        if (autorRepository.deletarSemLivros(id) > 0){
+            return true;
+        }
+        if (autorRepository.existsById(id)){
             throw new OperacaoNaoPermitidaException("Não é permitido autor que possui livros cadastrados");
         }
-        autorRepository.delete(autor);
+        return false;
     }
 
     public List<Autor> pesquisa(String nome, String nacionalidade){
 
         if (nome != null && nacionalidade != null){
-            return  autorRepository.findByNomeAndNacionalidade(nome,nacionalidade);
+            return  carregar(autorRepository.buscarIdsPorNomeENacionalidade(nome,nacionalidade));
         }
 
         if (nome!= null){
-            return autorRepository.findByNome(nome);
+            return carregar(autorRepository.buscarIdsPorNome(nome));
         }
 
         if (nacionalidade != null){
-        return autorRepository.findByNacionalidade(nacionalidade);
+        return carregar(autorRepository.buscarIdsPorNacionalidade(nacionalidade));
         }
 
         return autorRepository.findAll();
     }
 
+    // O cache das consultas guarda só ids: as entidades vêm do cache de segundo nivel (where id in (...) para as
+    // que não estão na região) e cada chamada recebe instancias proprias, ligadas à sua sessão.
+    private List<Autor> carregar(List<UUID> ids){
+        return entityManager.unwrap(Session.class).findMultiple(Autor.class, ids).stream()
+                .filter(Objects::nonNull) // removido depois que a consulta entrou no cache
+                .toList();
+    }
+
+    // Ordenada pela relevancia: a ordenação do Pageable é ignorada.
+    public Page<Autor> buscar(String texto, Pageable pageable){
+        TermoBusca termo = TermoBusca.de(texto);
+        Pageable pagina = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+
+        // A busca aproximada (trigramas) custa bem mais: só quando nenhuma palavra casou por prefixo.
+        Page<Autor> resultado = autorRepository.buscarPorPrefixo(termo.prefixos(), pagina);
+        if (resultado.getTotalElements() > 0){
+            return resultado;
+        }
+        return autorRepository.buscarAproximado(termo.termo(), pagina);
+    }
+
+    /**
+     * Paginação por keyset: where (nome, id) > (cursor) order by nome, id limit tamanho.
+     * Diferente do offset, o custo de cada pagina não cresce conforme avança na tabela.
+     */
+    public Window<Autor> pesquisaPaginada(String nome, String nacionalidade, String cursor, Integer tamanho){
+        int limite = tamanho == null ? TAMANHO_PAGINA_PADRAO : Math.clamp(tamanho, 1, TAMANHO_PAGINA_MAXIMO);
+
+        // Example ignora as propiedades nulas -> filtra apenas pelo que foi informado.
+        Autor filtro = new Autor();
+        filtro.setNome(nome);
+        filtro.setNacionalidade(nacionalidade);
+
+        return autorRepository.findBy(Example.of(filtro), query -> query
+                .sortBy(CursorAutor.ORDENACAO)
+                .limit(limite)
+                .scroll(CursorAutor.decodificar(cursor)));
+    }
+
+    /**
+     * Percorre o resultado sem materializar a lista: cada autor é entregue ao consumidor e
+     * retirado do contexto de persistencia, a memoria fica constante independente do tamanho da tabela.
+     */
+    @Transactional(readOnly = true)
+    public void transmitir(String nome, String nacionalidade, Consumer<Autor> consumidor){
+        try (Stream<Autor> autores = autorRepository.transmitirPorFiltro(nome, nacionalidade)) {
+            autores.forEach(autor -> {
+                consumidor.accept(autor);
+                entityManager.detach(autor);
+            });
+        }
+    }
+
     public boolean possuiLivro(Autor autor){
         return livroRepository.existsByAutor(autor);
 
     }
+
+    private RuntimeException traduzirViolacao(DataIntegrityViolationException e){
+        if (e instanceof DuplicateKeyException
+                || e.getCause() instanceof ConstraintViolationException violacao
+                && violacao.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE){
+            return new RegistroDuplicadoException("Autor ja cadastrado!");
+        }
+        return e;
+    }
 }
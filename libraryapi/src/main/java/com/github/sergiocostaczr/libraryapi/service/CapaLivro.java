@@ -0,0 +1,12 @@
+package com.github.sergiocostaczr.libraryapi.service;
+
+import com.github.sergiocostaczr.libraryapi.armazenamento.ArquivoArmazenado;
+
+public record CapaLivro(ArquivoArmazenado arquivo, TipoImagem tipo) {
+
+    // O nome do arquivo é o hash do conteudo (ou dele derivado), então serve de ETag forte.
+    public String etag(){
+        String chave = arquivo.chave();
+        return "\"" + chave.substring(chave.lastIndexOf('/') + 1, chave.lastIndexOf('.')) + "\"";
+    }
+}
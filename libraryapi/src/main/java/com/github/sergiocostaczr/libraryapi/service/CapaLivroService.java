@@ -0,0 +1,85 @@
+package com.github.sergiocostaczr.libraryapi.service;
+
+import com.github.sergiocostaczr.libraryapi.armazenamento.ArmazenamentoArquivos;
+import com.github.sergiocostaczr.libraryapi.armazenamento.ArquivoArmazenado;
+import com.github.sergiocostaczr.libraryapi.repository.LivroRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Capa dos livros: o arquivo fica no ArmazenamentoArquivos e o livro guarda só a chave (nome_arquivo_capa).
+ *
+ * O arquivo é gravado antes do update do livro e fora de transação: se o update falhar sobra no maximo
+ * um arquivo sem referencia, nunca um livro apontando para um arquivo que não existe. Arquivos antigos
+ * não são apagados na troca de capa porque podem ser a capa de outro livro (deduplicação por conteudo).
+ */
+@Service
+public class CapaLivroService {
+
+    private static final Logger log = LoggerFactory.getLogger(CapaLivroService.class);
+
+    private static final String PREFIXO = "capas";
+
+    private final LivroRepository livroRepository;
+    private final ArmazenamentoArquivos armazenamento;
+    private final MiniaturaCapaService miniaturaCapaService;
+
+    public CapaLivroService(LivroRepository livroRepository,
+                            ArmazenamentoArquivos armazenamento,
+                            MiniaturaCapaService miniaturaCapaService) {
+        this.livroRepository = livroRepository;
+        this.armazenamento = armazenamento;
+        this.miniaturaCapaService = miniaturaCapaService;
+    }
+
+    // Vazio quando o livro não existe. IllegalArgumentException quando o conteudo não é uma imagem aceita.
+    public Optional<CapaLivro> salvar(UUID idLivro, InputStream conteudo) throws IOException {
+        if (!livroRepository.existsById(idLivro)){
+            return Optional.empty();
+        }
+
+        BufferedInputStream entrada = new BufferedInputStream(conteudo);
+        TipoImagem tipo = TipoImagem.detectar(entrada);
+        ArquivoArmazenado arquivo = armazenamento.salvarPorConteudo(PREFIXO, tipo.getExtensao(), entrada);
+
+        // Removido enquanto o arquivo era gravado.
+        if (livroRepository.atualizarNomeArquivoCapa(idLivro, arquivo.chave()) == 0){
+            return Optional.empty();
+        }
+        log.info("Capa do livro {} gravada: {} ({} bytes)", idLivro, arquivo.chave(), arquivo.tamanho());
+
+        miniaturaCapaService.agendar(arquivo.chave());
+        return Optional.of(new CapaLivro(arquivo, tipo));
+    }
+
+    public Optional<CapaLivro> obter(UUID idLivro) throws IOException {
+        Optional<String> chave = livroRepository.buscarNomeArquivoCapa(idLivro);
+        if (chave.isEmpty()){
+            return Optional.empty();
+        }
+        return armazenamento.buscar(chave.get())
+                .map(arquivo -> new CapaLivro(arquivo, TipoImagem.porNomeArquivo(arquivo.chave())));
+    }
+
+    // Vazio enquanto a miniatura não foi gerada (um novo pedido de geração é feito nesse caso).
+    public Optional<CapaLivro> obterMiniatura(UUID idLivro) throws IOException {
+        Optional<String> chaveCapa = livroRepository.buscarNomeArquivoCapa(idLivro);
+        if (chaveCapa.isEmpty()){
+            return Optional.empty();
+        }
+
+        Optional<ArquivoArmazenado> miniatura = armazenamento.buscar(miniaturaCapaService.chaveMiniatura(chaveCapa.get()));
+        if (miniatura.isEmpty()){
+            miniaturaCapaService.agendar(chaveCapa.get());
+            return Optional.empty();
+        }
+        return Optional.of(new CapaLivro(miniatura.get(), TipoImagem.JPEG));
+    }
+}
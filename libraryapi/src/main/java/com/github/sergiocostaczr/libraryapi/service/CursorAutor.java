@@ -0,0 +1,55 @@
+package com.github.sergiocostaczr.libraryapi.service;
+
+import com.github.sergiocostaczr.libraryapi.model.Autor;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Cursor da paginação por keyset de autores: (nome, id) do ultimo registro da pagina,
+ * codificado em base64 url-safe para ser devolvido ao cliente como token opaco.
+ *
+ * Ex: cursor = base64("373fdf03-e95f-47a0-9c47-c961cf2702ef:Machado de Assis")
+ */
+public final class CursorAutor {
+
+    // A ordenação precisa terminar numa coluna unica (id), senão o keyset pula/repete registros.
+    public static final Sort ORDENACAO = Sort.by("nome", "id");
+
+    private static final char SEPARADOR = ':';
+
+    private CursorAutor() {
+    }
+
+    public static String codificar(Autor ultimo){
+        String valor = ultimo.getId().toString() + SEPARADOR + ultimo.getNome();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetScrollPosition decodificar(String cursor){
+        if (cursor == null || cursor.isBlank()){
+            return ScrollPosition.keyset();
+        }
+
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = valor.indexOf(SEPARADOR);
+            UUID id = UUID.fromString(valor.substring(0, separador));
+            String nome = valor.substring(separador + 1);
+
+            // A ordem das chaves precisa seguir a ORDENACAO.
+            Map<String, Object> chaves = new LinkedHashMap<>();
+            chaves.put("nome", nome);
+            chaves.put("id", id);
+            return ScrollPosition.forward(chaves);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Cursor de paginação inválido");
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.sergiocostaczr.libraryapi.service;
+
+import com.github.sergiocostaczr.libraryapi.repository.projection.AgregadoLivros;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+/**
+ * Agregados de um grupo de livros (genero, nacionalidade do autor ou autor). Imutavel: cada inclusão/remoção
+ * gera um novo valor, trocado no mapa com compute().
+ *
+ * Soma e quantidade são mantidas para recalcular a media de forma incremental. Minimo/maximo e datas não
+ * podem ser "desfeitos" sem reler o grupo: removendo um livro que está num extremo ({@link #afetaExtremos})
+ * o grupo é recalculado no banco.
+ */
+public record EstatisticaLivros(
+        long quantidade,
+        long quantidadeComPreco,
+        BigDecimal somaPreco,
+        BigDecimal precoMedio,
+        BigDecimal precoMinimo,
+        BigDecimal precoMaximo,
+        LocalDate primeiraPublicacao,
+        LocalDate ultimaPublicacao) {
+
+    static EstatisticaLivros de(AgregadoLivros agregado){
+        return novo(agregado.quantidade(), agregado.quantidadeComPreco(),
+                agregado.somaPreco() == null ? BigDecimal.ZERO : agregado.somaPreco(),
+                agregado.precoMinimo(), agregado.precoMaximo(),
+                agregado.primeiraPublicacao(), agregado.ultimaPublicacao());
+    }
+
+    static EstatisticaLivros de(BigDecimal preco, LocalDate dataPublicacao){
+        return novo(1, preco == null ? 0 : 1, preco == null ? BigDecimal.ZERO : preco,
+                preco, preco, dataPublicacao, dataPublicacao);
+    }
+
+    EstatisticaLivros com(BigDecimal preco, LocalDate dataPublicacao){
+        return novo(quantidade + 1,
+                preco == null ? quantidadeComPreco : quantidadeComPreco + 1,
+                preco == null ? somaPreco : somaPreco.add(preco),
+                menor(precoMinimo, preco), maior(precoMaximo, preco),
+                menor(primeiraPublicacao, dataPublicacao), maior(ultimaPublicacao, dataPublicacao));
+    }
+
+    // null quando o livro removido era o ultimo do grupo. Minimo/maximo e datas são mantidos: ver afetaExtremos.
+    EstatisticaLivros sem(BigDecimal preco, LocalDate dataPublicacao){
+        if (quantidade <= 1){
+            return null;
+        }
+        return novo(quantidade - 1,
+                preco == null ? quantidadeComPreco : quantidadeComPreco - 1,
+                preco == null ? somaPreco : somaPreco.subtract(preco),
+                precoMinimo, precoMaximo, primeiraPublicacao, ultimaPublicacao);
+    }
+
+    // Removendo um livro com o menor/maior preço ou data do grupo, os extremos só são conhecidos relendo o grupo.
+    boolean afetaExtremos(BigDecimal preco, LocalDate dataPublicacao){
+        return extremo(preco, precoMinimo, precoMaximo) || extremo(dataPublicacao, primeiraPublicacao, ultimaPublicacao);
+    }
+
+    private static EstatisticaLivros novo(long quantidade, long quantidadeComPreco, BigDecimal somaPreco,
+                                          BigDecimal precoMinimo, BigDecimal precoMaximo,
+                                          LocalDate primeiraPublicacao, LocalDate ultimaPublicacao){
+        BigDecimal media = quantidadeComPreco == 0 ? null
+                : somaPreco.divide(BigDecimal.valueOf(quantidadeComPreco), 2, RoundingMode.HALF_EVEN);
+        return new EstatisticaLivros(quantidade, quantidadeComPreco, somaPreco, media,
+                precoMinimo, precoMaximo, primeiraPublicacao, ultimaPublicacao);
+    }
+
+    private static <T extends Comparable<? super T>> boolean extremo(T valor, T minimo, T maximo){
+        if (valor == null){
+            return false;
+        }
+        return minimo == null || valor.compareTo(minimo) <= 0 || valor.compareTo(maximo) >= 0;
+    }
+
+    private static <T extends Comparable<? super T>> T menor(T atual, T valor){
+        if (valor == null || atual == null){
+            return valor == null ? atual : valor;
+        }
+        return valor.compareTo(atual) < 0 ? valor : atual;
+    }
+
+    private static <T extends Comparable<? super T>> T maior(T atual, T valor){
+        if (valor == null || atual == null){
+            return valor == null ? atual : valor;
+        }
+        return valor.compareTo(atual) > 0 ? valor : atual;
+    }
+}
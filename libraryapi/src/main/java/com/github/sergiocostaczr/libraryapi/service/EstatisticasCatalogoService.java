@@ -0,0 +1,343 @@
+package com.github.sergiocostaczr.libraryapi.service;
+
+import com.github.sergiocostaczr.libraryapi.model.GeneroLivro;
+import com.github.sergiocostaczr.libraryapi.repository.LivroRepository;
+import com.github.sergiocostaczr.libraryapi.repository.projection.AgregadoLivros;
+import com.github.sergiocostaczr.libraryapi.repository.projection.NacionalidadeAutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Estatisticas do catalogo (por genero, nacionalidade do autor e autor) mantidas em memoria.
+ *
+ * As consultas leem só o mapa (O(1), sem ir ao banco). Inclusões, alterações e remoções de livros chegam
+ * do EstatisticasLivroListener depois do commit e atualizam apenas os grupos afetados. O que não dá para
+ * manter incrementalmente é reconciliado no banco:
+ *  - remoção de um livro num extremo (menor/maior preço ou data): o grupo entra em pendentes e é relido;
+ *  - operações em massa (OperacaoLoteLivroService), que não passam pelos listeners: recalculo completo;
+ *  - alterações feitas por outras instancias, troca de nacionalidade do autor: recalculo periodico
+ *    (app.estatisticas.recalculo).
+ *
+ * Alterações que chegam durante um recalculo ou a releitura de um grupo são guardadas e reaplicadas no
+ * resultado da consulta antes de ele entrar no lugar (sob a mesma trava do listener, nada se perde entre a
+ * reaplicação e a troca). Como não dá para saber se o commit entrou ou não na consulta, os grupos afetados
+ * são relidos de novo em seguida.
+ */
+@Service
+public class EstatisticasCatalogoService {
+
+    private static final Logger log = LoggerFactory.getLogger(EstatisticasCatalogoService.class);
+
+    // Dados do livro relevantes para as estatisticas, antes ou depois de uma alteração.
+    public record DadosLivro(GeneroLivro genero, BigDecimal preco, LocalDate dataPublicacao,
+                             UUID idAutor, String nacionalidade) {
+    }
+
+    private final LivroRepository livroRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Os mapas de um recalculo, trocados juntos.
+    private record Grupos(Map<GeneroLivro, EstatisticaLivros> porGenero,
+                          Map<String, EstatisticaLivros> porNacionalidade,
+                          Map<UUID, EstatisticaLivros> porAutor,
+                          // Nacionalidade dos autores com livros, para quando o listener recebe o autor como proxy não inicializado.
+                          Map<UUID, String> nacionalidadePorAutor) {
+
+        static Grupos vazios(){
+            return new Grupos(new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+    }
+
+    // Inclusão: anterior null. Remoção: atual null.
+    private record Alteracao(DadosLivro anterior, DadosLivro atual) {
+    }
+
+    private volatile Grupos grupos = Grupos.vazios();
+    private volatile Instant atualizadoEm;
+
+    // Serializa as alterações do listener com a reaplicação e a troca dos mapas no fim do recalculo/releitura.
+    private final Object trava = new Object();
+    // Não null enquanto um recalculo ou uma releitura está consultando o banco.
+    private List<Alteracao> alteracoesDuranteConsulta;
+    // Um recalculo ou releitura por vez (dividem alteracoesDuranteConsulta).
+    private final Object recalculando = new Object();
+
+    private final Set<GeneroLivro> generosPendentes = ConcurrentHashMap.newKeySet();
+    private final Set<String> nacionalidadesPendentes = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> autoresPendentes = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean recalculoPendente = new AtomicBoolean();
+
+    public EstatisticasCatalogoService(LivroRepository livroRepository, TransactionTemplate transactionTemplate) {
+        this.livroRepository = livroRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public Map<GeneroLivro, EstatisticaLivros> porGenero(){
+        return Collections.unmodifiableMap(grupos.porGenero());
+    }
+
+    public Map<String, EstatisticaLivros> porNacionalidade(){
+        return Collections.unmodifiableMap(grupos.porNacionalidade());
+    }
+
+    public Optional<EstatisticaLivros> doGenero(GeneroLivro genero){
+        return Optional.ofNullable(grupos.porGenero().get(genero));
+    }
+
+    public Optional<EstatisticaLivros> daNacionalidade(String nacionalidade){
+        return Optional.ofNullable(grupos.porNacionalidade().get(nacionalidade));
+    }
+
+    public Optional<EstatisticaLivros> doAutor(UUID idAutor){
+        return Optional.ofNullable(grupos.porAutor().get(idAutor));
+    }
+
+    // Momento do ultimo recalculo completo.
+    public Optional<Instant> atualizadoEm(){
+        return Optional.ofNullable(atualizadoEm);
+    }
+
+    public void registrarInclusao(DadosLivro livro){
+        registrar(new Alteracao(null, livro));
+    }
+
+    public void registrarRemocao(DadosLivro livro){
+        registrar(new Alteracao(livro, null));
+    }
+
+    public void registrarAlteracao(DadosLivro anterior, DadosLivro atual){
+        if (!Objects.equals(anterior, atual)){
+            registrar(new Alteracao(anterior, atual));
+        }
+    }
+
+    // Para alterações que não passam pelos listeners (update/delete em massa).
+    public void marcarRecalculo(){
+        recalculoPendente.set(true);
+    }
+
+    // Recalculo completo: roda na subida (initialDelay 0) e periodicamente para reconciliar.
+    @Scheduled(fixedDelayString = "${app.estatisticas.recalculo:30m}")
+    public void recalcular(){
+        synchronized (recalculando) {
+            long inicio = System.currentTimeMillis();
+            recalculoPendente.set(false);
+            generosPendentes.clear();
+            nacionalidadesPendentes.clear();
+            autoresPendentes.clear();
+
+            Grupos novos;
+            synchronized (trava) {
+                alteracoesDuranteConsulta = new ArrayList<>();
+            }
+            try {
+                novos = transactionTemplate.execute(status -> {
+                    Map<UUID, String> nacionalidadesAutores = new ConcurrentHashMap<>();
+                    Grupos consultados = new Grupos(
+                            agrupar(livroRepository.agregarPorGenero()),
+                            agrupar(livroRepository.agregarPorNacionalidade()),
+                            agrupar(livroRepository.agregarPorAutor()),
+                            nacionalidadesAutores);
+                    for (NacionalidadeAutor autor : livroRepository.listarNacionalidadesDosAutores()){
+                        nacionalidadesAutores.put(autor.idAutor(), autor.nacionalidade());
+                    }
+                    return consultados;
+                });
+
+                synchronized (trava) {
+                    for (Alteracao alteracao : alteracoesDuranteConsulta){
+                        aplicar(novos, alteracao, true);
+                    }
+                    log.debug("{} alteração(ões) durante o recalculo reaplicada(s)", alteracoesDuranteConsulta.size());
+                    grupos = novos;
+                }
+            } finally {
+                synchronized (trava) {
+                    alteracoesDuranteConsulta = null;
+                }
+            }
+            atualizadoEm = Instant.now();
+            relerPendentes();
+            log.info("Estatisticas do catalogo recalculadas em {} ms: {} genero(s), {} nacionalidade(s), {} autor(es)",
+                    System.currentTimeMillis() - inicio, novos.porGenero().size(), novos.porNacionalidade().size(),
+                    novos.porAutor().size());
+        }
+    }
+
+    // Relê só os grupos cujo minimo/maximo ficou desatualizado por uma remoção.
+    @Scheduled(fixedDelayString = "${app.estatisticas.intervalo-pendentes:5s}", initialDelayString = "${app.estatisticas.intervalo-pendentes:5s}")
+    public void recalcularPendentes(){
+        if (recalculoPendente.get()){
+            recalcular();
+            return;
+        }
+        synchronized (recalculando) {
+            relerPendentes();
+        }
+    }
+
+    // Chamado com recalculando: os mapas não são trocados durante a releitura.
+    private void relerPendentes(){
+        Grupos atuais = grupos;
+        reler(atuais.porGenero(), generosPendentes, DadosLivro::genero, livroRepository::agregarDoGenero);
+        reler(atuais.porNacionalidade(), nacionalidadesPendentes, livro -> nacionalidade(atuais, livro),
+                livroRepository::agregarDaNacionalidade);
+        reler(atuais.porAutor(), autoresPendentes, DadosLivro::idAutor, livroRepository::agregarDoAutor);
+    }
+
+    private void registrar(Alteracao alteracao){
+        synchronized (trava) {
+            aplicar(grupos, alteracao, false);
+            if (alteracoesDuranteConsulta != null){
+                alteracoesDuranteConsulta.add(alteracao);
+            }
+        }
+    }
+
+    // reler: grupos afetados vão para os pendentes mesmo sem mudar um extremo (alteração reaplicada num recalculo).
+    private void aplicar(Grupos alvo, Alteracao alteracao, boolean reler){
+        if (alteracao.anterior() != null){
+            DadosLivro livro = alteracao.anterior();
+            String nacionalidade = nacionalidade(alvo, livro);
+            remover(alvo.porGenero(), livro.genero(), livro, generosPendentes);
+            remover(alvo.porNacionalidade(), nacionalidade, livro, nacionalidadesPendentes);
+            remover(alvo.porAutor(), livro.idAutor(), livro, autoresPendentes);
+            if (reler){
+                marcarPendentes(livro.genero(), nacionalidade, livro.idAutor());
+            }
+        }
+        if (alteracao.atual() != null){
+            DadosLivro livro = alteracao.atual();
+            String nacionalidade = nacionalidade(alvo, livro);
+            incluir(alvo.porGenero(), livro.genero(), livro);
+            incluir(alvo.porNacionalidade(), nacionalidade, livro);
+            incluir(alvo.porAutor(), livro.idAutor(), livro);
+            if (reler){
+                marcarPendentes(livro.genero(), nacionalidade, livro.idAutor());
+            }
+        }
+    }
+
+    private void marcarPendentes(GeneroLivro genero, String nacionalidade, UUID idAutor){
+        if (genero != null){
+            generosPendentes.add(genero);
+        }
+        if (nacionalidade != null){
+            nacionalidadesPendentes.add(nacionalidade);
+        }
+        if (idAutor != null){
+            autoresPendentes.add(idAutor);
+        }
+    }
+
+    private String nacionalidade(Grupos alvo, DadosLivro livro){
+        if (livro.idAutor() == null){
+            return null;
+        }
+        if (livro.nacionalidade() != null){
+            alvo.nacionalidadePorAutor().put(livro.idAutor(), livro.nacionalidade());
+            return livro.nacionalidade();
+        }
+        String nacionalidade = alvo.nacionalidadePorAutor().get(livro.idAutor());
+        if (nacionalidade == null){
+            // Autor ainda sem livros nas estatisticas e não carregado: não dá para saber o grupo.
+            marcarRecalculo();
+        }
+        return nacionalidade;
+    }
+
+    private <K> void incluir(Map<K, EstatisticaLivros> mapa, K chave, DadosLivro livro){
+        if (chave == null){
+            return;
+        }
+        mapa.compute(chave, (k, atual) -> atual == null
+                ? EstatisticaLivros.de(livro.preco(), livro.dataPublicacao())
+                : atual.com(livro.preco(), livro.dataPublicacao()));
+    }
+
+    private <K> void remover(Map<K, EstatisticaLivros> mapa, K chave, DadosLivro livro, Set<K> pendentes){
+        if (chave == null){
+            return;
+        }
+        EstatisticaLivros anterior = mapa.get(chave);
+        mapa.computeIfPresent(chave, (k, atual) -> atual.sem(livro.preco(), livro.dataPublicacao()));
+        if (anterior != null && anterior.quantidade() > 1 && anterior.afetaExtremos(livro.preco(), livro.dataPublicacao())){
+            pendentes.add(chave);
+        }
+    }
+
+    // chaveDoLivro: grupo do livro nesse mapa, para reaplicar só as alterações do grupo relido.
+    private <K> void reler(Map<K, EstatisticaLivros> mapa, Set<K> pendentes, Function<DadosLivro, K> chaveDoLivro,
+                           Function<K, Optional<AgregadoLivros>> consulta){
+        for (K chave : List.copyOf(pendentes)){
+            pendentes.remove(chave);
+            synchronized (trava) {
+                alteracoesDuranteConsulta = new ArrayList<>();
+            }
+            try {
+                Optional<AgregadoLivros> agregado = transactionTemplate.execute(status -> consulta.apply(chave));
+
+                synchronized (trava) {
+                    EstatisticaLivros estatistica = agregado.map(EstatisticaLivros::de).orElse(null);
+                    boolean alterado = false;
+                    for (Alteracao alteracao : alteracoesDuranteConsulta){
+                        DadosLivro anterior = alteracao.anterior();
+                        if (anterior != null && chave.equals(chaveDoLivro.apply(anterior))){
+                            estatistica = estatistica == null ? null : estatistica.sem(anterior.preco(), anterior.dataPublicacao());
+                            alterado = true;
+                        }
+                        DadosLivro atual = alteracao.atual();
+                        if (atual != null && chave.equals(chaveDoLivro.apply(atual))){
+                            estatistica = estatistica == null
+                                    ? EstatisticaLivros.de(atual.preco(), atual.dataPublicacao())
+                                    : estatistica.com(atual.preco(), atual.dataPublicacao());
+                            alterado = true;
+                        }
+                    }
+                    if (estatistica == null){
+                        mapa.remove(chave);
+                    } else {
+                        mapa.put(chave, estatistica);
+                    }
+                    if (alterado){
+                        // o commit pode ou não ter entrado na consulta: relido de novo na proxima passada
+                        pendentes.add(chave);
+                    }
+                }
+            } finally {
+                synchronized (trava) {
+                    alteracoesDuranteConsulta = null;
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> Map<K, EstatisticaLivros> agrupar(List<AgregadoLivros> agregados){
+        Map<K, EstatisticaLivros> mapa = new ConcurrentHashMap<>();
+        for (AgregadoLivros agregado : agregados){
+            if (agregado.chave() != null){
+                mapa.put((K) agregado.chave(), EstatisticaLivros.de(agregado));
+            }
+        }
+        return mapa;
+    }
+}
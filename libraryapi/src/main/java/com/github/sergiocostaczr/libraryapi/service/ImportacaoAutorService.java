@@ -0,0 +1,146 @@
+package com.github.sergiocostaczr.libraryapi.service;
+
+import com.github.sergiocostaczr.libraryapi.config.CacheConfiguration;
+import com.github.sergiocostaczr.libraryapi.controller.dto.AutorDTO;
+import com.github.sergiocostaczr.libraryapi.controller.dto.ResultadoImportacaoDTO;
+import com.github.sergiocostaczr.libraryapi.controller.dto.ResultadoLinhaDTO;
+import com.github.sergiocostaczr.libraryapi.controller.dto.ResultadoLinhaDTO.StatusLinha;
+import com.github.sergiocostaczr.libraryapi.model.Autor;
+import com.github.sergiocostaczr.libraryapi.repository.AutorRepository;
+import com.github.sergiocostaczr.libraryapi.repository.projection.ChaveAutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Importação em lote de autores.
+ *
+ * O arquivo é processado em blocos de tamanhoLote linhas, cada bloco na sua propria transação:
+ * uma unica consulta verifica os duplicados do bloco e os inserts vão em batch (hibernate.jdbc.batch_size).
+ * Uma falha num bloco não desfaz os blocos ja gravados.
+ */
+@Service
+public class ImportacaoAutorService {
+
+    private static final int TAMANHO_MAXIMO_NOME = 100;
+    private static final int TAMANHO_MAXIMO_NACIONALIDADE = 50;
+
+    private final AutorRepository autorRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanhoLote;
+
+    public ImportacaoAutorService(AutorRepository autorRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${app.importacao.tamanho-lote:500}") int tamanhoLote) {
+        this.autorRepository = autorRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    @CacheEvict(cacheNames = {
+            CacheConfiguration.AUTORES_POR_NOME,
+            CacheConfiguration.AUTORES_POR_NACIONALIDADE,
+            CacheConfiguration.AUTORES_POR_NOME_E_NACIONALIDADE,
+            CacheConfiguration.AUTOR_POR_DADOS_UNICOS}, allEntries = true)
+    public ResultadoImportacaoDTO importar(Iterator<LeitorLoteAutor.Linha> linhas){
+        List<ResultadoLinhaDTO> resultado = new ArrayList<>();
+        List<LeitorLoteAutor.Linha> bloco = new ArrayList<>(tamanhoLote);
+
+        while (linhas.hasNext()){
+            bloco.add(linhas.next());
+            if (bloco.size() == tamanhoLote){
+                resultado.addAll(importarBloco(bloco));
+                bloco.clear();
+            }
+        }
+        if (!bloco.isEmpty()){
+            resultado.addAll(importarBloco(bloco));
+        }
+
+        return ResultadoImportacaoDTO.de(resultado);
+    }
+
+    private List<ResultadoLinhaDTO> importarBloco(List<LeitorLoteAutor.Linha> bloco){
+        try {
+            return transactionTemplate.execute(status -> gravarBloco(bloco));
+        } catch (DataAccessException e) {
+            return bloco.stream()
+                    .map(linha -> ResultadoLinhaDTO.rejeitado(linha.numero(), StatusLinha.ERRO, "Falha ao gravar o bloco: " + e.getMostSpecificCause().getMessage()))
+                    .toList();
+        }
+    }
+
+    private List<ResultadoLinhaDTO> gravarBloco(List<LeitorLoteAutor.Linha> bloco){
+        ResultadoLinhaDTO[] resultado = new ResultadoLinhaDTO[bloco.size()];
+
+        // select ... from autor where nome in (...) -> uma consulta por bloco.
+        Set<String> nomes = new HashSet<>();
+        for (LeitorLoteAutor.Linha linha : bloco){
+            if (linha.autor() != null && linha.autor().nome() != null){
+                nomes.add(linha.autor().nome());
+            }
+        }
+        Set<ChaveAutor> cadastrados = nomes.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(autorRepository.findByNomeIn(nomes));
+
+        List<Autor> novos = new ArrayList<>();
+        List<Integer> posicoes = new ArrayList<>();
+
+        for (int i = 0; i < bloco.size(); i++){
+            LeitorLoteAutor.Linha linha = bloco.get(i);
+            String erro = linha.erro() != null ? linha.erro() : validar(linha.autor());
+            if (erro != null){
+                resultado[i] = ResultadoLinhaDTO.rejeitado(linha.numero(), StatusLinha.INVALIDO, erro);
+                continue;
+            }
+
+            AutorDTO dto = linha.autor();
+            // add() retorna false se ja existe no banco ou se repetiu dentro do proprio arquivo.
+            if (!cadastrados.add(new ChaveAutor(dto.nome(), dto.dataNascimento(), dto.nacionalidade()))){
+                resultado[i] = ResultadoLinhaDTO.rejeitado(linha.numero(), StatusLinha.DUPLICADO, "Autor ja cadastrado!");
+                continue;
+            }
+
+            novos.add(dto.mapearParaAutor());
+            posicoes.add(i);
+        }
+
+        // O id (GenerationType.UUID) é gerado na aplicação, então os inserts podem ir em batch.
+        autorRepository.saveAll(novos);
+
+        for (int i = 0; i < novos.size(); i++){
+            int posicao = posicoes.get(i);
+            resultado[posicao] = ResultadoLinhaDTO.importado(bloco.get(posicao).numero(), novos.get(i).getId());
+        }
+
+        return List.of(resultado);
+    }
+
+    private String validar(AutorDTO autor){
+        if (autor.nome() == null || autor.nome().isBlank()){
+            return "Nome é obrigatório";
+        }
+        if (autor.nome().length() > TAMANHO_MAXIMO_NOME){
+            return "Nome deve ter no maximo " + TAMANHO_MAXIMO_NOME + " caracteres";
+        }
+        if (autor.dataNascimento() == null){
+            return "Data de nascimento é obrigatória";
+        }
+        if (autor.nacionalidade() == null || autor.nacionalidade().isBlank()){
+            return "Nacionalidade é obrigatória";
+        }
+        if (autor.nacionalidade().length() > TAMANHO_MAXIMO_NACIONALIDADE){
+            return "Nacionalidade deve ter no maximo " + TAMANHO_MAXIMO_NACIONALIDADE + " caracteres";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,229 @@
+package com.github.sergiocostaczr.libraryapi.service;
+
+import com.github.sergiocostaczr.libraryapi.controller.dto.AutorDTO;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Lê o corpo da importação em lote um registro por vez, sem carregar o arquivo inteiro na memoria.
+ *
+ * JSON: [{"nome": "...", "dataNascimento": "1950-01-21", "nacionalidade": "..."}, ...]
+ * CSV : nome,dataNascimento,nacionalidade (primeira linha é o cabeçalho)
+ */
+public abstract class LeitorLoteAutor implements Iterator<LeitorLoteAutor.Linha> {
+
+    public record Linha(int numero, AutorDTO autor, String erro) {
+    }
+
+    private Linha proxima;
+    private boolean fim;
+
+    public static LeitorLoteAutor json(InputStream corpo, ObjectMapper objectMapper){
+        return new Json(corpo, objectMapper);
+    }
+
+    public static LeitorLoteAutor csv(InputStream corpo){
+        return new Csv(corpo);
+    }
+
+    // Retorna null quando não houver mais registros.
+    protected abstract Linha lerProxima();
+
+    @Override
+    public boolean hasNext() {
+        if (proxima == null && !fim){
+            proxima = lerProxima();
+            fim = proxima == null;
+        }
+        return proxima != null;
+    }
+
+    @Override
+    public Linha next() {
+        if (!hasNext()){
+            throw new NoSuchElementException();
+        }
+        Linha linha = proxima;
+        proxima = null;
+        return linha;
+    }
+
+    private static class Json extends LeitorLoteAutor {
+
+        private final ObjectMapper objectMapper;
+        private final JsonParser parser;
+        private int numero;
+        private boolean invalido;
+
+        Json(InputStream corpo, ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+            try {
+                this.parser = objectMapper.createParser(corpo);
+                if (parser.nextToken() != JsonToken.START_ARRAY){
+                    throw new IllegalArgumentException("O corpo da importação deve ser um array JSON");
+                }
+            } catch (JacksonException e) {
+                throw new IllegalArgumentException("JSON inválido: " + e.getOriginalMessage());
+            }
+        }
+
+        /**
+         * Só o fim do array encerra a leitura. Um elemento que não é objeto (5, "texto", [..]) vira uma linha rejeitada.
+         * JSON mal formado no meio do array vira a ultima linha (rejeitada): depois de um erro de sintaxe não há
+         * como achar o proximo registro, mas os blocos anteriores ja gravados continuam no resultado.
+         */
+        @Override
+        protected Linha lerProxima() {
+            if (invalido){
+                return null;
+            }
+
+            JsonToken token;
+            try {
+                token = parser.nextToken();
+            } catch (JacksonException e) {
+                numero++;
+                return interromper(e.getOriginalMessage());
+            }
+            if (token == JsonToken.END_ARRAY){
+                return null;
+            }
+            numero++;
+            if (token == null){
+                return interromper("fim do corpo antes de fechar o array");
+            }
+
+            try {
+                if (token != JsonToken.START_OBJECT){
+                    parser.skipChildren(); // pula arrays aninhados inteiros
+                    return new Linha(numero, null, "Registro inválido: esperado um objeto JSON, encontrado " + token);
+                }
+                // Lê o objeto inteiro como arvore: um campo invalido rejeita só a linha, não o restante do array.
+                JsonNode objeto = parser.readValueAsTree();
+                try {
+                    return new Linha(numero, objectMapper.treeToValue(objeto, AutorDTO.class), null);
+                } catch (JacksonException e) {
+                    return new Linha(numero, null, "Registro inválido: " + e.getOriginalMessage());
+                }
+            } catch (JacksonException e) {
+                return interromper(e.getOriginalMessage());
+            }
+        }
+
+        private Linha interromper(String motivo){
+            invalido = true;
+            return new Linha(numero, null, "JSON inválido, importação interrompida: " + motivo);
+        }
+    }
+
+    private static class Csv extends LeitorLoteAutor {
+
+        private final BufferedReader reader;
+        private final int colunaNome;
+        private final int colunaDataNascimento;
+        private final int colunaNacionalidade;
+        private int numero;
+
+        Csv(InputStream corpo) {
+            this.reader = new BufferedReader(new InputStreamReader(corpo, StandardCharsets.UTF_8));
+            List<String> cabecalho = dividir(lerLinha());
+            this.colunaNome = coluna(cabecalho, "nome");
+            this.colunaDataNascimento = coluna(cabecalho, "dataNascimento", "data_nascimento");
+            this.colunaNacionalidade = coluna(cabecalho, "nacionalidade");
+        }
+
+        @Override
+        protected Linha lerProxima() {
+            String texto = lerLinha();
+            while (texto != null && texto.isBlank()){
+                texto = lerLinha();
+            }
+            if (texto == null){
+                return null;
+            }
+            numero++;
+
+            List<String> campos = dividir(texto);
+            int colunas = Math.max(colunaNome, Math.max(colunaDataNascimento, colunaNacionalidade)) + 1;
+            if (campos.size() < colunas){
+                return new Linha(numero, null, "Quantidade de colunas inválida");
+            }
+
+            try {
+                String dataNascimento = campos.get(colunaDataNascimento);
+                AutorDTO autor = new AutorDTO(
+                        null,
+                        campos.get(colunaNome),
+                        dataNascimento.isBlank() ? null : LocalDate.parse(dataNascimento),
+                        campos.get(colunaNacionalidade));
+                return new Linha(numero, autor, null);
+            } catch (DateTimeParseException e) {
+                return new Linha(numero, null, "Data de nascimento inválida: " + e.getParsedString());
+            }
+        }
+
+        private String lerLinha(){
+            try {
+                return reader.readLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static int coluna(List<String> cabecalho, String... nomes){
+            for (String nome : nomes){
+                int indice = cabecalho.indexOf(nome);
+                if (indice >= 0){
+                    return indice;
+                }
+            }
+            throw new IllegalArgumentException("Coluna obrigatória ausente no cabeçalho do CSV: " + nomes[0]);
+        }
+
+        // Separa por virgula respeitando campos entre aspas ("Assis, Machado de").
+        private static List<String> dividir(String linha){
+            if (linha == null){
+                throw new IllegalArgumentException("CSV sem cabeçalho");
+            }
+
+            List<String> campos = new ArrayList<>();
+            StringBuilder campo = new StringBuilder();
+            boolean entreAspas = false;
+
+            for (int i = 0; i < linha.length(); i++){
+                char c = linha.charAt(i);
+                if (c == '"'){
+                    if (entreAspas && i + 1 < linha.length() && linha.charAt(i + 1) == '"'){
+                        campo.append('"');
+                        i++;
+                    } else {
+                        entreAspas = !entreAspas;
+                    }
+                } else if (c == ',' && !entreAspas){
+                    campos.add(campo.toString().trim());
+                    campo.setLength(0);
+                } else {
+                    campo.append(c);
+                }
+            }
+            campos.add(campo.toString().trim());
+            return campos;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.sergiocostaczr.libraryapi.service;
+
+import com.github.sergiocostaczr.libraryapi.model.GeneroLivro;
+import com.github.sergiocostaczr.libraryapi.model.Livro;
+import com.github.sergiocostaczr.libraryapi.repository.LivroRepository;
+import com.github.sergiocostaczr.libraryapi.repository.specs.LivroSpecs;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+public class LivroService {
+
+    // Só colunas com indice podem ser usadas na ordenação (ver comandos-sql.txt e @Table de Livro).
+    public static final Set<String> CAMPOS_ORDENACAO = Set.of("titulo", "preco", "dataPublicacao", "genero", "isbn");
+
+    private final LivroRepository livroRepository;
+
+    public Page<Livro> pesquisa(GeneroLivro genero,
+                                String titulo,
+                                String isbn,
+                                BigDecimal precoMinimo,
+                                BigDecimal precoMaximo,
+                                LocalDate publicadoAPartirDe,
+                                LocalDate publicadoAte,
+                                Pageable pageable){
+
+        List<Specification<Livro>> filtros = new ArrayList<>();
+
+        if (genero != null){
+            filtros.add(LivroSpecs.generoEqual(genero));
+        }
+        if (titulo != null && !titulo.isBlank()){
+            filtros.add(LivroSpecs.tituloComecaCom(titulo));
+        }
+        if (isbn != null && !isbn.isBlank()){
+            filtros.add(LivroSpecs.isbnEqual(isbn));
+        }
+        if (precoMinimo != null){
+            filtros.add(LivroSpecs.precoMaiorOuIgual(precoMinimo));
+        }
+        if (precoMaximo != null){
+            filtros.add(LivroSpecs.precoMenorOuIgual(precoMaximo));
+        }
+        if (publicadoAPartirDe != null){
+            filtros.add(LivroSpecs.publicadoAPartirDe(publicadoAPartirDe));
+        }
+        if (publicadoAte != null){
+            filtros.add(LivroSpecs.publicadoAte(publicadoAte));
+        }
+
+        return livroRepository.findAll(Specification.allOf(filtros), paginacaoValidada(pageable));
+    }
+
+    // Busca textual no titulo (TermoBusca), ordenada pela relevancia: a ordenação do Pageable é ignorada.
+    public Page<Livro> buscar(String texto, Pageable pageable){
+        TermoBusca termo = TermoBusca.de(texto);
+        Pageable pagina = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+
+        // A busca aproximada (trigramas) custa bem mais: só quando nenhuma palavra casou por prefixo.
+        Page<Livro> resultado = livroRepository.buscarPorPrefixo(termo.prefixos(), pagina);
+        if (resultado.getTotalElements() > 0){
+            return resultado;
+        }
+        return livroRepository.buscarAproximado(termo.termo(), pagina);
+    }
+
+    private Pageable paginacaoValidada(Pageable pageable){
+        for (Sort.Order ordem : pageable.getSort()){
+            if (!CAMPOS_ORDENACAO.contains(ordem.getProperty())){
+                throw new IllegalArgumentException("Ordenação não permitida: " + ordem.getProperty()
+                        + ". Campos permitidos: " + CAMPOS_ORDENACAO);
+            }
+        }
+
+        // id no final deixa a ordem deterministica entre paginas quando os valores se repetem.
+        Sort ordenacao = pageable.getSort().and(Sort.by("id"));
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), ordenacao);
+    }
+}
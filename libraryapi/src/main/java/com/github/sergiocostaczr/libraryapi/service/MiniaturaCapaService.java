@@ -0,0 +1,171 @@
+package com.github.sergiocostaczr.libraryapi.service;
+
+import com.github.sergiocostaczr.libraryapi.armazenamento.ArmazenamentoArquivos;
+import com.github.sergiocostaczr.libraryapi.armazenamento.ArquivoArmazenado;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Miniaturas das capas (largura maxima app.capas.miniatura.largura, altura até o dobro dela, JPEG), geradas fora
+ * da requisição do upload.
+ *
+ * O executor tem threads e fila limitadas: com a fila cheia o pedido é descartado e a miniatura é gerada
+ * na primeira vez que for pedida (CapaLivroService.obterMiniatura). A chave da miniatura vem da chave da capa,
+ * então capas iguais (mesmo hash) compartilham a mesma miniatura.
+ */
+@Service
+public class MiniaturaCapaService {
+
+    private static final Logger log = LoggerFactory.getLogger(MiniaturaCapaService.class);
+
+    private static final String PREFIXO = "miniaturas";
+    // Altura maxima da miniatura, em larguras: capas são ~2:3, uma imagem estreita e muito alta é reduzida pela altura.
+    private static final int PROPORCAO_ALTURA_MAXIMA = 2;
+
+    private final ArmazenamentoArquivos armazenamento;
+    private final int larguraMaxima;
+    private final ThreadPoolExecutor executor;
+    // Chaves na fila ou sendo geradas: varios pedidos da mesma miniatura viram uma tarefa só.
+    private final Set<String> pendentes = ConcurrentHashMap.newKeySet();
+
+    public MiniaturaCapaService(ArmazenamentoArquivos armazenamento,
+                                @Value("${app.capas.miniatura.largura:200}") int larguraMaxima,
+                                @Value("${app.capas.miniatura.threads:2}") int threads,
+                                @Value("${app.capas.miniatura.fila:100}") int fila) {
+        this.armazenamento = armazenamento;
+        this.larguraMaxima = larguraMaxima;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fila),
+                Thread.ofPlatform().name("miniatura-capa-", 1).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // capas/3f/3f9a...c1.png -> miniaturas/3f/3f9a...c1-200.jpg (a largura na chave invalida as antigas se mudar)
+    public String chaveMiniatura(String chaveCapa){
+        String nome = chaveCapa.substring(chaveCapa.lastIndexOf('/') + 1, chaveCapa.lastIndexOf('.'));
+        return PREFIXO + "/" + nome.substring(0, 2) + "/" + nome + "-" + larguraMaxima + "." + TipoImagem.JPEG.getExtensao();
+    }
+
+    // false: fila cheia, nada foi agendado.
+    public boolean agendar(String chaveCapa){
+        String chave = chaveMiniatura(chaveCapa);
+        if (!pendentes.add(chave)){
+            return true;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    gerar(chaveCapa, chave);
+                } catch (Exception e) {
+                    log.warn("Falha ao gerar a miniatura de {}", chaveCapa, e);
+                } finally {
+                    pendentes.remove(chave);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            pendentes.remove(chave);
+            log.warn("Fila de miniaturas cheia, {} fica para o proximo pedido", chaveCapa);
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void encerrar(){
+        executor.shutdownNow();
+    }
+
+    private void gerar(String chaveCapa, String chave) throws IOException {
+        if (armazenamento.buscar(chave).isPresent()){
+            return;
+        }
+        Optional<ArquivoArmazenado> capa = armazenamento.buscar(chaveCapa);
+        if (capa.isEmpty()){
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        BufferedImage imagem;
+        try (InputStream entrada = armazenamento.abrir(chaveCapa, 0, capa.get().tamanho())) {
+            imagem = ler(entrada);
+        }
+        if (imagem == null){
+            log.warn("Capa {} não pôde ser lida como imagem, sem miniatura", chaveCapa);
+            return;
+        }
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        ImageIO.write(redimensionar(imagem), "jpg", saida);
+        armazenamento.salvar(chave, new ByteArrayInputStream(saida.toByteArray()));
+        log.debug("Miniatura {} gerada em {} ms", chave, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    // Lê pulando linhas/colunas (subsampling) quando a imagem é bem maior que a miniatura, nas duas direções:
+    // uma capa de 6000x9000 (ou uma tira de 200x60000) não precisa ser decodificada inteira no heap.
+    private BufferedImage ler(InputStream entrada) throws IOException {
+        try (ImageInputStream imagem = ImageIO.createImageInputStream(entrada)) {
+            Iterator<ImageReader> leitores = ImageIO.getImageReaders(imagem);
+            if (!leitores.hasNext()){
+                return null;
+            }
+            ImageReader leitor = leitores.next();
+            try {
+                leitor.setInput(imagem, true, true);
+                int largura = leitor.getWidth(0);
+                int altura = leitor.getHeight(0);
+                Dimension miniatura = tamanhoMiniatura(largura, altura);
+                // pelo menos o dobro da miniatura nas duas direções, para a redução final ainda suavizar
+                int fator = Math.max(1, Math.min(largura / (miniatura.width * 2), altura / (miniatura.height * 2)));
+                ImageReadParam parametros = leitor.getDefaultReadParam();
+                parametros.setSourceSubsampling(fator, fator, 0, 0);
+                return leitor.read(0, parametros);
+            } finally {
+                leitor.dispose();
+            }
+        }
+    }
+
+    // Cabe em larguraMaxima x larguraMaxima * PROPORCAO_ALTURA_MAXIMA, mantendo a proporção; nunca amplia.
+    private Dimension tamanhoMiniatura(int largura, int altura){
+        double escala = Math.min(1, Math.min((double) larguraMaxima / largura,
+                (double) larguraMaxima * PROPORCAO_ALTURA_MAXIMA / altura));
+        return new Dimension(Math.max(1, (int) (largura * escala)), Math.max(1, (int) (altura * escala)));
+    }
+
+    private BufferedImage redimensionar(BufferedImage imagem){
+        Dimension tamanho = tamanhoMiniatura(imagem.getWidth(), imagem.getHeight());
+        int largura = tamanho.width;
+        int altura = tamanho.height;
+
+        // JPEG não tem transparencia: fundo branco para PNG/GIF transparentes.
+        BufferedImage miniatura = new BufferedImage(largura, altura, BufferedImage.TYPE_INT_RGB);
+        Graphics2D grafico = miniatura.createGraphics();
+        try {
+            grafico.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            grafico.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            grafico.drawImage(imagem, 0, 0, largura, altura, Color.WHITE, null);
+        } finally {
+            grafico.dispose();
+        }
+        return miniatura;
+    }
+}
@@ -0,0 +1,243 @@
+package com.github.sergiocostaczr.libraryapi.service;
+
+import com.github.sergiocostaczr.libraryapi.exceptions.OperacaoNaoPermitidaException;
+import com.github.sergiocostaczr.libraryapi.model.GeneroLivro;
+import com.github.sergiocostaczr.libraryapi.model.OperacaoLote;
+import com.github.sergiocostaczr.libraryapi.model.StatusOperacaoLote;
+import com.github.sergiocostaczr.libraryapi.model.TipoOperacaoLote;
+import com.github.sergiocostaczr.libraryapi.repository.LivroRepository;
+import com.github.sergiocostaczr.libraryapi.repository.OperacaoLoteRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Update/delete em massa de livros sem segurar lock na tabela inteira.
+ *
+ * Em vez de um unico "update livro set ..." / "delete from livro where genero = ?", os ids são percorridos
+ * em ordem (id > ultimoId order by id limit tamanhoLote) e cada lote roda numa transação curta,
+ * que tambem grava o checkpoint. Entre os lotes há uma pausa para respeitar o limite de lotes por segundo.
+ *
+ * Com varias instancias da aplicação, cada operação pertence à instancia que a iniciou (coluna instancia),
+ * que renova ultimo_sinal periodicamente. Só operações sem sinal há mais de tempoSemSinal são marcadas como
+ * interrompidas; as trocas de status são updates condicionais, então uma operação nunca roda em dois lugares.
+ */
+@Service
+public class OperacaoLoteLivroService {
+
+    private static final Logger log = LoggerFactory.getLogger(OperacaoLoteLivroService.class);
+
+    // Menor uuid possivel, ponto de partida quando ainda não há checkpoint.
+    private static final UUID INICIO = new UUID(0L, 0L);
+    private static final List<StatusOperacaoLote> STATUS_RETOMAVEIS =
+            List.of(StatusOperacaoLote.FALHOU, StatusOperacaoLote.INTERROMPIDA);
+
+    private final LivroRepository livroRepository;
+    private final OperacaoLoteRepository operacaoLoteRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EstatisticasCatalogoService estatisticasCatalogoService;
+    private final int tamanhoLote;
+    private final long intervaloMinimoMs;
+    private final Duration tempoSemSinal;
+    private final String instancia;
+    private final ExecutorService executor;
+
+    public OperacaoLoteLivroService(LivroRepository livroRepository,
+                                    OperacaoLoteRepository operacaoLoteRepository,
+                                    TransactionTemplate transactionTemplate,
+                                    EstatisticasCatalogoService estatisticasCatalogoService,
+                                    @Value("${app.operacao-lote.tamanho-lote:1000}") int tamanhoLote,
+                                    @Value("${app.operacao-lote.lotes-por-segundo:5}") double lotesPorSegundo,
+                                    @Value("${app.operacao-lote.threads:1}") int threads,
+                                    @Value("${app.operacao-lote.tempo-sem-sinal:2m}") Duration tempoSemSinal,
+                                    @Value("${app.operacao-lote.instancia:}") String instancia) {
+        this.livroRepository = livroRepository;
+        this.operacaoLoteRepository = operacaoLoteRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.estatisticasCatalogoService = estatisticasCatalogoService;
+        this.tamanhoLote = tamanhoLote;
+        this.intervaloMinimoMs = lotesPorSegundo > 0 ? (long) (1000 / lotesPorSegundo) : 0;
+        this.tempoSemSinal = tempoSemSinal;
+        // Sem nome configurado: um id por execução, operações de uma execução anterior não são confundidas com as atuais.
+        this.instancia = instancia.isBlank() ? UUID.randomUUID().toString() : instancia;
+        this.executor = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("operacao-lote-", 1).factory());
+    }
+
+    public OperacaoLote atualizarDataPublicacao(LocalDate novaData){
+        OperacaoLote operacao = novaOperacao(TipoOperacaoLote.ATUALIZAR_DATA_PUBLICACAO);
+        operacao.setNovaDataPublicacao(novaData);
+        return iniciar(operacao);
+    }
+
+    public OperacaoLote deletarPorGenero(GeneroLivro genero){
+        OperacaoLote operacao = novaOperacao(TipoOperacaoLote.DELETAR_POR_GENERO);
+        operacao.setGenero(genero);
+        return iniciar(operacao);
+    }
+
+    public Optional<OperacaoLote> obterPorId(UUID id){
+        return operacaoLoteRepository.findById(id);
+    }
+
+    /**
+     * Continua a partir do ultimoId gravado. A troca FALHOU/INTERROMPIDA -> PENDENTE é um update condicional:
+     * duas retomadas simultaneas não iniciam a operação duas vezes.
+     *
+     * @return vazio se a operação não existe.
+     */
+    public Optional<OperacaoLote> retomar(UUID id){
+        if (operacaoLoteRepository.retomar(id, STATUS_RETOMAVEIS, instancia, LocalDateTime.now()) == 0){
+            if (operacaoLoteRepository.existsById(id)){
+                throw new OperacaoNaoPermitidaException("Só é possivel retomar operações com falha ou interrompidas");
+            }
+            return Optional.empty();
+        }
+        executor.execute(() -> executar(id));
+        return operacaoLoteRepository.findById(id);
+    }
+
+    /**
+     * Sinal de vida das operações desta instancia e, em seguida, operações de instancias que pararam
+     * (inclusive desta mesma aplicação numa execução anterior) ficam disponiveis para retomada.
+     * Roda logo na inicialização e depois a cada intervalo.
+     */
+    @Scheduled(fixedDelayString = "${app.operacao-lote.intervalo-sinal:30s}")
+    public void verificarSinais(){
+        LocalDateTime agora = LocalDateTime.now();
+        operacaoLoteRepository.renovarSinal(instancia, agora);
+        int interrompidas = operacaoLoteRepository.marcarSemSinal(agora.minus(tempoSemSinal), agora);
+        if (interrompidas > 0){
+            log.warn("{} operação(ões) em lote sem sinal da instancia há mais de {}, marcada(s) como interrompida(s)",
+                    interrompidas, tempoSemSinal);
+        }
+    }
+
+    @PreDestroy
+    public void encerrar(){
+        executor.shutdownNow();
+    }
+
+    private OperacaoLote novaOperacao(TipoOperacaoLote tipo){
+        OperacaoLote operacao = new OperacaoLote();
+        operacao.setTipo(tipo);
+        operacao.setTamanhoLote(tamanhoLote);
+        return operacao;
+    }
+
+    private OperacaoLote iniciar(OperacaoLote operacao){
+        operacao.setStatus(StatusOperacaoLote.PENDENTE);
+        operacao.setInstancia(instancia);
+        operacao.setUltimoSinal(LocalDateTime.now());
+        OperacaoLote salva = operacaoLoteRepository.save(operacao);
+        executor.execute(() -> executar(salva.getId()));
+        return salva;
+    }
+
+    private void executar(UUID id){
+        // Marcada como interrompida enquanto esperava na fila (sinal atrasado): fica para uma nova retomada.
+        if (operacaoLoteRepository.iniciarExecucao(id, instancia, LocalDateTime.now()) == 0){
+            log.warn("Operação em lote {} não está mais pendente nesta instancia, ignorada", id);
+            return;
+        }
+        OperacaoLote operacao = operacaoLoteRepository.findById(id).orElseThrow();
+
+        try {
+            boolean continuar = true;
+            while (continuar){
+                long inicio = System.currentTimeMillis();
+
+                OperacaoLote atual = operacao;
+                operacao = transactionTemplate.execute(status -> processarLote(atual));
+                continuar = operacao.getStatus() == StatusOperacaoLote.EXECUTANDO;
+
+                if (continuar){
+                    aguardar(inicio);
+                }
+            }
+            log.info("Operação em lote {} concluida: {} livro(s) processado(s)", id, operacao.getProcessados());
+        } catch (PosseDaOperacaoPerdidaException e) {
+            // Outra instancia pode estar executando a partir daqui: não mexe mais na linha.
+            log.warn("Operação em lote {} marcada como interrompida durante a execução, lote desfeito", id);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finalizar(id, StatusOperacaoLote.INTERROMPIDA, "Execução interrompida");
+        } catch (RuntimeException e) {
+            log.error("Falha na operação em lote {}", id, e);
+            finalizar(id, StatusOperacaoLote.FALHOU, e.getMessage());
+        } finally {
+            // Update/delete em massa não passa pelos listeners do Hibernate: estatisticas relidas do banco.
+            estatisticasCatalogoService.marcarRecalculo();
+        }
+    }
+
+    // Roda dentro da transação do lote: alteração dos livros e checkpoint são confirmados juntos.
+    private OperacaoLote processarLote(OperacaoLote operacao){
+        UUID ultimoId = operacao.getUltimoId() == null ? INICIO : operacao.getUltimoId();
+        Limit limite = Limit.of(operacao.getTamanhoLote());
+
+        List<UUID> ids = switch (operacao.getTipo()){
+            case ATUALIZAR_DATA_PUBLICACAO -> livroRepository.buscarIdsApos(ultimoId, limite);
+            case DELETAR_POR_GENERO -> livroRepository.buscarIdsPorGeneroApos(operacao.getGenero(), ultimoId, limite);
+        };
+
+        if (ids.isEmpty()){
+            operacao.setStatus(StatusOperacaoLote.CONCLUIDA);
+            return registrar(operacao);
+        }
+
+        int alterados = switch (operacao.getTipo()){
+            case ATUALIZAR_DATA_PUBLICACAO -> livroRepository.updateDataPublicacaoPorIds(operacao.getNovaDataPublicacao(), ids);
+            case DELETAR_POR_GENERO -> livroRepository.deleteByIdIn(ids);
+        };
+
+        operacao.setUltimoId(ids.getLast());
+        operacao.setProcessados(operacao.getProcessados() + alterados);
+        if (ids.size() < operacao.getTamanhoLote()){
+            operacao.setStatus(StatusOperacaoLote.CONCLUIDA);
+        }
+        return registrar(operacao);
+    }
+
+    // Checkpoint condicionado à posse: se outra instancia assumiu, a exceção desfaz o lote inteiro.
+    private OperacaoLote registrar(OperacaoLote operacao){
+        int registrados = operacaoLoteRepository.registrarLote(operacao.getId(), instancia, operacao.getUltimoId(),
+                operacao.getProcessados(), operacao.getStatus(), LocalDateTime.now());
+        if (registrados == 0){
+            throw new PosseDaOperacaoPerdidaException();
+        }
+        return operacao;
+    }
+
+    // Limita a taxa de lotes para não disputar I/O e WAL com o trafego normal.
+    private void aguardar(long inicioLote) throws InterruptedException {
+        long restante = intervaloMinimoMs - (System.currentTimeMillis() - inicioLote);
+        if (restante > 0){
+            Thread.sleep(restante);
+        }
+        if (Thread.currentThread().isInterrupted()){
+            throw new InterruptedException();
+        }
+    }
+
+    private void finalizar(UUID id, StatusOperacaoLote status, String mensagem){
+        operacaoLoteRepository.finalizar(id, instancia, status,
+                mensagem == null ? null : mensagem.substring(0, Math.min(mensagem.length(), 500)), LocalDateTime.now());
+    }
+
+    private static class PosseDaOperacaoPerdidaException extends RuntimeException {
+    }
+}
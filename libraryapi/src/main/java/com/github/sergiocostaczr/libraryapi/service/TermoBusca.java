@@ -0,0 +1,40 @@
+package com.github.sergiocostaczr.libraryapi.service;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Texto digitado na busca (/autores/busca, /livros/busca) nos dois formatos usados pelas consultas:
+ * - termo: texto normalizado, comparado por trigramas (pg_trgm) -> tolera erro de digitação;
+ * - prefixos: tsquery com cada palavra como prefixo ("mach:* & assi:*") -> "mach assi" encontra "Machado de Assis".
+ */
+public record TermoBusca(String termo, String prefixos) {
+
+    public static final int TAMANHO_MINIMO = 2;
+    public static final int TAMANHO_MAXIMO = 100;
+
+    public static TermoBusca de(String texto){
+        if (texto == null || texto.isBlank()){
+            throw new IllegalArgumentException("Informe o texto da busca (parametro q)");
+        }
+
+        // Só letras e digitos: nada do texto chega como operador do tsquery (&, |, !, :, parenteses).
+        String[] palavras = Arrays.stream(texto.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(p -> !p.isEmpty())
+                .toArray(String[]::new);
+        String termo = String.join(" ", palavras);
+
+        if (termo.length() < TAMANHO_MINIMO){
+            throw new IllegalArgumentException("A busca precisa de pelo menos " + TAMANHO_MINIMO + " caracteres");
+        }
+        if (termo.length() > TAMANHO_MAXIMO){
+            throw new IllegalArgumentException("A busca aceita no maximo " + TAMANHO_MAXIMO + " caracteres");
+        }
+
+        String prefixos = Arrays.stream(palavras)
+                .map(p -> p + ":*")
+                .collect(Collectors.joining(" & "));
+        return new TermoBusca(termo, prefixos);
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.sergiocostaczr.libraryapi.service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+// Formatos aceitos para capa. O tipo vem dos primeiros bytes do arquivo, não do nome ou Content-Type do cliente.
+public enum TipoImagem {
+
+    PNG("png", "image/png", new byte[]{(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A}),
+    JPEG("jpg", "image/jpeg", new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}),
+    GIF("gif", "image/gif", new byte[]{'G', 'I', 'F', '8'});
+
+    private final String extensao;
+    private final String tipoConteudo;
+    private final byte[] assinatura;
+
+    TipoImagem(String extensao, String tipoConteudo, byte[] assinatura) {
+        this.extensao = extensao;
+        this.tipoConteudo = tipoConteudo;
+        this.assinatura = assinatura;
+    }
+
+    public String getExtensao() {
+        return extensao;
+    }
+
+    public String getTipoConteudo() {
+        return tipoConteudo;
+    }
+
+    // Olha o inicio do stream sem consumir (mark/reset).
+    public static TipoImagem detectar(BufferedInputStream entrada) throws IOException {
+        entrada.mark(16);
+        byte[] cabecalho = entrada.readNBytes(8);
+        entrada.reset();
+
+        for (TipoImagem tipo : values()) {
+            if (cabecalho.length >= tipo.assinatura.length
+                    && Arrays.equals(cabecalho, 0, tipo.assinatura.length, tipo.assinatura, 0, tipo.assinatura.length)) {
+                return tipo;
+            }
+        }
+        throw new IllegalArgumentException("Formato de imagem não suportado, envie PNG, JPEG ou GIF");
+    }
+
+    public static TipoImagem porNomeArquivo(String nomeArquivo) {
+        String extensao = nomeArquivo.substring(nomeArquivo.lastIndexOf('.') + 1);
+        for (TipoImagem tipo : values()) {
+            if (tipo.extensao.equals(extensao)) {
+                return tipo;
+            }
+        }
+        throw new IllegalArgumentException("Extensão de imagem desconhecida: " + nomeArquivo);
+    }
+}
@@ -67,21 +67,9 @@ public class TransacaoService {
 
     }
 
-    /// livro (titulo,..., nome_arquivo) -> id.png
-    @Transactional
-    public  void salvarLivro(){
-        // salva o livro
-        // repository.save(livro);
-
-        // pega o id do livro = livro.getId();
-        // var id = livro.getId();
-
-        // salvar foto do livro -> bucket na nuvem
-        // bucketService.salvr(livro.getFoto(), id + ".png");
-
-        // atualizar nome do arquivo que foi salvo
-        // livro.setNomeArquivoFoto(id + ".png");
-    }
+    /// livro (titulo,..., nome_arquivo) -> arquivo da capa
+    // Implementado em CapaLivroService (PUT /livros/{id}/capa): o arquivo é gravado fora da transação,
+    // com nome pelo hash do conteudo em vez de id.png, e só depois o livro é atualizado com o nome do arquivo.
 
 
 
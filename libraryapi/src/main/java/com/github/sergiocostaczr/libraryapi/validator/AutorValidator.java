@@ -7,6 +7,7 @@ import com.github.sergiocostaczr.libraryapi.service.AutorService;
 import org.springframework.stereotype.Component;
 
 import java.util.Optional;
+import java.util.UUID;
 
 @Component
 public class AutorValidator {
@@ -28,14 +29,14 @@ public class AutorValidator {
     }
 
     private boolean existeAutorCadastrado(Autor autor){
-        Optional<Autor> autorOptional = autorRepository.findByNomeAndDataNascimentoAndNacionalidade(autor.getNome(), autor.getDataNascimento(),autor.getNacionalidade());
+        Optional<UUID> idCadastrado = autorRepository.buscarIdPorDadosUnicos(autor.getNome(), autor.getDataNascimento(),autor.getNacionalidade());
 
 
         if (autor.getId() == null){
-            return  autorOptional.isPresent();
+            return  idCadastrado.isPresent();
         }
 
-        return !autor.getId().equals(autorOptional.get().getId()) && autorOptional.isPresent();
+        return idCadastrado.isPresent() && !autor.getId().equals(idCadastrado.get());
 
     }
 
@@ -0,0 +1,88 @@
+package com.github.sergiocostaczr.libraryapi.armazenamento;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArmazenamentoLocalTest {
+
+    @TempDir
+    Path raiz;
+
+    ArmazenamentoLocal armazenamento;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        armazenamento = new ArmazenamentoLocal(raiz);
+    }
+
+    @Test
+    void mesmoConteudoFicaNumArquivoSo() throws IOException {
+        ArquivoArmazenado primeiro = armazenamento.salvarPorConteudo("capas", "png", conteudo("capa"));
+        ArquivoArmazenado segundo = armazenamento.salvarPorConteudo("capas", "png", conteudo("capa"));
+
+        assertEquals(primeiro, segundo);
+        assertEquals(1, contarArquivos(raiz.resolve("capas")));
+        assertEquals(0, contarArquivos(raiz.resolve("tmp")));
+    }
+
+    @Test
+    void chaveVemDoSha256DoConteudo() throws IOException {
+        ArquivoArmazenado arquivo = armazenamento.salvarPorConteudo("capas", "png", conteudo("abc"));
+
+        // sha-256 de "abc"
+        String hash = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+        assertEquals("capas/ba/" + hash + ".png", arquivo.chave());
+        assertEquals(3, arquivo.tamanho());
+        assertArrayEquals("abc".getBytes(StandardCharsets.UTF_8), Files.readAllBytes(raiz.resolve(arquivo.chave())));
+    }
+
+    @Test
+    void abrirDevolveSoOTrechoPedido() throws IOException {
+        ArquivoArmazenado arquivo = armazenamento.salvarPorConteudo("capas", "png", conteudo("0123456789"));
+
+        try (InputStream trecho = armazenamento.abrir(arquivo.chave(), 3, 4)) {
+            assertEquals("3456", new String(trecho.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void salvarComChaveSubstituiOConteudo() throws IOException {
+        armazenamento.salvar("miniaturas/ab/abc-200.jpg", conteudo("antiga"));
+        armazenamento.salvar("miniaturas/ab/abc-200.jpg", conteudo("nova"));
+
+        assertEquals(4, armazenamento.buscar("miniaturas/ab/abc-200.jpg").orElseThrow().tamanho());
+    }
+
+    @Test
+    void buscarChaveInexistente() throws IOException {
+        assertTrue(armazenamento.buscar("capas/00/nada.png").isEmpty());
+    }
+
+    @Test
+    void chaveForaDaRaizERecusada() {
+        assertThrows(IllegalArgumentException.class, () -> armazenamento.buscar("../fora.png"));
+        assertThrows(IllegalArgumentException.class, () -> armazenamento.buscar("/etc/passwd"));
+        assertThrows(IllegalArgumentException.class, () -> armazenamento.salvar("tmp/x.png", conteudo("x")));
+    }
+
+    private static InputStream conteudo(String texto){
+        return new ByteArrayInputStream(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long contarArquivos(Path diretorio) throws IOException {
+        try (Stream<Path> arquivos = Files.walk(diretorio)) {
+            return arquivos.filter(Files::isRegularFile).count();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.sergiocostaczr.libraryapi.carga;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gerador de carga simples para comparar platform threads x virtual threads.
+ *
+ * Subir a aplicação nos dois modos e rodar contra o mesmo endpoint:
+ *   mvn spring-boot:run -Dspring-boot.run.jvmArguments="-DVIRTUAL_THREADS=false"
+ *   mvn spring-boot:run -Dspring-boot.run.jvmArguments="-DVIRTUAL_THREADS=true -Djdk.tracePinnedThreads=short"
+ *
+ *   java CargaHttp <url> [requisicoes=10000] [concorrencia=500]
+ *
+ * Imprime p50, p99, max, throughput e a contagem de respostas por status (503 = LimiteConcorrenciaFilter).
+ */
+public class CargaHttp {
+
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : "http://localhost:8080/autores/pagina?tamanho=20";
+        int requisicoes = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int concorrencia = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).GET().build();
+
+        // aquecimento (JIT, pools de conexão, caches)
+        executar(client, request, Math.min(requisicoes, 1000), concorrencia);
+
+        Resultado resultado = executar(client, request, requisicoes, concorrencia);
+        resultado.imprimir(url, concorrencia);
+    }
+
+    private static Resultado executar(HttpClient client, HttpRequest request, int requisicoes, int concorrencia)
+            throws InterruptedException {
+        long[] latencias = new long[requisicoes];
+        AtomicInteger sucesso = new AtomicInteger();
+        AtomicInteger indisponivel = new AtomicInteger();
+        AtomicInteger falha = new AtomicInteger();
+        Semaphore emVoo = new Semaphore(concorrencia);
+
+        long inicio = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requisicoes; i++) {
+                int indice = i;
+                emVoo.acquire();
+                executor.submit(() -> {
+                    long t0 = System.nanoTime();
+                    try {
+                        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        if (status == 503) indisponivel.incrementAndGet();
+                        else if (status < 400) sucesso.incrementAndGet();
+                        else falha.incrementAndGet();
+                    } catch (Exception e) {
+                        falha.incrementAndGet();
+                    } finally {
+                        latencias[indice] = System.nanoTime() - t0;
+                        emVoo.release();
+                    }
+                });
+            }
+        }
+        long duracao = System.nanoTime() - inicio;
+        return new Resultado(latencias, duracao, sucesso.get(), indisponivel.get(), falha.get());
+    }
+
+    private record Resultado(long[] latencias, long duracaoNanos, int sucesso, int indisponivel, int falha) {
+
+        void imprimir(String url, int concorrencia) {
+            long[] ordenadas = latencias.clone();
+            Arrays.sort(ordenadas);
+            double segundos = duracaoNanos / 1e9;
+            System.out.printf("url=%s requisicoes=%d concorrencia=%d%n",
+                    url, ordenadas.length, concorrencia);
+            System.out.printf("p50=%.1fms p99=%.1fms max=%.1fms throughput=%.0f req/s%n",
+                    percentil(ordenadas, 50), percentil(ordenadas, 99), ordenadas[ordenadas.length - 1] / 1e6,
+                    ordenadas.length / segundos);
+            System.out.printf("ok=%d 503=%d falhas=%d%n", sucesso, indisponivel, falha);
+        }
+
+        private static double percentil(long[] ordenadas, double p) {
+            int indice = (int) Math.ceil(p / 100 * ordenadas.length) - 1;
+            return ordenadas[Math.max(indice, 0)] / 1e6;
+        }
+    }
+}
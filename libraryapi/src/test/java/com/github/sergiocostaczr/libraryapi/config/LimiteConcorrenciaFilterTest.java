@@ -0,0 +1,68 @@
+package com.github.sergiocostaczr.libraryapi.config;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Vaga do limite de concorrencia em requisições sincronas e assincronas, sem servidor.
+ */
+class LimiteConcorrenciaFilterTest {
+
+    // Uma vaga, sem espera: a segunda requisição simultanea recebe 503 na hora.
+    LimiteConcorrenciaFilter filtro = new LimiteConcorrenciaFilter(new PoolConexaoProperties(),
+            JsonMapper.builder().build(), 1, Duration.ZERO);
+
+    @Test
+    void requisicaoSincronaDevolveAVagaNoFim() throws Exception {
+        assertEquals(200, executar(new MockFilterChain()).getStatus());
+        assertEquals(200, executar(new MockFilterChain()).getStatus());
+    }
+
+    @Test
+    void requisicaoAssincronaSeguraAVagaAteCompletar() throws Exception {
+        MockHttpServletRequest streaming = requisicao();
+        filtro.doFilter(streaming, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+        assertTrue(streaming.isAsyncStarted());
+
+        assertEquals(503, executar(new MockFilterChain()).getStatus());
+
+        streaming.getAsyncContext().complete();
+        assertEquals(200, executar(new MockFilterChain()).getStatus());
+    }
+
+    @Test
+    void fimAvisadoDuasVezesDevolveUmaVagaSo() throws Exception {
+        MockHttpServletRequest streaming = requisicao();
+        filtro.doFilter(streaming, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+        AsyncContext contexto = streaming.getAsyncContext();
+
+        // Como onError seguido de onComplete: o listener é chamado duas vezes para a mesma vaga.
+        contexto.complete();
+        contexto.complete();
+
+        MockHttpServletRequest segunda = requisicao();
+        filtro.doFilter(segunda, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+        assertEquals(503, executar(new MockFilterChain()).getStatus());
+    }
+
+    private MockHttpServletResponse executar(FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(requisicao(), response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest requisicao(){
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/autores");
+        request.setAsyncSupported(true);
+        return request;
+    }
+}
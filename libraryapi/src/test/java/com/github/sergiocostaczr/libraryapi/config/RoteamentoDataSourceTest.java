@@ -0,0 +1,109 @@
+package com.github.sergiocostaczr.libraryapi.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Roteamento com dois bancos H2 em memoria no lugar do primario e das replicas.
+ * Cada banco tem uma tabela "origem" com o proprio nome, assim a consulta mostra para onde foi roteada.
+ */
+class RoteamentoDataSourceTest {
+
+    DataSource primario = banco("primario");
+    DataSource replica1 = banco("replica1");
+    DataSource replica2 = banco("replica2");
+
+    PoolConexaoProperties.Roteamento roteamento = new PoolConexaoProperties.Roteamento();
+
+    @BeforeEach
+    void setUp(){
+        // Sem consulta de atraso as replicas ficam sempre disponiveis.
+        roteamento.setConsultaAtraso(null);
+    }
+
+    @Test
+    void transacaoDeEscritaVaiParaOPrimario(){
+        RoteamentoDataSource roteador = roteador(replica1);
+
+        assertEquals("primario", consultarOrigem(roteador, false));
+    }
+
+    @Test
+    void transacaoReadOnlyVaiParaAReplica(){
+        RoteamentoDataSource roteador = roteador(replica1);
+
+        assertEquals("replica1", consultarOrigem(roteador, true));
+    }
+
+    @Test
+    void roundRobinAlternaEntreAsReplicas(){
+        RoteamentoDataSource roteador = roteador(replica1, replica2);
+
+        assertEquals("replica1", consultarOrigem(roteador, true));
+        assertEquals("replica2", consultarOrigem(roteador, true));
+        assertEquals("replica1", consultarOrigem(roteador, true));
+    }
+
+    @Test
+    void replicaComAtrasoVoltaParaOPrimario(){
+        // H2 não tem replicação: a consulta devolve um atraso fixo de 30s, acima do limite de 10s.
+        roteamento.setConsultaAtraso("select 30");
+        roteamento.setAtrasoMaximo(Duration.ofSeconds(10));
+        RoteamentoDataSource roteador = roteador(replica1);
+
+        roteador.verificarReplicas();
+
+        assertFalse(roteador.getReplicas().getFirst().isDisponivel());
+        assertEquals("primario", consultarOrigem(roteador, true));
+    }
+
+    @Test
+    void replicaDentroDoLimiteContinuaNoRodizio(){
+        roteamento.setConsultaAtraso("select 1");
+        roteamento.setAtrasoMaximo(Duration.ofSeconds(10));
+        RoteamentoDataSource roteador = roteador(replica1);
+
+        roteador.verificarReplicas();
+
+        assertEquals("replica1", consultarOrigem(roteador, true));
+    }
+
+    private RoteamentoDataSource roteador(DataSource... replicas){
+        List<RoteamentoDataSource.Replica> lista = new ArrayList<>();
+        for (int i = 0; i < replicas.length; i++){
+            lista.add(new RoteamentoDataSource.Replica("replica" + (i + 1), replicas[i]));
+        }
+        return new RoteamentoDataSource(primario, lista, roteamento);
+    }
+
+    // Mesma montagem da aplicação: LazyConnectionDataSourceProxy na frente do roteador.
+    private String consultarOrigem(RoteamentoDataSource roteador, boolean somenteLeitura){
+        DataSource dataSource = new LazyConnectionDataSourceProxy(roteador);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(somenteLeitura);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("select nome from origem", String.class));
+    }
+
+    private static DataSource banco(String nome){
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + nome + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists origem (nome varchar(20))");
+        jdbcTemplate.execute("delete from origem");
+        jdbcTemplate.update("insert into origem values (?)", nome);
+        return dataSource;
+    }
+}
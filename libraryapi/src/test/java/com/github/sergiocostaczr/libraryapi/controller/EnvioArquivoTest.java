@@ -0,0 +1,44 @@
+package com.github.sergiocostaczr.libraryapi.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static com.github.sergiocostaczr.libraryapi.controller.EnvioArquivo.INSATISFAZIVEL;
+import static com.github.sergiocostaczr.libraryapi.controller.EnvioArquivo.Intervalo;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnvioArquivoTest {
+
+    @Test
+    void intervalosDeUmaParte() {
+        assertEquals(new Intervalo(0, 99), EnvioArquivo.interpretarRange("bytes=0-99", 1000));
+        assertEquals(new Intervalo(900, 999), EnvioArquivo.interpretarRange("bytes=900-", 1000));
+        assertEquals(new Intervalo(900, 999), EnvioArquivo.interpretarRange("bytes=-100", 1000));
+        // Fim depois do arquivo e sufixo maior que o arquivo são cortados no tamanho.
+        assertEquals(new Intervalo(500, 999), EnvioArquivo.interpretarRange("bytes=500-5000", 1000));
+        assertEquals(new Intervalo(0, 999), EnvioArquivo.interpretarRange("bytes=-5000", 1000));
+    }
+
+    @Test
+    void rangeIgnoradoRespondeOArquivoInteiro() {
+        assertNull(EnvioArquivo.interpretarRange(null, 1000));
+        assertNull(EnvioArquivo.interpretarRange("items=0-10", 1000));
+        assertNull(EnvioArquivo.interpretarRange("bytes=0-10,20-30", 1000));
+        assertNull(EnvioArquivo.interpretarRange("bytes=10-5", 1000));
+        assertNull(EnvioArquivo.interpretarRange("bytes=abc-", 1000));
+    }
+
+    @Test
+    void inicioDepoisDoFimEInsatisfazivel() {
+        assertSame(INSATISFAZIVEL, EnvioArquivo.interpretarRange("bytes=1000-", 1000));
+        assertSame(INSATISFAZIVEL, EnvioArquivo.interpretarRange("bytes=-0", 1000));
+    }
+
+    @Test
+    void ifNoneMatch() {
+        assertTrue(EnvioArquivo.correspondeEtag("\"abc\"", "\"abc\""));
+        assertTrue(EnvioArquivo.correspondeEtag("\"x\", W/\"abc\"", "\"abc\""));
+        assertTrue(EnvioArquivo.correspondeEtag("*", "\"abc\""));
+        assertFalse(EnvioArquivo.correspondeEtag("\"x\"", "\"abc\""));
+        assertFalse(EnvioArquivo.correspondeEtag(null, "\"abc\""));
+    }
+}
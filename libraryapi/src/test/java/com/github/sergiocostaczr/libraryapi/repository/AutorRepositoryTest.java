@@ -28,7 +28,7 @@ public class AutorRepositoryTest {
     @Test
     public void salvarTest() {
         Autor autor = new Autor();
-        autor.setName("mario");
+        autor.setNome("mario");
         autor.setNacionalidade("Brasileiro");
         autor.setDataNascimento(LocalDate.of(1950, 1, 21));
 
@@ -87,7 +87,7 @@ public class AutorRepositoryTest {
     @Transactional
     public void salvarAutorComLivrosTest(){
         Autor autor = new Autor();
-        autor.setName("pedro");
+        autor.setNome("pedro");
         autor.setNacionalidade("brasileiro");
         autor.setDataNascimento(LocalDate.of(1900, 12,10));
 
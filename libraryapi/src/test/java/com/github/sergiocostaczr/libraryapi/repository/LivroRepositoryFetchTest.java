@@ -0,0 +1,121 @@
+package com.github.sergiocostaczr.libraryapi.repository;
+
+import com.github.sergiocostaczr.libraryapi.model.Autor;
+import com.github.sergiocostaczr.libraryapi.model.GeneroLivro;
+import com.github.sergiocostaczr.libraryapi.model.Livro;
+import com.github.sergiocostaczr.libraryapi.repository.projection.LivroResumo;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Regressão de N+1: conta os statements executados (estatisticas do Hibernate) em cada listagem.
+ * Roda num H2 em memoria, sem depender do PostgreSQL local.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class LivroRepositoryFetchTest {
+
+    private static final int QUANTIDADE_AUTORES = 10;
+    private static final int LIVROS_POR_AUTOR = 3;
+
+    @Autowired
+    LivroRepository repository;
+
+    @Autowired
+    AutorRepository autorRepository;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp(){
+        for (int i = 0; i < QUANTIDADE_AUTORES; i++){
+            Autor autor = new Autor();
+            autor.setNome("autor " + i);
+            autor.setNacionalidade("Brasileira");
+            autor.setDataNascimento(LocalDate.of(1950, 1, 1).plusYears(i));
+            entityManager.persist(autor);
+
+            for (int j = 0; j < LIVROS_POR_AUTOR; j++){
+                Livro livro = new Livro();
+                livro.setIsbn("isbn-" + i + "-" + j);
+                livro.setTitulo("livro " + i + "-" + j);
+                livro.setGenero(GeneroLivro.FICCAO);
+                livro.setPreco(BigDecimal.valueOf(10 + j));
+                livro.setDataPublicacao(LocalDate.of(2000, 1, 1));
+                livro.setAutor(autor);
+                entityManager.persist(livro);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        entityManagerFactory.getCache().evictAll();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void listagemComGrafoCarregaAutorNoMesmoSelect(){
+        List<Livro> livros = repository.listaTodosComAutorOrdenadoPorTituloEPreco();
+        livros.forEach(livro -> assertNotNull(livro.getAutor().getNome()));
+
+        assertEquals(QUANTIDADE_AUTORES * LIVROS_POR_AUTOR, livros.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void projecaoResumoUsaUmaConsulta(){
+        List<LivroResumo> resumos = repository.listarResumosOrdenadoPorTituloEPreco();
+
+        assertEquals(QUANTIDADE_AUTORES * LIVROS_POR_AUTOR, resumos.size());
+        assertTrue(resumos.stream().allMatch(resumo -> resumo.nomeAutor() != null));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void autoresComLivrosUsaUmaConsulta(){
+        List<Autor> autores = autorRepository.listarComLivros();
+        autores.forEach(autor -> assertEquals(LIVROS_POR_AUTOR, autor.getLivros().size()));
+
+        assertEquals(QUANTIDADE_AUTORES, autores.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void listagemSemGrafoInicializaAutoresEmLote(){
+        // Sem fetch plan o autor continua lazy, mas o @BatchSize evita um select por livro.
+        List<Livro> livros = repository.listaTodosOrdenadoPorTiuloEPreco();
+        livros.forEach(livro -> assertNotNull(livro.getAutor().getNome()));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void livrosDeVariosAutoresEmLote(){
+        List<Autor> autores = autorRepository.findAll();
+        autores.forEach(autor -> assertEquals(LIVROS_POR_AUTOR, autor.getLivros().size()));
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
@@ -6,6 +6,7 @@ import com.github.sergiocostaczr.libraryapi.model.Livro;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
@@ -137,7 +138,7 @@ class LivroRepositoryTest {
     }
     @Test
     void listarPorGeneroQueryParam(){
-        List<Livro> resultado = repository.findByGenero(GeneroLivro.FICCAO, "dataPublicacao");
+        List<Livro> resultado = repository.findByGenero(GeneroLivro.FICCAO, Sort.by("dataPublicacao"));
         resultado.forEach(System.out::println);
     }
 
@@ -0,0 +1,230 @@
+package com.github.sergiocostaczr.libraryapi.service;
+
+import com.github.sergiocostaczr.libraryapi.model.Autor;
+import com.github.sergiocostaczr.libraryapi.model.GeneroLivro;
+import com.github.sergiocostaczr.libraryapi.model.Livro;
+import com.github.sergiocostaczr.libraryapi.repository.AutorRepository;
+import com.github.sergiocostaczr.libraryapi.repository.LivroRepository;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Estatisticas mantidas pelos listeners devem bater com o recalculo completo no banco.
+ * Roda num H2 em memoria, sem depender do PostgreSQL local.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:estatisticas;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "app.datasource.leitura.url=jdbc:h2:mem:estatisticas;DB_CLOSE_DELAY=-1",
+        "app.datasource.roteamento.consulta-atraso=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "app.estatisticas.recalculo=1h",
+        "app.estatisticas.intervalo-pendentes=1h"
+})
+class EstatisticasCatalogoServiceTest {
+
+    @Autowired
+    EstatisticasCatalogoService service;
+
+    @Autowired
+    LivroRepository livroRepository;
+
+    @Autowired
+    AutorRepository autorRepository;
+
+    Autor brasileiro;
+    Autor portugues;
+
+    @BeforeEach
+    void setUp(){
+        livroRepository.deleteAll();
+        autorRepository.deleteAll();
+        brasileiro = autor("Machado", "Brasileira");
+        portugues = autor("Eça", "Portuguesa");
+        service.recalcular();
+    }
+
+    @Test
+    void inclusaoAlteracaoERemocaoAtualizamOsGrupos(){
+        Livro barato = livro(brasileiro, GeneroLivro.ROMANCE, "10.00", LocalDate.of(1880, 1, 1));
+        livro(brasileiro, GeneroLivro.ROMANCE, "30.00", LocalDate.of(1899, 1, 1));
+        Livro caro = livro(portugues, GeneroLivro.ROMANCE, "50.00", LocalDate.of(1888, 1, 1));
+
+        EstatisticaLivros romance = service.doGenero(GeneroLivro.ROMANCE).orElseThrow();
+        assertEquals(3, romance.quantidade());
+        assertEquals(new BigDecimal("30.00"), romance.precoMedio());
+        assertEquals(new BigDecimal("10.00"), romance.precoMinimo());
+        assertEquals(LocalDate.of(1899, 1, 1), romance.ultimaPublicacao());
+        assertEquals(2, service.daNacionalidade("Brasileira").orElseThrow().quantidade());
+        assertEquals(1, service.doAutor(portugues.getId()).orElseThrow().quantidade());
+
+        caro.setGenero(GeneroLivro.FICCAO);
+        livroRepository.save(caro);
+        assertEquals(2, service.doGenero(GeneroLivro.ROMANCE).orElseThrow().quantidade());
+        assertEquals(1, service.doGenero(GeneroLivro.FICCAO).orElseThrow().quantidade());
+
+        // removendo o minimo: quantidade atualizada na hora, extremos relidos nos pendentes
+        livroRepository.delete(barato);
+        assertEquals(1, service.doGenero(GeneroLivro.ROMANCE).orElseThrow().quantidade());
+        service.recalcularPendentes();
+        assertEquals(new BigDecimal("30.00"), service.doGenero(GeneroLivro.ROMANCE).orElseThrow().precoMinimo());
+
+        livroRepository.delete(caro);
+        assertTrue(service.doGenero(GeneroLivro.FICCAO).isEmpty());
+        assertTrue(service.doAutor(portugues.getId()).isEmpty());
+
+        assertIgualAoRecalculo();
+    }
+
+    @Test
+    void livroComAutorNaoCarregadoUsaNacionalidadeConhecida(){
+        livro(brasileiro, GeneroLivro.MISTERIO, null, null);
+
+        // Autor só como referencia (proxy): nacionalidade vem do mapa do service
+        Livro livro = new Livro();
+        livro.setIsbn("999");
+        livro.setTitulo("Referencia");
+        livro.setGenero(GeneroLivro.MISTERIO);
+        livro.setPreco(new BigDecimal("20.00"));
+        livro.setAutor(autorRepository.getReferenceById(brasileiro.getId()));
+        livroRepository.save(livro);
+
+        EstatisticaLivros brasileira = service.daNacionalidade("Brasileira").orElseThrow();
+        assertEquals(2, brasileira.quantidade());
+        assertEquals(1, brasileira.quantidadeComPreco());
+        assertEquals(new BigDecimal("20.00"), brasileira.precoMedio());
+
+        assertIgualAoRecalculo();
+    }
+
+    @Test
+    void livroGravadoDuranteORecalculoNaoSePerdeNemContaDuasVezes() throws Exception {
+        livro(brasileiro, GeneroLivro.ROMANCE, "10.00", LocalDate.of(1880, 1, 1));
+
+        // Commit de outra requisição entre as consultas do recalculo: fica fora das agregações por genero
+        // e nacionalidade (já feitas) e dentro da agregação por autor (ainda não feita).
+        MethodInterceptor gravarDuranteRecalculo = invocacao -> {
+            Object resultado = invocacao.proceed();
+            if (invocacao.getMethod().getName().equals("agregarPorNacionalidade")){
+                CompletableFuture.runAsync(() -> livro(portugues, GeneroLivro.FICCAO, "20.00", LocalDate.of(1890, 1, 1))).get();
+            }
+            return resultado;
+        };
+        Advised repositorio = (Advised) livroRepository;
+        repositorio.addAdvice(0, gravarDuranteRecalculo);
+        try {
+            service.recalcular();
+        } finally {
+            repositorio.removeAdvice(gravarDuranteRecalculo);
+        }
+
+        assertEquals(1, service.doGenero(GeneroLivro.FICCAO).orElseThrow().quantidade());
+        assertEquals(1, service.daNacionalidade("Portuguesa").orElseThrow().quantidade());
+        assertEquals(1, service.doAutor(portugues.getId()).orElseThrow().quantidade());
+        assertEquals(1, service.doGenero(GeneroLivro.ROMANCE).orElseThrow().quantidade());
+
+        assertIgualAoRecalculo();
+    }
+
+    @Test
+    void livroGravadoDuranteAReleituraDeUmGrupoNaoSePerde() throws Exception {
+        Livro barato = livro(brasileiro, GeneroLivro.ROMANCE, "10.00", LocalDate.of(1880, 1, 1));
+        livro(brasileiro, GeneroLivro.ROMANCE, "30.00", LocalDate.of(1899, 1, 1));
+        livroRepository.delete(barato); // minimo removido: ROMANCE fica pendente
+
+        // Commit de outra requisição depois da consulta do grupo e antes de o resultado entrar no mapa.
+        MethodInterceptor gravarDuranteReleitura = invocacao -> {
+            Object resultado = invocacao.proceed();
+            if (invocacao.getMethod().getName().equals("agregarDoGenero")){
+                CompletableFuture.runAsync(() -> livro(portugues, GeneroLivro.ROMANCE, "50.00", LocalDate.of(1890, 1, 1))).get();
+            }
+            return resultado;
+        };
+        Advised repositorio = (Advised) livroRepository;
+        repositorio.addAdvice(0, gravarDuranteReleitura);
+        try {
+            service.recalcularPendentes();
+        } finally {
+            repositorio.removeAdvice(gravarDuranteReleitura);
+        }
+
+        EstatisticaLivros romance = service.doGenero(GeneroLivro.ROMANCE).orElseThrow();
+        assertEquals(2, romance.quantidade());
+        assertEquals(new BigDecimal("30.00"), romance.precoMinimo());
+        assertEquals(new BigDecimal("50.00"), romance.precoMaximo());
+
+        // relido de novo: não dá para saber se o commit entrou na consulta
+        service.recalcularPendentes();
+        assertIgualAoRecalculo();
+    }
+
+    private void assertIgualAoRecalculo(){
+        Map<GeneroLivro, EstatisticaLivros> generos = Map.copyOf(service.porGenero());
+        Map<String, EstatisticaLivros> nacionalidades = Map.copyOf(service.porNacionalidade());
+        Map<UUID, String> autores = new HashMap<>();
+        autores.put(brasileiro.getId(), service.doAutor(brasileiro.getId()).map(EstatisticasCatalogoServiceTest::resumo).orElse(null));
+        autores.put(portugues.getId(), service.doAutor(portugues.getId()).map(EstatisticasCatalogoServiceTest::resumo).orElse(null));
+
+        service.recalcular();
+
+        assertEquals(chavesEQuantidades(service.porGenero()), chavesEQuantidades(generos));
+        assertEquals(chavesEQuantidades(service.porNacionalidade()), chavesEQuantidades(nacionalidades));
+        autores.forEach((id, resumo) ->
+                assertEquals(service.doAutor(id).map(EstatisticasCatalogoServiceTest::resumo).orElse(null), resumo));
+    }
+
+    private static <K> Map<K, String> chavesEQuantidades(Map<K, EstatisticaLivros> mapa){
+        Map<K, String> resultado = new HashMap<>();
+        mapa.forEach((chave, estatistica) -> resultado.put(chave, resumo(estatistica)));
+        return resultado;
+    }
+
+    // Comparação sem depender da escala do BigDecimal devolvida por cada banco.
+    private static String resumo(EstatisticaLivros estatistica){
+        if (estatistica == null){
+            return null;
+        }
+        return estatistica.quantidade() + "|" + estatistica.quantidadeComPreco()
+                + "|" + numero(estatistica.somaPreco()) + "|" + numero(estatistica.precoMedio())
+                + "|" + numero(estatistica.precoMinimo()) + "|" + numero(estatistica.precoMaximo())
+                + "|" + estatistica.primeiraPublicacao() + "|" + estatistica.ultimaPublicacao();
+    }
+
+    private static String numero(BigDecimal valor){
+        return valor == null ? null : valor.stripTrailingZeros().toPlainString();
+    }
+
+    private Autor autor(String nome, String nacionalidade){
+        Autor autor = new Autor();
+        autor.setNome(nome);
+        autor.setNacionalidade(nacionalidade);
+        autor.setDataNascimento(LocalDate.of(1840, 1, 1));
+        return autorRepository.save(autor);
+    }
+
+    private Livro livro(Autor autor, GeneroLivro genero, String preco, LocalDate dataPublicacao){
+        Livro livro = new Livro();
+        livro.setIsbn(UUID.randomUUID().toString().substring(0, 20));
+        livro.setTitulo("Livro " + genero);
+        livro.setGenero(genero);
+        livro.setPreco(preco == null ? null : new BigDecimal(preco));
+        livro.setDataPublicacao(dataPublicacao);
+        livro.setAutor(autor);
+        return livroRepository.save(livro);
+    }
+}
@@ -0,0 +1,146 @@
+package com.github.sergiocostaczr.libraryapi.service;
+
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Leitura do corpo da importação em lote (POST /autores/lote), sem banco.
+ */
+class LeitorLoteAutorTest {
+
+    ObjectMapper objectMapper = JsonMapper.builder().build();
+
+    @Test
+    void jsonLeUmRegistroPorObjeto(){
+        List<LeitorLoteAutor.Linha> linhas = json("""
+                [{"nome": "Machado", "dataNascimento": "1839-06-21", "nacionalidade": "Brasileira"},
+                 {"nome": "Eça", "dataNascimento": "1845-11-25", "nacionalidade": "Portuguesa"}]
+                """);
+
+        assertEquals(2, linhas.size());
+        assertEquals("Machado", linhas.get(0).autor().nome());
+        assertEquals(LocalDate.of(1845, 11, 25), linhas.get(1).autor().dataNascimento());
+        assertEquals(2, linhas.get(1).numero());
+    }
+
+    @Test
+    void jsonElementoQueNaoEObjetoERejeitadoESegue(){
+        List<LeitorLoteAutor.Linha> linhas = json("""
+                [{"nome": "A", "dataNascimento": "1900-01-01", "nacionalidade": "X"}, 5, [1, [2]], "texto",
+                 {"nome": "B", "dataNascimento": "1900-01-01", "nacionalidade": "X"}]
+                """);
+
+        assertEquals(5, linhas.size());
+        assertNull(linhas.get(0).erro());
+        assertNotNull(linhas.get(1).erro());
+        assertNotNull(linhas.get(2).erro());
+        assertNotNull(linhas.get(3).erro());
+        assertEquals("B", linhas.get(4).autor().nome());
+        assertEquals(5, linhas.get(4).numero());
+    }
+
+    @Test
+    void jsonCampoInvalidoRejeitaSoALinha(){
+        List<LeitorLoteAutor.Linha> linhas = json("""
+                [{"nome": "A", "dataNascimento": "ontem", "nacionalidade": "X"},
+                 {"nome": "B", "dataNascimento": "1900-01-01", "nacionalidade": "X"}]
+                """);
+
+        assertNotNull(linhas.get(0).erro());
+        assertEquals("B", linhas.get(1).autor().nome());
+    }
+
+    @Test
+    void jsonMalFormadoNoMeioViraUltimaLinhaRejeitada(){
+        List<LeitorLoteAutor.Linha> linhas = json("""
+                [{"nome": "A", "dataNascimento": "1900-01-01", "nacionalidade": "X"}, {"nome": "B",, }
+                 {"nome": "C", "dataNascimento": "1900-01-01", "nacionalidade": "X"}]
+                """);
+
+        assertEquals(2, linhas.size());
+        assertEquals("A", linhas.get(0).autor().nome());
+        assertEquals(2, linhas.get(1).numero());
+        assertTrue(linhas.get(1).erro().startsWith("JSON inválido"));
+    }
+
+    @Test
+    void jsonSemFecharOArrayViraLinhaRejeitada(){
+        List<LeitorLoteAutor.Linha> linhas = json("""
+                [{"nome": "A", "dataNascimento": "1900-01-01", "nacionalidade": "X"},
+                """);
+
+        assertEquals(2, linhas.size());
+        assertNotNull(linhas.get(1).erro());
+    }
+
+    @Test
+    void jsonQueNaoEArrayOuMalFormadoNoInicioEErroDaRequisicao(){
+        assertThrows(IllegalArgumentException.class, () -> LeitorLoteAutor.json(corpo("{\"nome\": \"A\"}"), objectMapper));
+        assertThrows(IllegalArgumentException.class, () -> LeitorLoteAutor.json(corpo("}{"), objectMapper));
+    }
+
+    @Test
+    void csvComAspasEColunasEmOutraOrdem(){
+        List<LeitorLoteAutor.Linha> linhas = csv("""
+                nacionalidade,nome,data_nascimento
+                Brasileira,"Assis, Machado de",1839-06-21
+
+                Portuguesa,"Eça ""o"" Queirós",1845-11-25
+                """);
+
+        assertEquals(2, linhas.size());
+        assertEquals("Assis, Machado de", linhas.get(0).autor().nome());
+        assertEquals("Eça \"o\" Queirós", linhas.get(1).autor().nome());
+        assertEquals("Portuguesa", linhas.get(1).autor().nacionalidade());
+    }
+
+    @Test
+    void csvLinhaInvalidaRejeitaSoALinha(){
+        List<LeitorLoteAutor.Linha> linhas = csv("""
+                nome,dataNascimento,nacionalidade
+                A,1900-01-01
+                B,01/01/1900,X
+                C,,X
+                D,1900-01-01,X
+                """);
+
+        assertEquals("Quantidade de colunas inválida", linhas.get(0).erro());
+        assertTrue(linhas.get(1).erro().startsWith("Data de nascimento inválida"));
+        assertNull(linhas.get(2).autor().dataNascimento()); // obrigatoriedade fica na validação da importação
+        assertEquals("D", linhas.get(3).autor().nome());
+    }
+
+    @Test
+    void csvSemColunaObrigatoriaNoCabecalho(){
+        assertThrows(IllegalArgumentException.class, () -> LeitorLoteAutor.csv(corpo("nome,nacionalidade\nA,X\n")));
+        assertThrows(IllegalArgumentException.class, () -> LeitorLoteAutor.csv(corpo("")));
+    }
+
+    private List<LeitorLoteAutor.Linha> json(String texto){
+        return ler(LeitorLoteAutor.json(corpo(texto), objectMapper));
+    }
+
+    private List<LeitorLoteAutor.Linha> csv(String texto){
+        return ler(LeitorLoteAutor.csv(corpo(texto)));
+    }
+
+    private static List<LeitorLoteAutor.Linha> ler(LeitorLoteAutor leitor){
+        List<LeitorLoteAutor.Linha> linhas = new ArrayList<>();
+        leitor.forEachRemaining(linhas::add);
+        return linhas;
+    }
+
+    private static InputStream corpo(String texto){
+        return new ByteArrayInputStream(texto.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,195 @@
+package com.github.sergiocostaczr.libraryapi.service;
+
+import com.github.sergiocostaczr.libraryapi.exceptions.OperacaoNaoPermitidaException;
+import com.github.sergiocostaczr.libraryapi.model.Autor;
+import com.github.sergiocostaczr.libraryapi.model.GeneroLivro;
+import com.github.sergiocostaczr.libraryapi.model.Livro;
+import com.github.sergiocostaczr.libraryapi.model.OperacaoLote;
+import com.github.sergiocostaczr.libraryapi.model.StatusOperacaoLote;
+import com.github.sergiocostaczr.libraryapi.model.TipoOperacaoLote;
+import com.github.sergiocostaczr.libraryapi.repository.AutorRepository;
+import com.github.sergiocostaczr.libraryapi.repository.LivroRepository;
+import com.github.sergiocostaczr.libraryapi.repository.OperacaoLoteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Operações em lote num H2 em memoria. O sinal periodico fica desligado (intervalo longo):
+ * os testes chamam verificarSinais() quando precisam.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:operacaolote;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "app.datasource.leitura.url=jdbc:h2:mem:operacaolote;DB_CLOSE_DELAY=-1",
+        "app.datasource.roteamento.consulta-atraso=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "app.estatisticas.recalculo=1h",
+        "app.estatisticas.intervalo-pendentes=1h",
+        "app.operacao-lote.tamanho-lote=2",
+        "app.operacao-lote.lotes-por-segundo=0",
+        "app.operacao-lote.intervalo-sinal=1h",
+        "app.operacao-lote.tempo-sem-sinal=1m"
+})
+class OperacaoLoteLivroServiceTest {
+
+    @Autowired
+    OperacaoLoteLivroService service;
+
+    @Autowired
+    OperacaoLoteRepository operacaoLoteRepository;
+
+    @Autowired
+    LivroRepository livroRepository;
+
+    @Autowired
+    AutorRepository autorRepository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp(){
+        operacaoLoteRepository.deleteAll();
+        livroRepository.deleteAll();
+        autorRepository.deleteAll();
+    }
+
+    @Test
+    void atualizaTodosOsLivrosEmVariosLotes() throws InterruptedException {
+        Autor autor = autor();
+        for (int i = 0; i < 5; i++){
+            livro(autor, "Livro " + i);
+        }
+
+        OperacaoLote operacao = service.atualizarDataPublicacao(LocalDate.of(2020, 1, 1));
+        OperacaoLote concluida = aguardarFim(operacao.getId());
+
+        assertEquals(StatusOperacaoLote.CONCLUIDA, concluida.getStatus());
+        assertEquals(5, concluida.getProcessados());
+        assertTrue(livroRepository.findAll().stream()
+                .allMatch(livro -> livro.getDataPublicacao().equals(LocalDate.of(2020, 1, 1))));
+    }
+
+    @Test
+    void retomadasSimultaneasIniciamAOperacaoUmaVez() throws Exception {
+        OperacaoLote operacao = operacaoParada(StatusOperacaoLote.FALHOU, "outra-instancia", LocalDateTime.now());
+
+        int tentativas = 8;
+        ExecutorService threads = Executors.newFixedThreadPool(tentativas);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Boolean>> resultados = new ArrayList<>();
+        for (int i = 0; i < tentativas; i++){
+            Callable<Boolean> retomada = () -> {
+                largada.await();
+                try {
+                    return service.retomar(operacao.getId()).isPresent();
+                } catch (OperacaoNaoPermitidaException e) {
+                    return false;
+                }
+            };
+            resultados.add(threads.submit(retomada));
+        }
+        largada.countDown();
+
+        int iniciadas = 0;
+        for (Future<Boolean> resultado : resultados){
+            iniciadas += resultado.get() ? 1 : 0;
+        }
+        threads.shutdown();
+
+        assertEquals(1, iniciadas);
+        assertEquals(StatusOperacaoLote.CONCLUIDA, aguardarFim(operacao.getId()).getStatus());
+    }
+
+    @Test
+    void retomarOperacaoConcluidaOuInexistente() {
+        OperacaoLote concluida = operacaoParada(StatusOperacaoLote.CONCLUIDA, "outra-instancia", LocalDateTime.now());
+
+        assertThrows(OperacaoNaoPermitidaException.class, () -> service.retomar(concluida.getId()));
+        assertTrue(service.retomar(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void soOperacoesSemSinalSaoMarcadasComoInterrompidas() {
+        OperacaoLote ativa = operacaoParada(StatusOperacaoLote.EXECUTANDO, "outra-instancia", LocalDateTime.now());
+        OperacaoLote parada = operacaoParada(StatusOperacaoLote.EXECUTANDO, "instancia-que-caiu", LocalDateTime.now().minusMinutes(5));
+
+        service.verificarSinais();
+
+        assertEquals(StatusOperacaoLote.EXECUTANDO, operacaoLoteRepository.findById(ativa.getId()).orElseThrow().getStatus());
+        assertEquals(StatusOperacaoLote.INTERROMPIDA, operacaoLoteRepository.findById(parada.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void checkpointDeOperacaoDeOutraInstanciaNaoEGravado() {
+        OperacaoLote operacao = operacaoParada(StatusOperacaoLote.EXECUTANDO, "outra-instancia", LocalDateTime.now());
+
+        // Roda na transação do lote, como em processarLote.
+        int registrados = transactionTemplate.execute(status -> operacaoLoteRepository.registrarLote(operacao.getId(),
+                "esta-instancia", UUID.randomUUID(), 10, StatusOperacaoLote.EXECUTANDO, LocalDateTime.now()));
+
+        assertEquals(0, registrados);
+        assertEquals(0, operacaoLoteRepository.findById(operacao.getId()).orElseThrow().getProcessados());
+    }
+
+    private OperacaoLote aguardarFim(UUID id) throws InterruptedException {
+        for (int i = 0; i < 100; i++){
+            OperacaoLote operacao = operacaoLoteRepository.findById(id).orElseThrow();
+            if (operacao.getStatus() != StatusOperacaoLote.PENDENTE && operacao.getStatus() != StatusOperacaoLote.EXECUTANDO){
+                return operacao;
+            }
+            Thread.sleep(50);
+        }
+        fail("Operação " + id + " não terminou");
+        return null;
+    }
+
+    private OperacaoLote operacaoParada(StatusOperacaoLote status, String instancia, LocalDateTime ultimoSinal){
+        OperacaoLote operacao = new OperacaoLote();
+        operacao.setTipo(TipoOperacaoLote.ATUALIZAR_DATA_PUBLICACAO);
+        operacao.setNovaDataPublicacao(LocalDate.of(2020, 1, 1));
+        operacao.setTamanhoLote(2);
+        operacao.setStatus(status);
+        operacao.setInstancia(instancia);
+        operacao.setUltimoSinal(ultimoSinal);
+        return operacaoLoteRepository.save(operacao);
+    }
+
+    private Autor autor(){
+        Autor autor = new Autor();
+        autor.setNome("Autor");
+        autor.setNacionalidade("Brasileira");
+        autor.setDataNascimento(LocalDate.of(1950, 1, 1));
+        return autorRepository.save(autor);
+    }
+
+    private void livro(Autor autor, String titulo){
+        Livro livro = new Livro();
+        livro.setIsbn(UUID.randomUUID().toString().substring(0, 13));
+        livro.setTitulo(titulo);
+        livro.setGenero(GeneroLivro.FICCAO);
+        livro.setPreco(BigDecimal.TEN);
+        livro.setDataPublicacao(LocalDate.of(1990, 1, 1));
+        livro.setAutor(autor);
+        livroRepository.save(livro);
+    }
+}
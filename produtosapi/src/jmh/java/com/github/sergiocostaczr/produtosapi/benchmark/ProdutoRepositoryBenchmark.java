@@ -0,0 +1,106 @@
+package com.github.sergiocostaczr.produtosapi.benchmark;
+
+import com.github.sergiocostaczr.produtosapi.ProdutosapiApplication;
+import com.github.sergiocostaczr.produtosapi.controller.dto.JanelaProdutos;
+import com.github.sergiocostaczr.produtosapi.model.Produto;
+import com.github.sergiocostaczr.produtosapi.repository.ProdutoRepository;
+import com.github.sergiocostaczr.produtosapi.service.ProdutoService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesmas operações do ProdutoRepository/ProdutoService com o catalogo no H2 via JPA e em memoria
+ * (app.produtos.armazenamento), com massa gerada no setup.
+ * threads=4 mede as leituras concorrentes (sem lock na memoria, pool de conexões no H2).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ProdutoRepositoryBenchmark {
+
+    @Param({"jpa", "memoria"})
+    private String armazenamento;
+
+    @Param({"100000"})
+    private int produtosCadastrados;
+
+    private ConfigurableApplicationContext contexto;
+    private ProdutoRepository produtoRepository;
+    private ProdutoService produtoService;
+    private List<Produto> cadastrados;
+
+    @Setup
+    public void setup() {
+        SpringApplication aplicacao = new SpringApplication(ProdutosapiApplication.class);
+        aplicacao.setWebApplicationType(WebApplicationType.NONE);
+        contexto = aplicacao.run(
+                "--app.produtos.armazenamento=" + armazenamento,
+                "--spring.jpa.show-sql=false");
+        produtoRepository = contexto.getBean(ProdutoRepository.class);
+        produtoService = contexto.getBean(ProdutoService.class);
+
+        List<Produto> novos = new ArrayList<>(produtosCadastrados);
+        for (int i = 0; i < produtosCadastrados; i++) {
+            Produto produto = new Produto();
+            produto.setNome("Produto " + (i % 20_000));
+            produto.setDescricao("modelo " + i);
+            produto.setPreco((double) (i % 10_000));
+            novos.add(produto);
+        }
+        cadastrados = produtoRepository.saveAll(novos);
+    }
+
+    @TearDown
+    public void tearDown() {
+        contexto.close();
+    }
+
+    private Produto sortear() {
+        return cadastrados.get(ThreadLocalRandom.current().nextInt(cadastrados.size()));
+    }
+
+    @Benchmark
+    public Optional<Produto> buscarPorId() {
+        return produtoRepository.findById(sortear().getId());
+    }
+
+    @Benchmark
+    public List<Produto> buscarPorNome() {
+        return produtoRepository.findByNome(sortear().getNome());
+    }
+
+    // prefixo com ~10 nomes distintos (~50 produtos), primeira pagina ordenada por nome
+    @Benchmark
+    public Page<Produto> pesquisarPrefixoNome() {
+        String nome = sortear().getNome();
+        return produtoService.pesquisar(nome.substring(0, nome.length() - 1), null, null, null,
+                PageRequest.of(0, 20, Sort.by("nome")));
+    }
+
+    // faixa de preço com ~100 produtos, ordenada por preço
+    @Benchmark
+    public Page<Produto> pesquisarFaixaPreco() {
+        double preco = sortear().getPreco();
+        return produtoService.pesquisar(null, null, preco, preco + 9, PageRequest.of(0, 20, Sort.by("preco")));
+    }
+
+    @Benchmark
+    public JanelaProdutos cursorPrimeiraPagina() {
+        return produtoService.pesquisarPorCursor(null, null, null, null, null, 50);
+    }
+}
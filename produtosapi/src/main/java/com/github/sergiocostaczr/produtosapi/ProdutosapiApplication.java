@@ -2,9 +2,11 @@ package com.github.sergiocostaczr.produtosapi;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.bind.annotation.PostMapping;
 
 @SpringBootApplication
+@EnableScheduling // snapshots do ProdutoRepositoryMemoria
 public class ProdutosapiApplication {
 
     public static void main(String[] args) {
@@ -1,10 +1,28 @@
 package com.github.sergiocostaczr.produtosapi.controller;
 
+import com.github.sergiocostaczr.produtosapi.controller.dto.JanelaProdutos;
+import com.github.sergiocostaczr.produtosapi.controller.dto.ResultadoImportacao;
 import com.github.sergiocostaczr.produtosapi.model.Produto;
 import com.github.sergiocostaczr.produtosapi.repository.ProdutoRepository;
+import com.github.sergiocostaczr.produtosapi.service.ImportacaoProdutosService;
+import com.github.sergiocostaczr.produtosapi.service.ProdutoService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,42 +30,106 @@ import java.util.UUID;
 @RequestMapping("produtos")
 public class ProdutoController {
 
+    private static final Logger log = LoggerFactory.getLogger(ProdutoController.class);
 
     private ProdutoRepository produtoRepository;
+    private ProdutoService produtoService;
+    private ImportacaoProdutosService importacaoProdutosService;
 
-    public ProdutoController(ProdutoRepository produtoRepository) {
+    public ProdutoController(ProdutoRepository produtoRepository, ProdutoService produtoService,
+                             ImportacaoProdutosService importacaoProdutosService) {
         this.produtoRepository = produtoRepository;
+        this.produtoService = produtoService;
+        this.importacaoProdutosService = importacaoProdutosService;
     }
 
     @PostMapping
     public Produto salvar(@RequestBody Produto produto){ //Diz para o spring colocar os dados do json no objeto
-        System.out.println("Produto recebido: " + produto);
-        var id = UUID.randomUUID().toString();
-        produto.setId(id);
+        log.debug("Produto recebido: {}", produto);
+        produto.setId(null); // gerado no insert (UUIDv7, ver Produto)
         produtoRepository.save(produto);
         return produto; //Transforma por padrao em java
     }
 
     @GetMapping("/{id}")//Nome do parametro entre chaves
     public Produto obterPorId(@PathVariable("id") String id){//Dentro de path colocamos o parametro da url
-        return produtoRepository.findById(id).orElse(null);
+        return converterId(id).flatMap(produtoRepository::findById).orElse(null);
     }
 
     @DeleteMapping("/{id}")//Recebe id via url
     public void deletar(@PathVariable("id") String id){
-        produtoRepository.deleteById(id);
+        converterId(id).ifPresent(produtoRepository::deleteById);
     }
 
     @PutMapping("/{id}")
     public void atualizar(@PathVariable("id") String id, @RequestBody Produto produto){
-       produto.setId(id);
+       UUID idProduto = converterId(id)
+               .filter(produtoRepository::existsById)
+               .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Produto não encontrado"));
+       produto.setId(idProduto);
        produtoRepository.save(produto);//Save tanto para salvar quanto para atualizar, se vier com id vai atualizar
     }
 
+    // Ex: /produtos?nome=Cel&descricao=5g&precoMinimo=100&precoMaximo=2000&page=0&size=20&sort=preco,desc
+    // nome: começa com; descricao: contem. Tamanho da pagina limitado a spring.data.web.pageable.max-page-size.
     @GetMapping
-    public List<Produto> buscar(@RequestParam("nome") String nome){
-        return produtoRepository.findByNome(nome);
+    public ResponseEntity<?> pesquisar(@RequestParam(value = "nome", required = false) String nome,
+                                       @RequestParam(value = "descricao", required = false) String descricao,
+                                       @RequestParam(value = "precoMinimo", required = false) Double precoMinimo,
+                                       @RequestParam(value = "precoMaximo", required = false) Double precoMaximo,
+                                       @PageableDefault(size = 20, sort = "nome") Pageable pageable){
+        try {
+            Page<Produto> pagina = produtoService.pesquisar(nome, descricao, precoMinimo, precoMaximo, pageable);
+            return ResponseEntity.ok(new PagedModel<>(pagina));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Mesmos filtros, ordenado por nome, para percorrer o catalogo inteiro:
+    // /produtos/cursor?size=50 -> {conteudo, proximoCursor}; /produtos/cursor?size=50&cursor=<proximoCursor> -> ...
+    @GetMapping("/cursor")
+    public ResponseEntity<?> pesquisarPorCursor(@RequestParam(value = "nome", required = false) String nome,
+                                                @RequestParam(value = "descricao", required = false) String descricao,
+                                                @RequestParam(value = "precoMinimo", required = false) Double precoMinimo,
+                                                @RequestParam(value = "precoMaximo", required = false) Double precoMaximo,
+                                                @RequestParam(value = "cursor", required = false) String cursor,
+                                                @RequestParam(value = "size", defaultValue = "20") int tamanho){
+        try {
+            JanelaProdutos janela = produtoService.pesquisarPorCursor(nome, descricao, precoMinimo, precoMaximo, cursor, tamanho);
+            return ResponseEntity.ok(janela);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Catalogo do fornecedor, lido em streaming (o arquivo não é carregado inteiro em memoria):
+    // curl -X POST -H "Content-Type: text/csv" --data-binary @catalogo.csv /produtos/importacao
+    // curl -X POST -H "Content-Type: application/x-ndjson" --data-binary @catalogo.ndjson /produtos/importacao
+    // Upsert pelo nome. Responde com inseridos, atualizados, rejeitados (com a linha e o motivo) e produtos/s.
+    @PostMapping(value = "/importacao", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> importar(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType tipo, InputStream corpo) throws IOException {
+        ImportacaoProdutosService.Formato formato = tipo.isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? ImportacaoProdutosService.Formato.NDJSON
+                : ImportacaoProdutosService.Formato.CSV;
+        try {
+            // charset desconhecido (text/csv; charset=foo): UnsupportedCharsetException -> 400
+            Charset charset = tipo.getCharset() != null ? tipo.getCharset() : StandardCharsets.UTF_8;
+            ResultadoImportacao resultado = importacaoProdutosService.importar(corpo, formato, charset);
+            return ResponseEntity.ok(resultado);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
 
+    // Ids antigos (UUID.randomUUID().toString()) e novos (UUIDv7) têm o mesmo formato texto, então as URLs
+    // continuam valendo depois da migração da coluna para uuid. Texto que não é uuid não pode existir: não encontrado.
+    private static Optional<UUID> converterId(String id){
+        try {
+            return Optional.of(UUID.fromString(id));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
     }
 
 }
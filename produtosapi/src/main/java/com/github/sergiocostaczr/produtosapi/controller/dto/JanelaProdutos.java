@@ -0,0 +1,9 @@
+package com.github.sergiocostaczr.produtosapi.controller.dto;
+
+import com.github.sergiocostaczr.produtosapi.model.Produto;
+
+import java.util.List;
+
+// Pagina do GET /produtos/cursor. proximoCursor null quando não há mais produtos.
+public record JanelaProdutos(List<Produto> conteudo, String proximoCursor) {
+}
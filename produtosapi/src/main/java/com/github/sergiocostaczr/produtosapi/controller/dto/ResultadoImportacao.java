@@ -0,0 +1,12 @@
+package com.github.sergiocostaczr.produtosapi.controller.dto;
+
+import java.util.List;
+
+// Relatorio do POST /produtos/importacao. linhas = inseridos + atualizados + rejeitados;
+// rejeicoes traz só as primeiras (ver ImportacaoProdutosService.MAXIMO_REJEICOES_DETALHADAS).
+public record ResultadoImportacao(long linhas, long inseridos, long atualizados, long rejeitados,
+                                  List<Rejeicao> rejeicoes, long duracaoMs, double produtosPorSegundo) {
+
+    public record Rejeicao(long linha, String motivo) {
+    }
+}
@@ -2,17 +2,25 @@ package com.github.sergiocostaczr.produtosapi.model;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.util.UUID;
 
 //POJO
 @Entity
 @Table (name = "produto")//Opcional, pois é o mesmo ambos tanto no banco quanto aqui
 public class Produto {
 
+    // UUIDv7: começa pelo timestamp, então ids novos vão para o fim do indice da PK (não espalha inserts
+    // pelas paginas como o UUID.randomUUID()). Coluna uuid nativa: 16 bytes em vez de varchar de 36 caracteres.
     @Id
+    @GeneratedValue
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
     @Column(name = "id")//Opcional, pois é o mesmo ambos tanto no banco quanto aqui
-    private String id;
+    private UUID id;
 
     @Column(name = "nome")//Opcional, pois é o mesmo ambos tanto no banco quanto aqui
     private String nome;
@@ -24,11 +32,11 @@ public class Produto {
     private Double preco;
 
 
-    public String getId() {
+    public UUID getId() {
         return id;
     }
 
-    public void setId(String id) {
+    public void setId(UUID id) {
         this.id = id;
     }
 
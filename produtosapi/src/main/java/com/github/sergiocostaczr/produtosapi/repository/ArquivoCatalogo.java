@@ -0,0 +1,389 @@
+package com.github.sergiocostaczr.produtosapi.repository;
+
+import com.github.sergiocostaczr.produtosapi.repository.ProdutoRepositoryMemoria.Registro;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Arquivos do catalogo em memoria, no diretorio app.produtos.persistencia.diretorio:
+ *  - catalogo-G.snapshot: todos os produtos no inicio da geração G
+ *  - catalogo-G.log:      operações (gravar, remover, limpar) feitas durante a geração G
+ * Restaurar = ler o snapshot mais novo e reaplicar, em ordem, os logs da geração dele em diante.
+ * Um snapshot novo abre a geração seguinte; quando ele termina de ser gravado, snapshots e logs
+ * anteriores são apagados.
+ *
+ * Formato (big endian):
+ *  snapshot: "PRDS", versão, geração, quantidade, registros
+ *  log:      "PRDL", versão, e por operação: tamanho, crc32, tipo, dados
+ *  registro: id (2 longs), nome, descricao (int com o tamanho em bytes UTF-8, -1 = null), preco (0/1 + double)
+ * Operação incompleta ou com crc errado no fim do log (queda no meio da escrita) é descartada; crc errado
+ * numa operação seguida de outras é corrupção e impede a subida (IOException), sem mexer no arquivo.
+ *
+ * Escritas no log: chamadas com o lock de escrita do ProdutoRepositoryMemoria.
+ */
+final class ArquivoCatalogo implements Closeable {
+
+    // Quantidades da ultima restauração, para o log da subida.
+    record Restauracao(long produtosSnapshot, long bytesSnapshot, long msSnapshot,
+                       long operacoesLog, long bytesLog, long msLog) {
+    }
+
+    // Onde a restauração aplica o que leu.
+    interface Destino {
+        void gravar(Registro registro);
+
+        void remover(UUID id);
+
+        void limpar();
+    }
+
+    private static final int MAGICO_SNAPSHOT = 0x50524453; // PRDS
+    private static final int MAGICO_LOG = 0x5052444C; // PRDL
+    private static final int VERSAO = 1;
+    private static final int CABECALHO_SNAPSHOT = 24;
+    private static final int CABECALHO_LOG = 8;
+    private static final byte GRAVAR = 1;
+    private static final byte REMOVER = 2;
+    private static final byte LIMPAR = 3;
+    private static final long JANELA_SNAPSHOT = 64L * 1024 * 1024;
+    private static final Pattern NOME_ARQUIVO = Pattern.compile("catalogo-(\\d+)\\.(snapshot|log)");
+
+    private final Path diretorio;
+    private final boolean sincronizar;
+    private final Object snapshot = new Object();
+
+    private final ByteArrayOutputStream operacao = new ByteArrayOutputStream(512);
+    private final DataOutputStream dadosOperacao = new DataOutputStream(operacao);
+    private final CRC32 crc = new CRC32();
+
+    private long geracao;
+    private FileOutputStream arquivoLog;
+    private DataOutputStream log;
+    private long operacoesNaGeracao;
+
+    ArquivoCatalogo(Path diretorio, boolean sincronizar) throws IOException {
+        this.diretorio = Files.createDirectories(diretorio);
+        this.sincronizar = sincronizar;
+    }
+
+    // Na subida, antes de qualquer escrita. Depois disso as operações vão para o log de uma geração nova.
+    Restauracao restaurar(Destino destino) throws IOException {
+        List<Arquivo> arquivos = listar();
+        Arquivo ultimoSnapshot = arquivos.stream().filter(Arquivo::snapshot).reduce((a, b) -> b).orElse(null);
+        long geracaoInicial = ultimoSnapshot == null ? 0 : ultimoSnapshot.geracao();
+
+        long inicio = System.nanoTime();
+        long produtos = ultimoSnapshot == null ? 0 : lerSnapshot(ultimoSnapshot.caminho(), destino);
+        long bytesSnapshot = ultimoSnapshot == null ? 0 : Files.size(ultimoSnapshot.caminho());
+        long msSnapshot = (System.nanoTime() - inicio) / 1_000_000;
+
+        inicio = System.nanoTime();
+        long operacoes = 0;
+        long bytesLog = 0;
+        for (Arquivo arquivo : arquivos){
+            if (!arquivo.snapshot() && arquivo.geracao() >= geracaoInicial){
+                operacoes += lerLog(arquivo.caminho(), destino);
+                bytesLog += Files.size(arquivo.caminho());
+            }
+        }
+        long msLog = (System.nanoTime() - inicio) / 1_000_000;
+
+        geracao = arquivos.stream().mapToLong(Arquivo::geracao).max().orElse(0);
+        abrirLog(geracao + 1);
+        return new Restauracao(produtos, bytesSnapshot, msSnapshot, operacoes, bytesLog, msLog);
+    }
+
+    void gravar(Registro registro) throws IOException {
+        dadosOperacao.writeByte(GRAVAR);
+        escrever(dadosOperacao, registro);
+        anexar();
+    }
+
+    void remover(UUID id) throws IOException {
+        dadosOperacao.writeByte(REMOVER);
+        dadosOperacao.writeLong(id.getMostSignificantBits());
+        dadosOperacao.writeLong(id.getLeastSignificantBits());
+        anexar();
+    }
+
+    void limpar() throws IOException {
+        dadosOperacao.writeByte(LIMPAR);
+        anexar();
+    }
+
+    // Fim de uma operação do repositorio: entrega o que está no buffer ao sistema operacional (e ao disco,
+    // com sincronizar-escritas).
+    void confirmar() throws IOException {
+        log.flush();
+        if (sincronizar){
+            arquivoLog.getChannel().force(false);
+        }
+    }
+
+    // Houve escrita desde o ultimo snapshot?
+    boolean alteradoDesdeSnapshot(){
+        return operacoesNaGeracao > 0;
+    }
+
+    // Fecha o log atual e abre a proxima geração; o snapshot dessa geração deve conter o estado deste momento.
+    long iniciarGeracao() throws IOException {
+        fecharLog();
+        abrirLog(geracao + 1);
+        return geracao;
+    }
+
+    // Fora do lock de escrita: os registros são imutaveis e as escritas seguem no log da geração nova.
+    void gravarSnapshot(long geracaoSnapshot, Collection<Registro> registros) throws IOException {
+        synchronized (snapshot){
+            Path destino = diretorio.resolve(nome(geracaoSnapshot, "snapshot"));
+            Path temporario = diretorio.resolve(destino.getFileName() + ".tmp");
+            try (FileOutputStream arquivo = new FileOutputStream(temporario.toFile());
+                 DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(arquivo, 1 << 16))) {
+                saida.writeInt(MAGICO_SNAPSHOT);
+                saida.writeInt(VERSAO);
+                saida.writeLong(geracaoSnapshot);
+                saida.writeLong(registros.size());
+                for (Registro registro : registros){
+                    escrever(saida, registro);
+                }
+                saida.flush();
+                arquivo.getChannel().force(true);
+            }
+            Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            for (Arquivo arquivo : listar()){
+                if (arquivo.geracao() < geracaoSnapshot){
+                    Files.deleteIfExists(arquivo.caminho());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        fecharLog();
+    }
+
+    private void anexar() throws IOException {
+        try {
+            dadosOperacao.flush();
+            crc.reset();
+            crc.update(operacao.toByteArray());
+            log.writeInt(operacao.size());
+            log.writeInt((int) crc.getValue());
+            operacao.writeTo(log);
+            operacoesNaGeracao++;
+        } finally {
+            operacao.reset();
+        }
+    }
+
+    private void abrirLog(long novaGeracao) throws IOException {
+        geracao = novaGeracao;
+        arquivoLog = new FileOutputStream(diretorio.resolve(nome(geracao, "log")).toFile(), true);
+        log = new DataOutputStream(new BufferedOutputStream(arquivoLog, 1 << 16));
+        log.writeInt(MAGICO_LOG);
+        log.writeInt(VERSAO);
+        log.flush();
+        operacoesNaGeracao = 0;
+    }
+
+    private void fecharLog() throws IOException {
+        if (log != null){
+            log.flush();
+            arquivoLog.getChannel().force(false);
+            log.close();
+            log = null;
+        }
+    }
+
+    // Mapeado em memoria em janelas (um MappedByteBuffer tem no maximo 2 GB): o sistema operacional traz as
+    // paginas do arquivo direto para o buffer, sem copias para um buffer de leitura intermediario.
+    private static long lerSnapshot(Path caminho, Destino destino) throws IOException {
+        try (FileChannel canal = FileChannel.open(caminho, StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            MappedByteBuffer janela = canal.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(tamanho, JANELA_SNAPSHOT));
+            if (tamanho < CABECALHO_SNAPSHOT || janela.getInt() != MAGICO_SNAPSHOT || janela.getInt() != VERSAO){
+                throw new IOException("Snapshot invalido: " + caminho);
+            }
+            janela.getLong(); // geração, já conhecida pelo nome do arquivo
+            long quantidade = janela.getLong();
+
+            long inicioJanela = 0;
+            for (long i = 0; i < quantidade; i++){
+                Registro registro = null;
+                while (registro == null){
+                    int inicioRegistro = janela.position();
+                    try {
+                        registro = ler(janela);
+                    } catch (BufferUnderflowException e) {
+                        // registro cortado pelo fim da janela: mapeia a proxima a partir do inicio dele
+                        if (inicioJanela + janela.limit() >= tamanho){
+                            throw new IOException("Snapshot incompleto: " + caminho);
+                        }
+                        long tamanhoJanela = Math.max(JANELA_SNAPSHOT, 2L * janela.limit());
+                        inicioJanela += inicioRegistro;
+                        janela = canal.map(FileChannel.MapMode.READ_ONLY, inicioJanela, Math.min(tamanho - inicioJanela, tamanhoJanela));
+                    }
+                }
+                destino.gravar(registro);
+            }
+            return quantidade;
+        }
+    }
+
+    private long lerLog(Path caminho, Destino destino) throws IOException {
+        long tamanhoArquivo = Files.size(caminho);
+        long operacoes = 0;
+        // cabeçalho incompleto: o processo caiu logo depois de criar o arquivo
+        long valido = tamanhoArquivo < CABECALHO_LOG ? 0 : CABECALHO_LOG;
+        if (valido > 0){
+            try (InputStream arquivo = Files.newInputStream(caminho);
+                 DataInputStream entrada = new DataInputStream(new BufferedInputStream(arquivo, 1 << 16))) {
+                if (entrada.readInt() != MAGICO_LOG || entrada.readInt() != VERSAO){
+                    throw new IOException("Log invalido: " + caminho);
+                }
+                // Só a ultima operação pode estar estragada (queda no meio da escrita). Antes dela é corrupção:
+                // descartar perderia as operações seguintes, que já foram confirmadas.
+                while (tamanhoArquivo - valido >= 8){
+                    int tamanho = entrada.readInt();
+                    int esperado = entrada.readInt();
+                    long fimOperacao = valido + 8 + tamanho;
+                    if (tamanho <= 0){
+                        if (tamanho == 0 && esperado == 0 && restanteZerado(entrada)){
+                            break; // fim preenchido com zeros pelo sistema de arquivos na queda
+                        }
+                        throw new IOException("Log corrompido na posição " + valido + " (tamanho " + tamanho + "): " + caminho);
+                    }
+                    if (fimOperacao > tamanhoArquivo){
+                        break; // operação cortada pelo fim do arquivo
+                    }
+                    byte[] dados = entrada.readNBytes(tamanho);
+                    crc.reset();
+                    crc.update(dados);
+                    if (dados.length < tamanho || (int) crc.getValue() != esperado){
+                        if (fimOperacao == tamanhoArquivo){
+                            break;
+                        }
+                        throw new IOException("Log corrompido na posição " + valido + " (crc errado): " + caminho);
+                    }
+                    aplicar(ByteBuffer.wrap(dados), destino);
+                    valido = fimOperacao;
+                    operacoes++;
+                }
+            }
+        }
+        if (valido < tamanhoArquivo){
+            // fim cortado por uma queda: descarta, para as proximas operações não ficarem depois de lixo
+            try (FileChannel canal = FileChannel.open(caminho, StandardOpenOption.WRITE)) {
+                canal.truncate(valido);
+            }
+        }
+        return operacoes;
+    }
+
+    private static boolean restanteZerado(InputStream entrada) throws IOException {
+        int lido;
+        while ((lido = entrada.read()) >= 0){
+            if (lido != 0){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void aplicar(ByteBuffer dados, Destino destino) throws IOException {
+        byte tipo = dados.get();
+        switch (tipo){
+            case GRAVAR -> destino.gravar(ler(dados));
+            case REMOVER -> destino.remover(new UUID(dados.getLong(), dados.getLong()));
+            case LIMPAR -> destino.limpar();
+            default -> throw new IOException("Operação desconhecida no log: " + tipo);
+        }
+    }
+
+    private static void escrever(DataOutputStream saida, Registro registro) throws IOException {
+        saida.writeLong(registro.id().getMostSignificantBits());
+        saida.writeLong(registro.id().getLeastSignificantBits());
+        escreverTexto(saida, registro.nome());
+        escreverTexto(saida, registro.descricao());
+        saida.writeBoolean(registro.preco() != null);
+        saida.writeDouble(registro.preco() == null ? 0 : registro.preco());
+    }
+
+    private static Registro ler(ByteBuffer dados){
+        UUID id = new UUID(dados.getLong(), dados.getLong());
+        String nome = lerTexto(dados);
+        String descricao = lerTexto(dados);
+        boolean temPreco = dados.get() != 0;
+        double preco = dados.getDouble();
+        return Registro.de(id, nome, descricao, temPreco ? preco : null);
+    }
+
+    private static void escreverTexto(DataOutputStream saida, String texto) throws IOException {
+        if (texto == null){
+            saida.writeInt(-1);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        saida.writeInt(bytes.length);
+        saida.write(bytes);
+    }
+
+    private static String lerTexto(ByteBuffer dados){
+        int tamanho = dados.getInt();
+        if (tamanho < 0){
+            return null;
+        }
+        byte[] bytes = new byte[tamanho];
+        dados.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private List<Arquivo> listar() throws IOException {
+        try (Stream<Path> caminhos = Files.list(diretorio)) {
+            return caminhos
+                    .map(caminho -> {
+                        Matcher nome = NOME_ARQUIVO.matcher(caminho.getFileName().toString());
+                        return nome.matches()
+                                ? new Arquivo(caminho, Long.parseLong(nome.group(1)), nome.group(2).equals("snapshot"))
+                                : null;
+                    })
+                    .filter(arquivo -> arquivo != null)
+                    .sorted((a, b) -> Long.compare(a.geracao(), b.geracao()))
+                    .toList();
+        }
+    }
+
+    // Geração com zeros a esquerda: a ordem alfabetica dos arquivos é a ordem das gerações.
+    private static String nome(long geracao, String extensao){
+        return "catalogo-%019d.%s".formatted(geracao, extensao);
+    }
+
+    private record Arquivo(Path caminho, long geracao, boolean snapshot) {
+    }
+}
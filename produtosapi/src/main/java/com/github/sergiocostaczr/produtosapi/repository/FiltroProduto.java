@@ -0,0 +1,11 @@
+package com.github.sergiocostaczr.produtosapi.repository;
+
+// Filtros da pesquisa de produtos; campo null (ou em branco) não filtra.
+// nomePrefixo: nome começa com; descricao: contem, sem diferenciar maiusculas; preços: faixa inclusiva.
+public record FiltroProduto(String nomePrefixo, String descricao, Double precoMinimo, Double precoMaximo) {
+
+    public FiltroProduto {
+        nomePrefixo = nomePrefixo == null || nomePrefixo.isBlank() ? null : nomePrefixo;
+        descricao = descricao == null || descricao.isBlank() ? null : descricao;
+    }
+}
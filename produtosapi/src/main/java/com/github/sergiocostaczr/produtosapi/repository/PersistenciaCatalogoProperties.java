@@ -0,0 +1,33 @@
+package com.github.sergiocostaczr.produtosapi.repository;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+// Persistencia do catalogo em memoria (app.produtos.armazenamento=memoria), ver ArquivoCatalogo.
+// Sem diretorio o catalogo não é gravado em disco.
+// intervalo-snapshot é lido direto pelo @Scheduled do ProdutoRepositoryMemoria (padrão 5m lá).
+@Configuration
+@ConfigurationProperties(prefix = "app.produtos.persistencia")
+public class PersistenciaCatalogoProperties {
+
+    private String diretorio;
+    // true: fsync do log a cada escrita (não perde nada numa queda de energia, escritas bem mais lentas).
+    // false: o log vai para o sistema operacional a cada escrita, sobrevive a queda do processo.
+    private boolean sincronizarEscritas = false;
+
+    public String getDiretorio() {
+        return diretorio;
+    }
+
+    public void setDiretorio(String diretorio) {
+        this.diretorio = diretorio;
+    }
+
+    public boolean isSincronizarEscritas() {
+        return sincronizarEscritas;
+    }
+
+    public void setSincronizarEscritas(boolean sincronizarEscritas) {
+        this.sincronizarEscritas = sincronizarEscritas;
+    }
+}
@@ -0,0 +1,14 @@
+package com.github.sergiocostaczr.produtosapi.repository;
+
+import com.github.sergiocostaczr.produtosapi.model.Produto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.util.List;
+import java.util.UUID;
+
+// Spring Data sobre o H2, usado pelo ProdutoRepositoryJpa (app.produtos.armazenamento=jpa).
+public interface ProdutoJpaRepository extends JpaRepository<Produto, UUID>, JpaSpecificationExecutor<Produto> {
+    List<Produto> findByNome(String nome);//Apos findBy o "nome" precisa ser igual na propiedade da entidade,
+    // porem comeca com caixa alta como no get
+}
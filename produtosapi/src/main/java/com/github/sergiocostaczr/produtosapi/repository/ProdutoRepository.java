@@ -1,11 +1,51 @@
 package com.github.sergiocostaczr.produtosapi.repository;
 
 import com.github.sergiocostaczr.produtosapi.model.Produto;
-import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
-public interface ProdutoRepository extends JpaRepository<Produto,String> {
-    List<Produto> findByNome(String nome);//Apos findBy o "nome" precisa ser igual na propiedade da entidade,
-    // porem comeca com caixa alta como no get
+/**
+ * Armazenamento do catalogo, escolhido por app.produtos.armazenamento:
+ *  - jpa (padrão): ProdutoRepositoryJpa, tabela produto no H2
+ *  - memoria:      ProdutoRepositoryMemoria, mapas e indices na propria JVM
+ * Os metodos de CRUD têm os nomes do Spring Data para os chamadores não dependerem da implementação.
+ */
+public interface ProdutoRepository {
+
+    // id null: gera um UUIDv7 e preenche no produto. Com id: insere ou substitui.
+    Produto save(Produto produto);
+
+    List<Produto> saveAll(Iterable<Produto> produtos);
+
+    Optional<Produto> findById(UUID id);
+
+    boolean existsById(UUID id);
+
+    void deleteById(UUID id);
+
+    List<Produto> findByNome(String nome);
+
+    long count();
+
+    void deleteAll();
+
+    // Paginação por numero de pagina. A ordenação já vem validada pelo ProdutoService (nome, preco e id).
+    Page<Produto> pesquisar(FiltroProduto filtro, Pageable pageable);
+
+    // Paginação por cursor em ordem de (nome, id). posicao: ScrollPosition.keyset() ou as chaves "nome" e "id".
+    Window<Produto> pesquisarPorCursor(FiltroProduto filtro, ScrollPosition posicao, int limite);
+
+    // Importação: produto com nome já cadastrado tem descricao e preco substituidos (todos com esse nome),
+    // os demais são inseridos. Nomes do lote devem ser distintos.
+    Upsert upsertPorNome(Collection<Produto> lote);
+
+    record Upsert(int inseridos, int atualizados) {
+    }
 }
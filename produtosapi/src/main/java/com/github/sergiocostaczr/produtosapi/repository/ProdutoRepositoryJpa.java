@@ -0,0 +1,148 @@
+package com.github.sergiocostaczr.produtosapi.repository;
+
+import com.github.sergiocostaczr.produtosapi.model.Produto;
+import com.github.sergiocostaczr.produtosapi.repository.specs.ProdutoSpecs;
+import org.hibernate.id.uuid.UuidVersion7Strategy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+// Armazenamento padrão (app.produtos.armazenamento=jpa): tabela produto do data.sql via Spring Data,
+// e JDBC em batch para o upsert da importação.
+@Repository
+@ConditionalOnProperty(name = "app.produtos.armazenamento", havingValue = "jpa", matchIfMissing = true)
+public class ProdutoRepositoryJpa implements ProdutoRepository {
+
+    // Ordem da paginação por cursor: nome é not null e o id desempata, então (nome, id) identifica a posição.
+    private static final Sort ORDEM_CURSOR = Sort.by("nome", "id");
+
+    private static final String EXISTENTES = "select nome from produto where nome in (:nomes)";
+    private static final String INSERIR = "insert into produto (id, nome, descricao, preco) values (:id, :nome, :descricao, :preco)";
+    private static final String ATUALIZAR = "update produto set descricao = :descricao, preco = :preco where nome = :nome";
+
+    private ProdutoJpaRepository jpaRepository;
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    public ProdutoRepositoryJpa(ProdutoJpaRepository jpaRepository,
+                                NamedParameterJdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate) {
+        this.jpaRepository = jpaRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public Produto save(Produto produto) {
+        return jpaRepository.save(produto);
+    }
+
+    @Override
+    public List<Produto> saveAll(Iterable<Produto> produtos) {
+        return jpaRepository.saveAll(produtos);
+    }
+
+    @Override
+    public Optional<Produto> findById(UUID id) {
+        return jpaRepository.findById(id);
+    }
+
+    @Override
+    public boolean existsById(UUID id) {
+        return jpaRepository.existsById(id);
+    }
+
+    @Override
+    public void deleteById(UUID id) {
+        jpaRepository.deleteById(id);
+    }
+
+    @Override
+    public List<Produto> findByNome(String nome) {
+        return jpaRepository.findByNome(nome);
+    }
+
+    @Override
+    public long count() {
+        return jpaRepository.count();
+    }
+
+    @Override
+    public void deleteAll() {
+        jpaRepository.deleteAllInBatch();
+    }
+
+    // limit/offset: o banco percorre e descarta "offset" linhas (limitado pelo ProdutoService).
+    @Override
+    public Page<Produto> pesquisar(FiltroProduto filtro, Pageable pageable) {
+        return jpaRepository.findAll(especificacao(filtro), pageable);
+    }
+
+    // where (nome, id) > (ultimo nome, ultimo id) order by nome, id limit n. Usa o indice idx_produto_nome.
+    @Override
+    public Window<Produto> pesquisarPorCursor(FiltroProduto filtro, ScrollPosition posicao, int limite) {
+        return jpaRepository.findBy(especificacao(filtro),
+                consulta -> consulta.sortBy(ORDEM_CURSOR).limit(limite).scroll(posicao));
+    }
+
+    @Override
+    public Upsert upsertPorNome(Collection<Produto> lote) {
+        return transactionTemplate.execute(status -> {
+            Set<String> existentes = new HashSet<>(jdbcTemplate.queryForList(EXISTENTES,
+                    Map.of("nomes", lote.stream().map(Produto::getNome).toList()), String.class));
+
+            List<SqlParameterSource> insercoes = new ArrayList<>();
+            List<SqlParameterSource> atualizacoes = new ArrayList<>();
+            for (Produto produto : lote){
+                MapSqlParameterSource parametros = new MapSqlParameterSource()
+                        .addValue("nome", produto.getNome())
+                        .addValue("descricao", produto.getDescricao())
+                        .addValue("preco", produto.getPreco());
+                if (existentes.contains(produto.getNome())){
+                    atualizacoes.add(parametros);
+                } else {
+                    insercoes.add(parametros.addValue("id", UuidVersion7Strategy.INSTANCE.generateUuid(null)));
+                }
+            }
+            jdbcTemplate.batchUpdate(INSERIR, insercoes.toArray(SqlParameterSource[]::new));
+            jdbcTemplate.batchUpdate(ATUALIZAR, atualizacoes.toArray(SqlParameterSource[]::new));
+            return new Upsert(insercoes.size(), atualizacoes.size());
+        });
+    }
+
+    private static Specification<Produto> especificacao(FiltroProduto filtro){
+        List<Specification<Produto>> filtros = new ArrayList<>();
+
+        if (filtro.nomePrefixo() != null){
+            filtros.add(ProdutoSpecs.nomeComecaCom(filtro.nomePrefixo()));
+        }
+        if (filtro.descricao() != null){
+            filtros.add(ProdutoSpecs.descricaoContem(filtro.descricao()));
+        }
+        if (filtro.precoMinimo() != null){
+            filtros.add(ProdutoSpecs.precoMaiorOuIgual(filtro.precoMinimo()));
+        }
+        if (filtro.precoMaximo() != null){
+            filtros.add(ProdutoSpecs.precoMenorOuIgual(filtro.precoMaximo()));
+        }
+        return Specification.allOf(filtros);
+    }
+}
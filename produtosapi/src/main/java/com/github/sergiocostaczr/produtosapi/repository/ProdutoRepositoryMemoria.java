@@ -0,0 +1,486 @@
+package com.github.sergiocostaczr.produtosapi.repository;
+
+import com.github.sergiocostaczr.produtosapi.model.Produto;
+import jakarta.annotation.PreDestroy;
+import org.hibernate.id.uuid.UuidVersion7Strategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * Catalogo na propria JVM (app.produtos.armazenamento=memoria), sem JDBC, SQL nem Hibernate na leitura.
+ *  - porId:    ConcurrentHashMap id -> registro
+ *  - porNome:  indice ordenado por nome sem diferenciar maiusculas (depois nome exato e id): findByNome,
+ *              prefixo do nome, ordenação por nome e cursor
+ *  - porPreco: indice ordenado por (preco, id), só produtos com preço: faixa de preço e ordenação por preço
+ *
+ * Leituras não usam lock. Os registros são imutaveis e o porId é a fonte da verdade: os indices só dizem a
+ * posição, e quem percorre um indice pega o registro atual no porId, ignorando os que já mudaram de posição.
+ * O escritor inclui a posição nova nos indices, publica no porId e só então remove a posição antiga. Escritas
+ * são serializadas. A leitura não é um snapshot (como um READ COMMITTED sem MVCC): cada registro devolvido é
+ * uma versão que estava publicada, e um produto que não muda aparece exatamente uma vez, mas um produto que
+ * muda de posição (nome ou preço) durante a leitura pode aparecer nas duas posições (a antiga lida antes da
+ * troca, a nova depois) ou em nenhuma (a nova passada antes da troca, a antiga depois).
+ *
+ * Com app.produtos.persistencia.diretorio cada escrita vai antes para o log do ArquivoCatalogo, e a cada
+ * intervalo-snapshot (e no shutdown) o catalogo inteiro é gravado num snapshot. Na subida o catalogo volta do
+ * snapshot mais o log, sem recarregar do fornecedor. Sem diretorio os dados não sobrevivem a um restart.
+ */
+@Repository
+@ConditionalOnProperty(name = "app.produtos.armazenamento", havingValue = "memoria")
+public class ProdutoRepositoryMemoria implements ProdutoRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(ProdutoRepositoryMemoria.class);
+
+    private static final UUID ID_MINIMO = new UUID(0, 0);
+    private static final UUID ID_MAXIMO = new UUID(-1L, -1L);
+
+    // Mesma ordem da coluna uuid no banco (bytes sem sinal); UUID.compareTo compara com sinal.
+    private static final Comparator<UUID> ORDEM_UUID = (a, b) -> {
+        int mais = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return mais != 0 ? mais : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    };
+    private static final Comparator<Registro> POR_ID = Comparator.comparing(Registro::id, ORDEM_UUID);
+    private static final Comparator<Registro> POR_NOME = Comparator.comparing(Registro::chaveNome).thenComparing(Registro::nome);
+    private static final Comparator<Registro> POR_PRECO = Comparator.comparing(Registro::preco, Comparator.nullsFirst(Comparator.naturalOrder()));
+    private static final Comparator<Registro> ORDEM_NOME = POR_NOME.thenComparing(POR_ID);
+    private static final Comparator<Registro> ORDEM_PRECO = POR_PRECO.thenComparing(POR_ID);
+
+    private final Map<UUID, Registro> porId = new ConcurrentHashMap<>();
+    private final NavigableSet<Registro> porNome = new ConcurrentSkipListSet<>(ORDEM_NOME);
+    private final NavigableSet<Registro> porPreco = new ConcurrentSkipListSet<>(ORDEM_PRECO);
+    private final NavigableSet<Registro> semPreco = new ConcurrentSkipListSet<>(POR_ID);
+    private final Object escrita = new Object();
+    private final ArquivoCatalogo arquivo;
+
+    // Só em memoria, sem arquivos
+    public ProdutoRepositoryMemoria() {
+        this.arquivo = null;
+    }
+
+    @Autowired
+    public ProdutoRepositoryMemoria(PersistenciaCatalogoProperties persistencia) throws IOException {
+        if (persistencia.getDiretorio() == null || persistencia.getDiretorio().isBlank()){
+            this.arquivo = null;
+            log.info("Catalogo em memoria sem persistencia (app.produtos.persistencia.diretorio não definido)");
+            return;
+        }
+        this.arquivo = new ArquivoCatalogo(Path.of(persistencia.getDiretorio()), persistencia.isSincronizarEscritas());
+
+        long inicio = System.nanoTime();
+        ArquivoCatalogo.Restauracao restauracao = arquivo.restaurar(new ArquivoCatalogo.Destino() {
+            @Override
+            public void gravar(Registro registro) {
+                ProdutoRepositoryMemoria.this.gravar(registro);
+            }
+
+            @Override
+            public void remover(UUID id) {
+                ProdutoRepositoryMemoria.this.remover(id);
+            }
+
+            @Override
+            public void limpar() {
+                ProdutoRepositoryMemoria.this.limpar();
+            }
+        });
+        log.info("Catalogo restaurado de {} em {} ms, {} produto(s). Snapshot: {} produto(s), {} KB, {} ms. Log: {} operação(ões), {} KB, {} ms",
+                persistencia.getDiretorio(), (System.nanoTime() - inicio) / 1_000_000, porId.size(),
+                restauracao.produtosSnapshot(), restauracao.bytesSnapshot() / 1024, restauracao.msSnapshot(),
+                restauracao.operacoesLog(), restauracao.bytesLog() / 1024, restauracao.msLog());
+    }
+
+    @Override
+    public Produto save(Produto produto) {
+        if (produto.getNome() == null){
+            throw new DataIntegrityViolationException("Produto sem nome (coluna nome é not null)");
+        }
+        if (produto.getId() == null){
+            produto.setId(UuidVersion7Strategy.INSTANCE.generateUuid(null));
+        }
+        Registro registro = Registro.de(produto);
+        synchronized (escrita){
+            registrar(arquivo -> arquivo.gravar(registro));
+            gravar(registro);
+            confirmar();
+        }
+        return produto;
+    }
+
+    @Override
+    public List<Produto> saveAll(Iterable<Produto> produtos) {
+        List<Produto> salvos = new ArrayList<>();
+        for (Produto produto : produtos){
+            salvos.add(save(produto));
+        }
+        return salvos;
+    }
+
+    @Override
+    public Optional<Produto> findById(UUID id) {
+        return Optional.ofNullable(porId.get(id)).map(Registro::produto);
+    }
+
+    @Override
+    public boolean existsById(UUID id) {
+        return porId.containsKey(id);
+    }
+
+    @Override
+    public void deleteById(UUID id) {
+        synchronized (escrita){
+            if (porId.containsKey(id)){
+                registrar(arquivo -> arquivo.remover(id));
+                remover(id);
+                confirmar();
+            }
+        }
+    }
+
+    @Override
+    public List<Produto> findByNome(String nome) {
+        return comNome(nome).stream().map(Registro::produto).toList();
+    }
+
+    @Override
+    public long count() {
+        return porId.size();
+    }
+
+    @Override
+    public void deleteAll() {
+        synchronized (escrita){
+            registrar(ArquivoCatalogo::limpar);
+            limpar();
+            confirmar();
+        }
+    }
+
+    // Snapshot do estado atual, para a proxima subida não precisar reaplicar o log inteiro. A copia da lista de
+    // registros é feita no lock (registros são imutaveis); a gravação do arquivo não bloqueia as escritas.
+    @Scheduled(fixedDelayString = "${app.produtos.persistencia.intervalo-snapshot:5m}",
+            initialDelayString = "${app.produtos.persistencia.intervalo-snapshot:5m}")
+    public void gravarSnapshot(){
+        if (arquivo == null){
+            return;
+        }
+        long geracao;
+        List<Registro> registros;
+        synchronized (escrita){
+            if (!arquivo.alteradoDesdeSnapshot()){
+                return;
+            }
+            try {
+                geracao = arquivo.iniciarGeracao();
+            } catch (IOException e) {
+                log.error("Falha ao abrir o log da nova geração do catalogo", e);
+                return;
+            }
+            registros = List.copyOf(porId.values());
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            arquivo.gravarSnapshot(geracao, registros);
+            log.info("Snapshot do catalogo (geração {}): {} produto(s) em {} ms",
+                    geracao, registros.size(), (System.nanoTime() - inicio) / 1_000_000);
+        } catch (IOException e) {
+            // o log da geração anterior continua no disco até um snapshot dar certo
+            log.error("Falha ao gravar o snapshot do catalogo", e);
+        }
+    }
+
+    @PreDestroy
+    public void fechar() throws IOException {
+        if (arquivo != null){
+            gravarSnapshot();
+            synchronized (escrita){
+                arquivo.close();
+            }
+        }
+    }
+
+    // Percorre o indice da primeira ordenação (nome ou preco) já na ordem pedida; produtos empatados nela são
+    // ordenados entre si pelas demais. O total da pagina exige percorrer todos os candidatos do indice.
+    @Override
+    public Page<Produto> pesquisar(FiltroProduto filtro, Pageable pageable) {
+        Sort.Order primeira = pageable.getSort().stream().findFirst().orElse(Sort.Order.asc("id"));
+        Comparator<Registro> empate = comparador(primeira);
+        Comparator<Registro> ordem = pageable.getSort().stream()
+                .map(ProdutoRepositoryMemoria::comparador)
+                .reduce(Comparator::thenComparing)
+                .orElse(POR_ID);
+
+        Stream<Registro> candidatos = switch (primeira.getProperty()){
+            case "nome" -> atuais(ordenarPorNome(filtro, primeira.isDescending()).stream(), ORDEM_NOME);
+            case "preco" -> atuais(ordenarPorPreco(filtro, primeira.isDescending()), ORDEM_PRECO);
+            default -> porId.values().stream().sorted(ordem);
+        };
+
+        long inicio = pageable.isPaged() ? pageable.getOffset() : 0;
+        long fim = pageable.isPaged() ? inicio + pageable.getPageSize() : Long.MAX_VALUE;
+        List<Produto> conteudo = new ArrayList<>();
+        List<Registro> grupo = new ArrayList<>();
+        long total = 0;
+
+        for (Registro registro : (Iterable<Registro>) candidatos.filter(r -> atende(r, filtro))::iterator){
+            if (!grupo.isEmpty() && empate.compare(grupo.getFirst(), registro) != 0){
+                total = paginar(grupo, ordem, total, inicio, fim, conteudo);
+            }
+            grupo.add(registro);
+        }
+        total = paginar(grupo, ordem, total, inicio, fim, conteudo);
+        return new PageImpl<>(conteudo, pageable, total);
+    }
+
+    // Ordem do indice porNome: nome sem diferenciar maiusculas, depois nome exato e id.
+    @Override
+    public Window<Produto> pesquisarPorCursor(FiltroProduto filtro, ScrollPosition posicao, int limite) {
+        NavigableSet<Registro> faixa = ordenarPorNome(filtro, false);
+        if (posicao instanceof KeysetScrollPosition keyset && !keyset.isInitial()){
+            Map<String, ?> chaves = keyset.getKeys();
+            faixa = faixa.tailSet(Registro.chave((String) chaves.get("nome"), (UUID) chaves.get("id")), false);
+        }
+
+        List<Registro> encontrados = atuais(faixa.stream(), ORDEM_NOME)
+                .filter(r -> atende(r, filtro))
+                .limit(limite + 1L)
+                .toList();
+        boolean temMais = encontrados.size() > limite;
+        List<Registro> pagina = temMais ? encontrados.subList(0, limite) : encontrados;
+
+        return Window.from(pagina.stream().map(Registro::produto).toList(),
+                i -> ScrollPosition.forward(Map.of("nome", pagina.get(i).nome(), "id", pagina.get(i).id())),
+                temMais);
+    }
+
+    @Override
+    public Upsert upsertPorNome(Collection<Produto> lote) {
+        int inseridos = 0;
+        int atualizados = 0;
+        synchronized (escrita){
+            for (Produto produto : lote){
+                if (produto.getNome() == null){
+                    throw new DataIntegrityViolationException("Produto sem nome (coluna nome é not null)");
+                }
+                List<Registro> existentes = comNome(produto.getNome());
+                if (existentes.isEmpty()){
+                    Registro novo = Registro.de(UuidVersion7Strategy.INSTANCE.generateUuid(null), produto.getNome(),
+                            produto.getDescricao(), produto.getPreco());
+                    registrar(arquivo -> arquivo.gravar(novo));
+                    gravar(novo);
+                    inseridos++;
+                } else {
+                    for (Registro existente : existentes){
+                        Registro alterado = Registro.de(existente.id(), existente.nome(), produto.getDescricao(), produto.getPreco());
+                        registrar(arquivo -> arquivo.gravar(alterado));
+                        gravar(alterado);
+                    }
+                    atualizados++;
+                }
+            }
+            confirmar();
+        }
+        return new Upsert(inseridos, atualizados);
+    }
+
+    // Operação no log antes de aplicar na memoria: o que está na memoria sempre está no log.
+    private void registrar(OperacaoArquivo operacao){
+        if (arquivo != null){
+            try {
+                operacao.executar(arquivo);
+            } catch (IOException e) {
+                throw new DataAccessResourceFailureException("Falha ao gravar o log do catalogo", e);
+            }
+        }
+    }
+
+    private void confirmar(){
+        registrar(ArquivoCatalogo::confirmar);
+    }
+
+    // Os metodos abaixo alteram só a memoria. Chamados com o lock de escrita (ou na restauração, antes de
+    // o repositorio ser publicado). Posição que não mudou continua no indice (com o registro antigo, que só
+    // serve de chave).
+    private void gravar(Registro novo){
+        porNome.add(novo);
+        indicePreco(novo).add(novo);
+        Registro anterior = porId.put(novo.id(), novo);
+        if (anterior != null){
+            removerDosIndices(anterior, novo);
+        }
+    }
+
+    private void remover(UUID id){
+        Registro removido = porId.remove(id);
+        if (removido != null){
+            removerDosIndices(removido, null);
+        }
+    }
+
+    private void limpar(){
+        porId.clear();
+        porNome.clear();
+        porPreco.clear();
+        semPreco.clear();
+    }
+
+    private void removerDosIndices(Registro anterior, Registro atual){
+        if (atual == null || ORDEM_NOME.compare(anterior, atual) != 0){
+            porNome.remove(anterior);
+        }
+        if (atual == null || ORDEM_PRECO.compare(anterior, atual) != 0){
+            indicePreco(anterior).remove(anterior);
+        }
+    }
+
+    private NavigableSet<Registro> indicePreco(Registro registro){
+        return registro.preco() == null ? semPreco : porPreco;
+    }
+
+    // Troca a entrada do indice pelo registro atual do porId, desde que ele ainda esteja nessa posição.
+    // Avaliado entrada a entrada, durante o percurso: ver a garantia (fraca) de leitura no comentario da classe.
+    private Stream<Registro> atuais(Stream<Registro> posicoes, Comparator<Registro> ordemIndice){
+        return posicoes
+                .map(posicao -> {
+                    Registro atual = porId.get(posicao.id());
+                    return atual != null && ordemIndice.compare(atual, posicao) == 0 ? atual : null;
+                })
+                .filter(Objects::nonNull);
+    }
+
+    private List<Registro> comNome(String nome){
+        return atuais(porNome.subSet(Registro.chave(nome, ID_MINIMO), true, Registro.chave(nome, ID_MAXIMO), true).stream(),
+                ORDEM_NOME).toList();
+    }
+
+    private NavigableSet<Registro> ordenarPorNome(FiltroProduto filtro, boolean decrescente){
+        NavigableSet<Registro> faixa = porNome;
+        if (filtro.nomePrefixo() != null){
+            String prefixo = chaveNome(filtro.nomePrefixo());
+            faixa = porNome.subSet(new Registro(ID_MINIMO, "", prefixo, null, null), true,
+                    new Registro(ID_MINIMO, "", prefixo + Character.MAX_VALUE, null, null), false);
+        }
+        return decrescente ? faixa.descendingSet() : faixa;
+    }
+
+    // Sem preço conta como menor que qualquer preço (como o H2 ordena null); fica fora de faixa de preço.
+    private Stream<Registro> ordenarPorPreco(FiltroProduto filtro, boolean decrescente){
+        if (filtro.precoMinimo() != null || filtro.precoMaximo() != null){
+            NavigableSet<Registro> faixa = porPreco;
+            if (filtro.precoMinimo() != null){
+                faixa = faixa.tailSet(new Registro(ID_MINIMO, "", "", null, filtro.precoMinimo()), true);
+            }
+            if (filtro.precoMaximo() != null){
+                faixa = faixa.headSet(new Registro(ID_MAXIMO, "", "", null, filtro.precoMaximo()), true);
+            }
+            return (decrescente ? faixa.descendingSet() : faixa).stream();
+        }
+        return decrescente
+                ? Stream.concat(porPreco.descendingSet().stream(), semPreco.stream())
+                : Stream.concat(semPreco.stream(), porPreco.stream());
+    }
+
+    // Mesma semantica do ProdutoSpecs
+    private static boolean atende(Registro registro, FiltroProduto filtro){
+        if (filtro.nomePrefixo() != null && !registro.nome().startsWith(filtro.nomePrefixo())){
+            return false;
+        }
+        if (filtro.descricao() != null && (registro.descricao() == null
+                || !registro.descricao().toLowerCase().contains(filtro.descricao().toLowerCase()))){
+            return false;
+        }
+        if (filtro.precoMinimo() != null && (registro.preco() == null || registro.preco() < filtro.precoMinimo())){
+            return false;
+        }
+        return filtro.precoMaximo() == null || (registro.preco() != null && registro.preco() <= filtro.precoMaximo());
+    }
+
+    private static long paginar(List<Registro> grupo, Comparator<Registro> ordem, long posicao,
+                                long inicio, long fim, List<Produto> conteudo){
+        if (grupo.size() > 1){
+            grupo.sort(ordem);
+        }
+        for (Registro registro : grupo){
+            if (posicao >= inicio && posicao < fim){
+                conteudo.add(registro.produto());
+            }
+            posicao++;
+        }
+        grupo.clear();
+        return posicao;
+    }
+
+    private static Comparator<Registro> comparador(Sort.Order ordem){
+        Comparator<Registro> comparador = switch (ordem.getProperty()){
+            case "nome" -> POR_NOME;
+            case "preco" -> POR_PRECO;
+            case "id" -> POR_ID;
+            default -> throw new IllegalArgumentException("Ordenação não permitida: " + ordem.getProperty());
+        };
+        return ordem.isDescending() ? comparador.reversed() : comparador;
+    }
+
+    private static String chaveNome(String nome){
+        return nome.toLowerCase(Locale.ROOT);
+    }
+
+    @FunctionalInterface
+    private interface OperacaoArquivo {
+        void executar(ArquivoCatalogo arquivo) throws IOException;
+    }
+
+    record Registro(UUID id, String nome, String chaveNome, String descricao, Double preco) {
+
+        static Registro de(UUID id, String nome, String descricao, Double preco){
+            return new Registro(id, nome, ProdutoRepositoryMemoria.chaveNome(nome), descricao, preco);
+        }
+
+        static Registro de(Produto produto){
+            return de(produto.getId(), produto.getNome(), produto.getDescricao(), produto.getPreco());
+        }
+
+        // Posição no indice porNome, para buscas e para o cursor
+        static Registro chave(String nome, UUID id){
+            return new Registro(id, nome, ProdutoRepositoryMemoria.chaveNome(nome), null, null);
+        }
+
+        // Copia: o Produto devolvido pode ser alterado pelo chamador sem mexer no catalogo
+        Produto produto(){
+            Produto produto = new Produto();
+            produto.setId(id);
+            produto.setNome(nome);
+            produto.setDescricao(descricao);
+            produto.setPreco(preco);
+            return produto;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.sergiocostaczr.produtosapi.repository.specs;
+
+import com.github.sergiocostaczr.produtosapi.model.Produto;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Filtros da pesquisa de produtos. Cada metodo retorna um pedaço do where,
+ * combinados com and() no ProdutoRepositoryJpa conforme os filtros informados.
+ */
+public class ProdutoSpecs {
+
+    private static final char ESCAPE = '\\';
+
+    private ProdutoSpecs() {
+    }
+
+    // where nome like 'prefixo%' -> usa o indice idx_produto_nome (não funciona com '%prefixo').
+    public static Specification<Produto> nomeComecaCom(String prefixo){
+        return (root, query, cb) -> cb.like(root.get("nome"), escaparLike(prefixo) + "%", ESCAPE);
+    }
+
+    // where lower(descricao) like '%texto%' -> sem indice, percorre as linhas que sobraram dos outros filtros.
+    public static Specification<Produto> descricaoContem(String texto){
+        return (root, query, cb) -> cb.like(cb.lower(root.get("descricao")), "%" + escaparLike(texto.toLowerCase()) + "%", ESCAPE);
+    }
+
+    // where preco >= ?
+    public static Specification<Produto> precoMaiorOuIgual(Double preco){
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("preco"), preco);
+    }
+
+    // where preco <= ?
+    public static Specification<Produto> precoMenorOuIgual(Double preco){
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("preco"), preco);
+    }
+
+    private static String escaparLike(String valor){
+        return valor
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -0,0 +1,321 @@
+package com.github.sergiocostaczr.produtosapi.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.github.sergiocostaczr.produtosapi.controller.dto.ResultadoImportacao;
+import com.github.sergiocostaczr.produtosapi.controller.dto.ResultadoImportacao.Rejeicao;
+import com.github.sergiocostaczr.produtosapi.model.Produto;
+import com.github.sergiocostaczr.produtosapi.repository.ProdutoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Importação de catalogo em massa (POST /produtos/importacao).
+// Lê o corpo linha a linha e grava a cada tamanho-lote produtos com ProdutoRepository.upsertPorNome
+// (no banco: cada lote na sua transação, com insert/update em batch JDBC). Em memoria fica só o lote atual e as primeiras rejeições, qualquer que seja o tamanho do arquivo.
+// Upsert pelo nome: produto com o mesmo nome já cadastrado tem descricao e preco substituidos.
+@Service
+public class ImportacaoProdutosService {
+
+    public enum Formato { CSV, NDJSON }
+
+    public static final int MAXIMO_REJEICOES_DETALHADAS = 100;
+
+    // Bem acima de nome (50) + descricao (300) + preço, mesmo com aspas e escapes unicode no json.
+    // Uma linha maior é descartada sem ser guardada: um arquivo sem quebra de linha não vai inteiro para o heap.
+    public static final int TAMANHO_MAXIMO_LINHA = 8 * 1024;
+
+    // numeric(18,2) no data.sql
+    private static final double PRECO_MAXIMO = 1e16;
+
+    private ProdutoRepository produtoRepository;
+    private JsonMapper jsonMapper;
+    private int tamanhoLote;
+
+    public ImportacaoProdutosService(ProdutoRepository produtoRepository,
+                                     JsonMapper jsonMapper,
+                                     @Value("${app.produtos.importacao.tamanho-lote:1000}") int tamanhoLote) {
+        this.produtoRepository = produtoRepository;
+        this.jsonMapper = jsonMapper;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    // CSV: primeira linha é o cabeçalho (nome obrigatorio; descricao e preco opcionais, em qualquer ordem).
+    // NDJSON: um objeto {"nome": ..., "descricao": ..., "preco": ...} por linha.
+    // Linha invalida é rejeitada e a importação continua; lote que falha no banco tem todas as linhas rejeitadas.
+    public ResultadoImportacao importar(InputStream corpo, Formato formato, Charset charset) throws IOException {
+        long inicio = System.nanoTime();
+        Contagem contagem = new Contagem();
+        Map<String, LinhaProduto> lote = new LinkedHashMap<>();
+        Map<String, Integer> cabecalho = null;
+
+        LeitorLinhas leitor = new LeitorLinhas(new InputStreamReader(corpo, charset), TAMANHO_MAXIMO_LINHA);
+        String linha;
+        long numero = 0;
+        while ((linha = leitor.proxima()) != null){
+            numero++;
+            if (leitor.excedeu()){
+                if (formato == Formato.CSV && cabecalho == null){
+                    throw new IllegalArgumentException("Cabeçalho com mais de " + TAMANHO_MAXIMO_LINHA + " caracteres");
+                }
+                contagem.linhas++;
+                contagem.rejeitar(numero, "Linha com mais de " + TAMANHO_MAXIMO_LINHA + " caracteres");
+                continue;
+            }
+            // BOM no inicio (CSV exportado pelo Excel)
+            if (numero == 1 && !linha.isEmpty() && linha.charAt(0) == '\uFEFF'){
+                linha = linha.substring(1);
+            }
+            if (linha.isBlank()){
+                continue;
+            }
+            if (formato == Formato.CSV && cabecalho == null){
+                cabecalho = lerCabecalho(linha);
+                continue;
+            }
+
+            contagem.linhas++;
+            LinhaProduto produto;
+            try {
+                produto = formato == Formato.CSV ? lerCsv(numero, linha, cabecalho) : lerJson(numero, linha);
+                validar(produto);
+            } catch (IllegalArgumentException | JacksonException e) {
+                contagem.rejeitar(numero, e.getMessage());
+                continue;
+            }
+
+            // mesmo nome repetido no arquivo: vale a ultima linha, como um update da anterior
+            if (lote.put(produto.nome(), produto) != null){
+                contagem.atualizados++;
+            }
+            if (lote.size() >= tamanhoLote){
+                gravar(lote, contagem);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()){
+            gravar(lote, contagem);
+        }
+        return contagem.resultado(System.nanoTime() - inicio);
+    }
+
+    private void gravar(Map<String, LinhaProduto> lote, Contagem contagem){
+        List<Produto> produtos = new ArrayList<>(lote.size());
+        for (LinhaProduto linha : lote.values()){
+            Produto produto = new Produto();
+            produto.setNome(linha.nome());
+            produto.setDescricao(linha.descricao());
+            produto.setPreco(linha.preco());
+            produtos.add(produto);
+        }
+        try {
+            ProdutoRepository.Upsert gravados = produtoRepository.upsertPorNome(produtos);
+            contagem.inseridos += gravados.inseridos();
+            contagem.atualizados += gravados.atualizados();
+        } catch (DataAccessException e) {
+            String motivo = "Lote não gravado: " + e.getMostSpecificCause().getMessage();
+            for (LinhaProduto produto : lote.values()){
+                contagem.rejeitar(produto.linha(), motivo);
+            }
+        }
+    }
+
+    private static Map<String, Integer> lerCabecalho(String linha){
+        Map<String, Integer> colunas = new HashMap<>();
+        List<String> nomes = separarCsv(linha);
+        for (int i = 0; i < nomes.size(); i++){
+            colunas.put(nomes.get(i).strip().toLowerCase(Locale.ROOT), i);
+        }
+        if (!colunas.containsKey("nome")){
+            throw new IllegalArgumentException("CSV sem coluna nome no cabeçalho (colunas: nome, descricao, preco)");
+        }
+        return colunas;
+    }
+
+    private static LinhaProduto lerCsv(long numero, String linha, Map<String, Integer> cabecalho){
+        List<String> campos = separarCsv(linha);
+        String preco = campo(campos, cabecalho, "preco");
+        return new LinhaProduto(numero,
+                campo(campos, cabecalho, "nome"),
+                campo(campos, cabecalho, "descricao"),
+                preco == null ? null : converterPreco(preco));
+    }
+
+    private static String campo(List<String> campos, Map<String, Integer> cabecalho, String coluna){
+        Integer indice = cabecalho.get(coluna);
+        if (indice == null || indice >= campos.size()){
+            return null;
+        }
+        String valor = campos.get(indice).strip();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    // Campos separados por virgula; entre aspas podem ter virgula e "" vira ". Um produto por linha.
+    // Depois de fechar aspas só pode vir virgula ou o fim da linha.
+    private static List<String> separarCsv(String linha){
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < linha.length(); i++){
+            char c = linha.charAt(i);
+            if (entreAspas){
+                if (c != '"'){
+                    campo.append(c);
+                } else if (i + 1 < linha.length() && linha.charAt(i + 1) == '"'){
+                    campo.append('"');
+                    i++;
+                } else if (i + 1 < linha.length() && linha.charAt(i + 1) != ','){
+                    throw new IllegalArgumentException("Texto depois de fechar aspas");
+                } else {
+                    entreAspas = false;
+                }
+            } else if (c == '"'){
+                entreAspas = true;
+            } else if (c == ','){
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        if (entreAspas){
+            throw new IllegalArgumentException("Aspas não fechadas");
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+
+    private static Double converterPreco(String valor){
+        try {
+            return Double.valueOf(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Preço invalido: " + valor);
+        }
+    }
+
+    private LinhaProduto lerJson(long numero, String linha){
+        DadosProduto dados = jsonMapper.readValue(linha, DadosProduto.class);
+        if (dados == null){
+            throw new IllegalArgumentException("Linha não é um objeto json");
+        }
+        return new LinhaProduto(numero,
+                dados.nome() == null ? null : dados.nome().strip(),
+                dados.descricao(),
+                dados.preco());
+    }
+
+    private static void validar(LinhaProduto produto){
+        if (produto.nome() == null || produto.nome().isBlank()){
+            throw new IllegalArgumentException("Nome obrigatorio");
+        }
+        if (produto.nome().length() > 50){
+            throw new IllegalArgumentException("Nome com mais de 50 caracteres");
+        }
+        if (produto.descricao() != null && produto.descricao().length() > 300){
+            throw new IllegalArgumentException("Descrição com mais de 300 caracteres");
+        }
+        Double preco = produto.preco();
+        if (preco != null && (preco.isNaN() || preco < 0 || preco >= PRECO_MAXIMO)){
+            throw new IllegalArgumentException("Preço invalido: " + preco);
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private record DadosProduto(String nome, String descricao, Double preco) {
+    }
+
+    private record LinhaProduto(long linha, String nome, String descricao, Double preco) {
+    }
+
+    // Como BufferedReader.readLine (\n, \r ou \r\n), mas com tamanho maximo: o que passa do maximo é lido e
+    // descartado até o fim da linha, e excedeu() indica que a linha devolvida (vazia) deve ser rejeitada.
+    private static final class LeitorLinhas {
+        private final Reader entrada;
+        private final int tamanhoMaximo;
+        private final char[] buffer = new char[64 * 1024];
+        private final StringBuilder linha = new StringBuilder();
+        private int posicao;
+        private int fim;
+        private boolean depoisDeCr;
+        private boolean excedeu;
+
+        LeitorLinhas(Reader entrada, int tamanhoMaximo) {
+            this.entrada = entrada;
+            this.tamanhoMaximo = tamanhoMaximo;
+        }
+
+        // null no fim do corpo
+        String proxima() throws IOException {
+            linha.setLength(0);
+            excedeu = false;
+            boolean leu = false;
+            while (true){
+                if (posicao == fim){
+                    fim = entrada.read(buffer);
+                    posicao = 0;
+                    if (fim <= 0){
+                        fim = 0;
+                        return leu ? linha.toString() : null;
+                    }
+                }
+                char c = buffer[posicao++];
+                if (c == '\n' && depoisDeCr){
+                    depoisDeCr = false;
+                    continue;
+                }
+                depoisDeCr = c == '\r';
+                if (c == '\n' || c == '\r'){
+                    return linha.toString();
+                }
+                leu = true;
+                if (excedeu){
+                    continue;
+                }
+                if (linha.length() == tamanhoMaximo){
+                    excedeu = true;
+                    linha.setLength(0);
+                } else {
+                    linha.append(c);
+                }
+            }
+        }
+
+        boolean excedeu(){
+            return excedeu;
+        }
+    }
+
+    private static final class Contagem {
+        long linhas;
+        long inseridos;
+        long atualizados;
+        long rejeitados;
+        List<Rejeicao> rejeicoes = new ArrayList<>();
+
+        void rejeitar(long linha, String motivo){
+            rejeitados++;
+            if (rejeicoes.size() < MAXIMO_REJEICOES_DETALHADAS){
+                rejeicoes.add(new Rejeicao(linha, motivo));
+            }
+        }
+
+        ResultadoImportacao resultado(long duracaoNanos){
+            double segundos = Math.max(duracaoNanos, 1) / 1e9;
+            return new ResultadoImportacao(linhas, inseridos, atualizados, rejeitados, rejeicoes,
+                    duracaoNanos / 1_000_000, Math.round((inseridos + atualizados) / segundos));
+        }
+    }
+}
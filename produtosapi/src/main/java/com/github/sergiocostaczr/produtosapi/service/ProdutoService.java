@@ -0,0 +1,102 @@
+package com.github.sergiocostaczr.produtosapi.service;
+
+import com.github.sergiocostaczr.produtosapi.controller.dto.JanelaProdutos;
+import com.github.sergiocostaczr.produtosapi.model.Produto;
+import com.github.sergiocostaczr.produtosapi.repository.FiltroProduto;
+import com.github.sergiocostaczr.produtosapi.repository.ProdutoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+@Service
+public class ProdutoService {
+
+    // Só colunas com indice podem ser usadas na ordenação (ver data.sql).
+    public static final Set<String> CAMPOS_ORDENACAO = Set.of("nome", "preco");
+
+    private static final char SEPARADOR_CURSOR = '\u0000';
+
+    private ProdutoRepository produtoRepository;
+    private long offsetMaximo;
+    private int tamanhoMaximoPagina;
+
+    public ProdutoService(ProdutoRepository produtoRepository,
+                          @Value("${app.produtos.offset-maximo:10000}") long offsetMaximo,
+                          @Value("${spring.data.web.pageable.max-page-size:100}") int tamanhoMaximoPagina) {
+        this.produtoRepository = produtoRepository;
+        this.offsetMaximo = offsetMaximo;
+        this.tamanhoMaximoPagina = tamanhoMaximoPagina;
+    }
+
+    // Paginação por numero de pagina (limit/offset). O banco percorre e descarta "offset" linhas,
+    // por isso paginas alem de app.produtos.offset-maximo devem usar pesquisarPorCursor.
+    public Page<Produto> pesquisar(String nome, String descricao, Double precoMinimo, Double precoMaximo, Pageable pageable){
+        return produtoRepository.pesquisar(new FiltroProduto(nome, descricao, precoMinimo, precoMaximo), paginacaoValidada(pageable));
+    }
+
+    // Paginação por cursor (keyset): continua depois do (nome, id) do ultimo produto entregue.
+    // Custo constante em qualquer profundidade, usa o indice por nome (idx_produto_nome no banco).
+    public JanelaProdutos pesquisarPorCursor(String nome, String descricao, Double precoMinimo, Double precoMaximo,
+                                             String cursor, int tamanho){
+        ScrollPosition posicao = cursor == null || cursor.isBlank() ? ScrollPosition.keyset() : decodificarCursor(cursor);
+        int limite = Math.clamp(tamanho, 1, tamanhoMaximoPagina);
+
+        Window<Produto> janela = produtoRepository.pesquisarPorCursor(
+                new FiltroProduto(nome, descricao, precoMinimo, precoMaximo), posicao, limite);
+
+        String proximoCursor = janela.hasNext() && !janela.isEmpty()
+                ? codificarCursor((KeysetScrollPosition) janela.positionAt(janela.size() - 1))
+                : null;
+        return new JanelaProdutos(janela.getContent(), proximoCursor);
+    }
+
+    private Pageable paginacaoValidada(Pageable pageable){
+        for (Sort.Order ordem : pageable.getSort()){
+            if (!CAMPOS_ORDENACAO.contains(ordem.getProperty())){
+                throw new IllegalArgumentException("Ordenação não permitida: " + ordem.getProperty()
+                        + ". Campos permitidos: " + CAMPOS_ORDENACAO);
+            }
+        }
+        if (pageable.getOffset() + pageable.getPageSize() > offsetMaximo){
+            throw new IllegalArgumentException("Pagina muito profunda (limite de " + offsetMaximo
+                    + " produtos). Use /produtos/cursor para percorrer o catalogo.");
+        }
+
+        // id no final deixa a ordem deterministica entre paginas quando os valores se repetem.
+        Sort ordenacao = pageable.getSort().and(Sort.by("id"));
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), ordenacao);
+    }
+
+    // Cursor opaco para o cliente: base64 de "nome\0id" do ultimo produto da pagina.
+    private static String codificarCursor(KeysetScrollPosition posicao){
+        Map<String, ?> chaves = posicao.getKeys();
+        String valor = chaves.get("nome") + String.valueOf(SEPARADOR_CURSOR) + chaves.get("id");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ScrollPosition decodificarCursor(String cursor){
+        String valor;
+        try {
+            valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor invalido");
+        }
+        int separador = valor.lastIndexOf(SEPARADOR_CURSOR);
+        if (separador < 0){
+            throw new IllegalArgumentException("Cursor invalido");
+        }
+        return ScrollPosition.forward(Map.of("nome", valor.substring(0, separador), "id", UUID.fromString(valor.substring(separador + 1))));
+    }
+}
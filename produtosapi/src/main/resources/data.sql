@@ -1,6 +1,11 @@
 create table produto (
-    id varchar(255) not null primary key,
+    id uuid not null primary key, -- UUIDv7 (ver Produto e migracao-produto-uuid.sql)
     nome varchar(50) not null,
     descricao varchar(300),
     preco numeric(18,2)
-);
\ No newline at end of file
+);
+
+-- Pesquisa de produtos (ProdutoService): prefixo do nome, faixa de preço e ordenação.
+-- nome + id: ordem da paginação por cursor (where (nome, id) > (?, ?) order by nome, id)
+create index idx_produto_nome on produto (nome, id);
+create index idx_produto_preco on produto (preco);
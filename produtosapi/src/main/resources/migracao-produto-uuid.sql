@@ -0,0 +1,11 @@
+-- Migração de produto.id: varchar(255) com UUID.randomUUID().toString() -> uuid nativo (novos ids: UUIDv7).
+-- Os ids existentes são uuid v4 em texto: a conversão é sem perda e as URLs /produtos/{id} continuam iguais.
+
+-- 1) Conferir antes: deve retornar zero linhas (id que não é uuid impede a conversão)
+select id from produto where not regexp_like(id, '^[0-9a-fA-F]{8}-([0-9a-fA-F]{4}-){3}[0-9a-fA-F]{12}$');
+
+-- 2) H2
+alter table produto alter column id set data type uuid;
+
+-- PostgreSQL
+-- alter table produto alter column id type uuid using id::uuid;
@@ -0,0 +1,117 @@
+package com.github.sergiocostaczr.produtosapi;
+
+import org.hibernate.id.uuid.UuidVersion7Strategy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Inserts/s e espaço em disco da tabela produto (com os indices do data.sql) num H2 em arquivo, por tipo de id:
+ *  - varchar-v4: como era, UUID.randomUUID().toString() em varchar(255)
+ *  - uuid-v4:    coluna uuid, valores aleatorios
+ *  - uuid-v7:    coluna uuid, UUIDv7 (Produto)
+ *
+ * Executar (depois de mvn test-compile):
+ *   mvn exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.github.sergiocostaczr.produtosapi.ProdutoIdBenchmark -Dexec.args="10000000"
+ * Argumentos: quantidade de produtos, produtos por transação (padrão 10000). Bancos em target/benchmark-produto-id.
+ */
+public class ProdutoIdBenchmark {
+
+    private static final Path DIRETORIO = Path.of("target", "benchmark-produto-id");
+
+    private enum Variante {
+        VARCHAR_V4("varchar(255)"),
+        UUID_V4("uuid"),
+        UUID_V7("uuid");
+
+        final String tipoColuna;
+
+        Variante(String tipoColuna) {
+            this.tipoColuna = tipoColuna;
+        }
+
+        Object novoId(){
+            return switch (this){
+                case VARCHAR_V4 -> UUID.randomUUID().toString();
+                case UUID_V4 -> UUID.randomUUID();
+                case UUID_V7 -> UuidVersion7Strategy.INSTANCE.generateUuid(null);
+            };
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        long quantidade = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        int porTransacao = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+
+        apagarDiretorio();
+        System.out.printf("%-11s %14s %14s %12s%n", "id", "inserts/s", "ultimos 10%/s", "disco (MB)");
+        for (Variante variante : Variante.values()){
+            medir(variante, quantidade, porTransacao);
+        }
+    }
+
+    private static void medir(Variante variante, long quantidade, int porTransacao) throws SQLException, IOException {
+        Path arquivo = DIRETORIO.resolve(variante.name().toLowerCase());
+        String url = "jdbc:h2:file:" + arquivo.toAbsolutePath();
+
+        try (Connection conexao = DriverManager.getConnection(url, "sa", "")) {
+            try (Statement st = conexao.createStatement()) {
+                st.execute("create table produto (id " + variante.tipoColuna + " not null primary key, "
+                        + "nome varchar(50) not null, descricao varchar(300), preco numeric(18,2))");
+                st.execute("create index idx_produto_nome on produto (nome, id)");
+                st.execute("create index idx_produto_preco on produto (preco)");
+            }
+            conexao.setAutoCommit(false);
+
+            long inicio = System.nanoTime();
+            long inicioUltimos = inicio;
+            long limiteUltimos = quantidade - quantidade / 10;
+            try (PreparedStatement insert = conexao.prepareStatement(
+                    "insert into produto (id, nome, descricao, preco) values (?, ?, ?, ?)")) {
+                for (long i = 0; i < quantidade; i++){
+                    if (i == limiteUltimos){
+                        inicioUltimos = System.nanoTime();
+                    }
+                    insert.setObject(1, variante.novoId());
+                    insert.setString(2, "Produto " + (i % 100_000));
+                    insert.setString(3, "descricao " + i);
+                    insert.setDouble(4, i % 10_000);
+                    insert.addBatch();
+                    if ((i + 1) % porTransacao == 0 || i + 1 == quantidade){
+                        insert.executeBatch();
+                        conexao.commit();
+                    }
+                }
+            }
+            long fim = System.nanoTime();
+
+            try (Statement st = conexao.createStatement()) {
+                st.execute("shutdown compact");
+            }
+            double porSegundo = quantidade / ((fim - inicio) / 1e9);
+            double ultimosPorSegundo = (quantidade - limiteUltimos) / ((fim - inicioUltimos) / 1e9);
+            double megabytes = Files.size(Path.of(arquivo + ".mv.db")) / (1024.0 * 1024.0);
+            System.out.printf("%-11s %,14.0f %,14.0f %,12.1f%n", variante.name().toLowerCase(), porSegundo, ultimosPorSegundo, megabytes);
+        }
+    }
+
+    private static void apagarDiretorio() throws IOException {
+        if (Files.exists(DIRETORIO)){
+            try (Stream<Path> arquivos = Files.walk(DIRETORIO)) {
+                for (Path arquivo : arquivos.sorted(Comparator.reverseOrder()).toList()){
+                    Files.delete(arquivo);
+                }
+            }
+        }
+        Files.createDirectories(DIRETORIO);
+    }
+}
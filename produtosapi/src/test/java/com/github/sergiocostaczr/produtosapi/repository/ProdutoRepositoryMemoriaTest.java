@@ -0,0 +1,188 @@
+package com.github.sergiocostaczr.produtosapi.repository;
+
+import com.github.sergiocostaczr.produtosapi.model.Produto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProdutoRepositoryMemoriaTest {
+
+    private static final FiltroProduto SEM_FILTRO = new FiltroProduto(null, null, null, null);
+
+    ProdutoRepositoryMemoria repository;
+
+    @BeforeEach
+    void setUp(){
+        repository = new ProdutoRepositoryMemoria();
+    }
+
+    @Test
+    void atualizarMantemOsIndicesConsistentes(){
+        Produto produto = repository.save(produto("Celular", "antigo", 100.0));
+
+        // mesmo nome e preço: a posição nos indices não muda
+        produto.setDescricao("novo");
+        repository.save(produto);
+        assertEquals("novo", repository.findByNome("Celular").getFirst().getDescricao());
+        assertEquals(1, repository.pesquisar(new FiltroProduto(null, null, 100.0, 100.0), PageRequest.of(0, 10)).getTotalElements());
+
+        // nome e preço novos: sai da posição antiga
+        produto.setNome("Tablet");
+        produto.setPreco(null);
+        repository.save(produto);
+        assertTrue(repository.findByNome("Celular").isEmpty());
+        assertEquals(0, repository.pesquisar(new FiltroProduto(null, null, 0.0, null), PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(1, repository.pesquisar(new FiltroProduto("Tab", null, null, null), PageRequest.of(0, 10)).getTotalElements());
+
+        repository.deleteById(produto.getId());
+        assertEquals(0, repository.count());
+        assertEquals(0, repository.pesquisar(SEM_FILTRO, PageRequest.of(0, 10, Sort.by("nome"))).getTotalElements());
+    }
+
+    @Test
+    void ordenaPorPrecoComSemPrecoPrimeiroEDesempataPelaSegundaOrdenacao(){
+        repository.saveAll(List.of(
+                produto("b", null, 20.0),
+                produto("a", null, 20.0),
+                produto("c", null, null),
+                produto("d", null, 10.0)));
+
+        Page<Produto> pagina = repository.pesquisar(SEM_FILTRO, PageRequest.of(0, 10, Sort.by("preco", "nome")));
+        assertEquals(List.of("c", "d", "a", "b"), nomes(pagina));
+
+        pagina = repository.pesquisar(SEM_FILTRO, PageRequest.of(0, 2, Sort.by(Sort.Order.desc("preco"), Sort.Order.asc("nome"))));
+        assertEquals(List.of("a", "b"), nomes(pagina));
+        assertEquals(4, pagina.getTotalElements());
+    }
+
+    @Test
+    void nomeIgnoraMaiusculasNaOrdemMasNaoNoFiltro(){
+        repository.saveAll(List.of(produto("celular", null, null), produto("Cabo", null, null), produto("Celular", null, null)));
+
+        assertEquals(List.of("Cabo", "Celular", "celular"), nomes(repository.pesquisar(SEM_FILTRO, PageRequest.of(0, 10, Sort.by("nome")))));
+        assertEquals(List.of("Celular"), nomes(repository.pesquisar(new FiltroProduto("Cel", null, null, null), PageRequest.of(0, 10))));
+        assertEquals(1, repository.findByNome("celular").size());
+    }
+
+    @Test
+    void upsertPorNomeAtualizaTodosComOMesmoNome(){
+        repository.saveAll(List.of(produto("Fone", "a", 1.0), produto("Fone", "b", 2.0)));
+
+        ProdutoRepository.Upsert resultado = repository.upsertPorNome(List.of(produto("Fone", "c", 3.0), produto("Cabo", null, 4.0)));
+
+        assertEquals(new ProdutoRepository.Upsert(1, 1), resultado);
+        assertTrue(repository.findByNome("Fone").stream().allMatch(p -> p.getPreco() == 3.0));
+        assertEquals(3, repository.count());
+    }
+
+    @Test
+    void restauraDoSnapshotMaisLogDepoisDeUmaQueda(@TempDir Path diretorio) throws IOException {
+        ProdutoRepositoryMemoria original = new ProdutoRepositoryMemoria(persistencia(diretorio));
+        Produto celular = original.save(produto("Celular", "antigo", 100.0));
+        Produto cabo = original.save(produto("Cabo", null, null));
+        original.save(produto("Fone", "bluetooth", 50.0));
+        original.gravarSnapshot();
+
+        // depois do snapshot, só no log
+        celular.setPreco(90.0);
+        original.save(celular);
+        original.deleteById(cabo.getId());
+        original.upsertPorNome(List.of(produto("Carregador", "usb-c", 30.0)));
+        // sem fechar: simula o processo caindo
+
+        ProdutoRepositoryMemoria restaurado = new ProdutoRepositoryMemoria(persistencia(diretorio));
+        assertEquals(3, restaurado.count());
+        assertEquals(90.0, restaurado.findById(celular.getId()).orElseThrow().getPreco());
+        assertFalse(restaurado.existsById(cabo.getId()));
+        assertEquals("usb-c", restaurado.findByNome("Carregador").getFirst().getDescricao());
+        assertEquals(List.of("Carregador", "Celular", "Fone"),
+                nomes(restaurado.pesquisar(SEM_FILTRO, PageRequest.of(0, 10, Sort.by("nome")))));
+    }
+
+    @Test
+    void descartaOperacaoIncompletaNoFimDoLog(@TempDir Path diretorio) throws IOException {
+        ProdutoRepositoryMemoria original = new ProdutoRepositoryMemoria(persistencia(diretorio));
+        original.save(produto("Celular", null, 100.0));
+        original.deleteAll();
+        original.save(produto("Fone", null, 50.0));
+
+        // queda no meio da escrita: tamanho e metade dos dados de uma operação
+        Path ultimoLog;
+        try (var arquivos = Files.list(diretorio)) {
+            ultimoLog = arquivos.filter(p -> p.toString().endsWith(".log")).sorted().toList().getLast();
+        }
+        Files.write(ultimoLog, new byte[]{0, 0, 0, 40, 1, 2, 3, 4, 1, 9}, StandardOpenOption.APPEND);
+
+        ProdutoRepositoryMemoria restaurado = new ProdutoRepositoryMemoria(persistencia(diretorio));
+        assertEquals(1, restaurado.count());
+        assertEquals(1, restaurado.findByNome("Fone").size());
+
+        // o que vem depois continua legivel
+        restaurado.save(produto("Cabo", null, 10.0));
+        assertEquals(2, new ProdutoRepositoryMemoria(persistencia(diretorio)).count());
+    }
+
+    @Test
+    void descartaFimPreenchidoComZerosNoLog(@TempDir Path diretorio) throws IOException {
+        ProdutoRepositoryMemoria original = new ProdutoRepositoryMemoria(persistencia(diretorio));
+        original.save(produto("Fone", null, 50.0));
+
+        // sistema de arquivos aumentou o tamanho na queda, mas os dados não chegaram ao disco
+        Files.write(ultimoLog(diretorio), new byte[64], StandardOpenOption.APPEND);
+
+        assertEquals(1, new ProdutoRepositoryMemoria(persistencia(diretorio)).count());
+    }
+
+    @Test
+    void operacaoCorrompidaNoMeioDoLogImpedeASubida(@TempDir Path diretorio) throws IOException {
+        ProdutoRepositoryMemoria original = new ProdutoRepositoryMemoria(persistencia(diretorio));
+        original.save(produto("Celular", null, 100.0));
+        original.save(produto("Fone", null, 50.0));
+
+        // um byte trocado nos dados da primeira operação (depois do cabeçalho de 8 bytes e de tamanho + crc)
+        Path log = ultimoLog(diretorio);
+        byte[] conteudo = Files.readAllBytes(log);
+        conteudo[8 + 8 + 20] ^= 1;
+        Files.write(log, conteudo);
+
+        IOException erro = assertThrows(IOException.class, () -> new ProdutoRepositoryMemoria(persistencia(diretorio)));
+        assertTrue(erro.getMessage().startsWith("Log corrompido"));
+        // nada foi descartado: o arquivo fica como estava para ser analisado
+        assertArrayEquals(conteudo, Files.readAllBytes(log));
+    }
+
+    private static Path ultimoLog(Path diretorio) throws IOException {
+        try (var arquivos = Files.list(diretorio)) {
+            return arquivos.filter(p -> p.toString().endsWith(".log")).sorted().toList().getLast();
+        }
+    }
+
+    private static PersistenciaCatalogoProperties persistencia(Path diretorio){
+        PersistenciaCatalogoProperties propriedades = new PersistenciaCatalogoProperties();
+        propriedades.setDiretorio(diretorio.toString());
+        return propriedades;
+    }
+
+    private static List<String> nomes(Page<Produto> pagina){
+        return pagina.getContent().stream().map(Produto::getNome).toList();
+    }
+
+    private static Produto produto(String nome, String descricao, Double preco){
+        Produto produto = new Produto();
+        produto.setNome(nome);
+        produto.setDescricao(descricao);
+        produto.setPreco(preco);
+        return produto;
+    }
+}
@@ -0,0 +1,108 @@
+package com.github.sergiocostaczr.produtosapi.service;
+
+import com.github.sergiocostaczr.produtosapi.controller.dto.ResultadoImportacao;
+import com.github.sergiocostaczr.produtosapi.model.Produto;
+import com.github.sergiocostaczr.produtosapi.repository.ProdutoRepository;
+import com.github.sergiocostaczr.produtosapi.service.ImportacaoProdutosService.Formato;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ImportacaoProdutosServiceTest {
+
+    @Autowired
+    ImportacaoProdutosService service;
+
+    @Autowired
+    ProdutoRepository repository;
+
+    @BeforeEach
+    void setUp(){
+        repository.deleteAll();
+        Produto existente = new Produto();
+        existente.setNome("Celular X");
+        existente.setDescricao("antigo");
+        existente.setPreco(1000.0);
+        repository.save(existente);
+    }
+
+    @Test
+    void csvFazUpsertPeloNomeERejeitaLinhasInvalidas() throws IOException {
+        String csv = """
+                preco,nome,descricao
+                1500.50,Celular X,"tela 6,5"" 5G"
+                99.90,Fone Y,bluetooth
+                abc,Cabo Z,usb-c
+                10,,sem nome
+                120,Fone Y,bluetooth 5.3
+                200,"Carregador,"aspas
+                """;
+
+        ResultadoImportacao resultado = service.importar(corpo(csv), Formato.CSV, StandardCharsets.UTF_8);
+
+        assertEquals(6, resultado.linhas());
+        assertEquals(1, resultado.inseridos());
+        assertEquals(2, resultado.atualizados()); // Celular X (banco) e Fone Y (repetido no arquivo)
+        assertEquals(3, resultado.rejeitados());
+        assertEquals(List.of(4L, 5L, 7L), resultado.rejeicoes().stream().map(ResultadoImportacao.Rejeicao::linha).toList());
+
+        Produto celular = repository.findByNome("Celular X").getFirst();
+        assertEquals("tela 6,5\" 5G", celular.getDescricao());
+        assertEquals(1500.50, celular.getPreco());
+        assertEquals(120.0, repository.findByNome("Fone Y").getFirst().getPreco());
+        assertEquals(2, repository.count());
+    }
+
+    @Test
+    void ndjsonGravaEmVariosLotes() throws IOException {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 2500; i++){
+            ndjson.append("{\"nome\":\"Produto ").append(i).append("\",\"preco\":").append(i).append(",\"sku\":\"x\"}\n");
+        }
+        ndjson.append("{\"nome\": \n");
+        ndjson.append("{\"nome\":\"Celular X\",\"descricao\":\"novo\",\"preco\":900}\n");
+
+        ResultadoImportacao resultado = service.importar(corpo(ndjson.toString()), Formato.NDJSON, StandardCharsets.UTF_8);
+
+        assertEquals(2502, resultado.linhas());
+        assertEquals(2500, resultado.inseridos());
+        assertEquals(1, resultado.atualizados());
+        assertEquals(1, resultado.rejeitados());
+        assertEquals(2501, resultado.rejeicoes().getFirst().linha());
+        assertEquals(2501, repository.count());
+        assertEquals("novo", repository.findByNome("Celular X").getFirst().getDescricao());
+    }
+
+    @Test
+    void linhaMaiorQueOMaximoERejeitadaSemPararAImportacao() throws IOException {
+        String longa = "x".repeat(ImportacaoProdutosService.TAMANHO_MAXIMO_LINHA * 3);
+        String csv = "nome,descricao\r\nCabo Z,usb-c\r\n" + longa + "\r\nFone Y,bluetooth\r\n";
+
+        ResultadoImportacao resultado = service.importar(corpo(csv), Formato.CSV, StandardCharsets.UTF_8);
+
+        assertEquals(3, resultado.linhas());
+        assertEquals(2, resultado.inseridos());
+        assertEquals(List.of(3L), resultado.rejeicoes().stream().map(ResultadoImportacao.Rejeicao::linha).toList());
+        assertEquals("bluetooth", repository.findByNome("Fone Y").getFirst().getDescricao());
+    }
+
+    @Test
+    void csvSemColunaNomeERecusado(){
+        assertThrows(IllegalArgumentException.class,
+                () -> service.importar(corpo("descricao,preco\nx,1\n"), Formato.CSV, StandardCharsets.UTF_8));
+    }
+
+    private static InputStream corpo(String conteudo){
+        return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,8 @@
+package com.github.sergiocostaczr.produtosapi.service;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+// Os mesmos testes do ProdutoServiceTest com o catalogo em memoria (ProdutoRepositoryMemoria).
+@SpringBootTest(properties = "app.produtos.armazenamento=memoria")
+class ProdutoServiceMemoriaTest extends ProdutoServiceTest {
+}
@@ -0,0 +1,95 @@
+package com.github.sergiocostaczr.produtosapi.service;
+
+import com.github.sergiocostaczr.produtosapi.controller.dto.JanelaProdutos;
+import com.github.sergiocostaczr.produtosapi.model.Produto;
+import com.github.sergiocostaczr.produtosapi.repository.ProdutoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ProdutoServiceTest {
+
+    private static final int QUANTIDADE = 250;
+
+    @Autowired
+    ProdutoService service;
+
+    @Autowired
+    ProdutoRepository repository;
+
+    @BeforeEach
+    void setUp(){
+        repository.deleteAll();
+        List<Produto> produtos = new ArrayList<>();
+        for (int i = 0; i < QUANTIDADE; i++){
+            // nomes repetidos: o cursor precisa do id para desempatar
+            produtos.add(produto((i % 2 == 0 ? "Celular " : "Notebook ") + (i % 10), "modelo " + i + (i % 5 == 0 ? " 5G" : ""), (double) i));
+        }
+        repository.saveAll(produtos);
+    }
+
+    @Test
+    void cursorPercorreTodosOsProdutosSemRepetir(){
+        Set<UUID> vistos = new HashSet<>();
+        String cursor = null;
+        String nomeAnterior = "";
+        int paginas = 0;
+        do {
+            JanelaProdutos janela = service.pesquisarPorCursor(null, null, null, null, cursor, 40);
+            for (Produto produto : janela.conteudo()){
+                assertTrue(vistos.add(produto.getId()), "produto repetido");
+                assertTrue(produto.getNome().compareTo(nomeAnterior) >= 0, "fora de ordem");
+                nomeAnterior = produto.getNome();
+            }
+            cursor = janela.proximoCursor();
+            paginas++;
+        } while (cursor != null);
+
+        assertEquals(QUANTIDADE, vistos.size());
+        assertEquals(7, paginas);
+    }
+
+    @Test
+    void filtrosCombinados(){
+        Page<Produto> pagina = service.pesquisar("Cel", "5g", 100.0, 200.0, PageRequest.of(0, 100, Sort.by("preco")));
+
+        // pares (Celular), multiplos de 5 (5G) entre 100 e 200: 100, 110, ..., 200
+        assertEquals(11, pagina.getTotalElements());
+        assertEquals(100.0, pagina.getContent().getFirst().getPreco());
+
+        JanelaProdutos janela = service.pesquisarPorCursor("Cel", "5g", 100.0, 200.0, null, 100);
+        assertEquals(11, janela.conteudo().size());
+        assertNull(janela.proximoCursor());
+    }
+
+    @Test
+    void pesquisaRecusaOrdenacaoSemIndiceEPaginaProfunda(){
+        assertThrows(IllegalArgumentException.class,
+                () -> service.pesquisar(null, null, null, null, PageRequest.of(0, 20, Sort.by("descricao"))));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.pesquisar(null, null, null, null, PageRequest.of(1000, 20)));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.pesquisarPorCursor(null, null, null, null, "nao-e-um-cursor", 20));
+    }
+
+    private static Produto produto(String nome, String descricao, Double preco){
+        Produto produto = new Produto();
+        produto.setNome(nome);
+        produto.setDescricao(descricao);
+        produto.setPreco(preco);
+        return produto;
+    }
+}